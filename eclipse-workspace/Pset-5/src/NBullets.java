@@ -1,4 +1,5 @@
 import java.awt.Color;
+import java.util.Arrays;
 import java.util.Random;
 
 import javalib.funworld.World;
@@ -39,6 +40,12 @@ interface ILoBullet {
   // determines if the passed in ship has hit any bullets
   boolean anyHits(Ship ship);
 
+  // counts the bullets in this list
+  int length();
+
+  // EFFECT: adds every bullet of this list to the given store, in order
+  void addTo(EntityStore store);
+
 }
 
 // represents an empty list of bullets 
@@ -93,6 +100,15 @@ class MtLoBullet implements ILoBullet {
   public boolean anyHits(Ship ship) {
     return false;
   }
+
+  // counts the bullets in this empty list
+  public int length() {
+    return 0;
+  }
+
+  // adds nothing, since this list of bullets is empty
+  public void addTo(EntityStore store) {
+  }
 }
 
 // represents a list of Bullets 
@@ -162,6 +178,17 @@ class ConsLoBullet implements ILoBullet {
   public boolean anyHits(Ship ship) {
     return this.first.hit(ship) || this.rest.anyHits(ship);
   }
+
+  // counts the bullets in this non empty list
+  public int length() {
+    return 1 + this.rest.length();
+  }
+
+  // EFFECT: adds every bullet of this list to the given store, in order
+  public void addTo(EntityStore store) {
+    store.add(this.first);
+    this.rest.addTo(store);
+  }
 }
 
 // ship interface 
@@ -187,6 +214,12 @@ interface ILoShip {
 
   // removes any ships that have collided with a bullet
   ILoShip removeCollisions(ILoBullet lob);
+
+  // counts the ships in this list
+  int length();
+
+  // EFFECT: adds every ship of this list to the given store, in order
+  void addTo(EntityStore store);
 }
 
 //represents an empty list of ships 
@@ -237,6 +270,15 @@ class MtLoShip implements ILoShip {
   public ILoShip removeCollisions(ILoBullet lob) {
     return this;
   }
+
+  // counts the ships in this empty list
+  public int length() {
+    return 0;
+  }
+
+  // adds nothing, since this list of ships is empty
+  public void addTo(EntityStore store) {
+  }
 }
 
 //represents a list of ships 
@@ -310,6 +352,17 @@ class ConsLoShip implements ILoShip {
     }
 
   }
+
+  // counts the ships in this non empty list
+  public int length() {
+    return 1 + this.rest.length();
+  }
+
+  // EFFECT: adds every ship of this list to the given store, in order
+  public void addTo(EntityStore store) {
+    store.add(this.first);
+    this.rest.addTo(store);
+  }
 }
 
 //represents all the objects 
@@ -345,12 +398,13 @@ abstract class AObjects implements IObjects {
     return this.y - object.y;
   }
 
-  // did two objects collide with eachother
+  // did two objects collide with eachother, comparing squares so no root is taken
   public boolean hit(AObjects object) {
-    int x = this.distanceX(object);
-    int y = this.distanceY(object);
+    long x = this.distanceX(object);
+    long y = this.distanceY(object);
+    long sizes = object.size + this.size;
 
-    return Math.hypot(x, y) <= object.size + this.size;
+    return x * x + y * y <= sizes * sizes;
   }
 
   // moves an object on the screen
@@ -432,15 +486,23 @@ class Ship extends AObjects {
 
 }
 
-// world state of the game
+// world state of the game, its ships and bullets kept in entity stores that every tick and
+// key press update in place, returning this same scene
 class GameScene extends World {
   public int screenWidth = 500;
   public int screenHeight = 300;
   public double tickRate = 1.0 / 28.0;
+  // the most bullets on screen at once, explosions past it lose their pieces, so a chain of
+  // explosions can't grow without end
+  static int MAX_BULLETS = 20000;
   int bulletsLeft;
-  int destroyed;
-  ILoShip loShips;
-  ILoBullet loBullets;
+  int destroyed; // the score, one for every tick that destroys any ships
+  int shipsHit; // every ship destroyed, however many one tick destroys
+  EntityStore ships;
+  EntityStore bullets;
+  // the ships of the tick being played, bucketed for the bullets to look up, kept between
+  // ticks so its arrays are only made again when the game outgrows them
+  CollisionGrid grid;
   Random random;
   int clock;
 
@@ -459,41 +521,55 @@ class GameScene extends World {
     this(bullets, 0, new MtLoShip(), new MtLoBullet(), rand, 0);
   }
 
-  // constructing a game scene
+  // constructing a game scene, with the ships and bullets of the given lists
   public GameScene(int bulletsLeft, int destroyed, ILoShip loShips, ILoBullet loBullets,
       Random random, int clock) {
     this.bulletsLeft = bulletsLeft;
     this.destroyed = destroyed;
-    this.loShips = loShips;
-    this.loBullets = loBullets;
+    this.ships = new EntityStore(loShips);
+    this.bullets = new EntityStore(loBullets);
+    this.bullets.limit = GameScene.MAX_BULLETS;
+    this.grid = new CollisionGrid(0);
     this.random = random;
     this.clock = clock;
   }
 
-  // updates the game very tick
+  // the ships of this game, as a list
+  public ILoShip loShips() {
+    return this.ships.ships();
+  }
+
+  // the bullets of this game, as a list
+  public ILoBullet loBullets() {
+    return this.bullets.bullets();
+  }
+
+  // EFFECT: updates the game every tick, finding every ship a bullet hits in the one pass
+  // that moves the bullets, then dropping those ships
   public GameScene onTick() {
-    int collisionCount = this.loShips.countCollisions(this.loBullets);
-    if (collisionCount > 0) {
-      return new GameScene(this.bulletsLeft, this.destroyed + collisionCount,
-          this.loShips.removeCollisions(this.loBullets).spawn(this.clock, this.random).moveLOS(),
-          this.loBullets.moveLOB(this.loShips), this.random, this.clock + 1);
+    CollisionGrid ships = this.grid.fill(this.ships, this.bullets.count);
+    this.bullets.moveBullets(ships);
+    if (ships.hits > 0) {
+      // a tick scores one however many ships it destroys, as countCollisions counts
+      this.destroyed++;
+      this.shipsHit += ships.hits;
+      this.ships.removeHits(ships);
     }
-    else {
-      return new GameScene(this.bulletsLeft, this.destroyed,
-          this.loShips.spawn(this.clock, this.random).moveLOS(),
-          this.loBullets.moveLOB(this.loShips), this.random, this.clock + 1);
+    if (this.clock % 14 == 0) {
+      this.ships.spawnShip(this.random);
     }
+    this.ships.moveOnScreen();
+    this.clock++;
+    return this;
   }
 
-  // if the spacebar is pressed and there is enough remaining bullets fire a bullet
+  // EFFECT: if the spacebar is pressed and there is enough remaining bullets fire a bullet
   public GameScene onKeyEvent(String key) {
     if (key.equals(" ") && bulletsLeft > 0) {
-      return new GameScene(this.bulletsLeft - 1, this.destroyed, this.loShips,
-          new ConsLoBullet(new Bullet(), this.loBullets), this.random, this.clock);
-    }
-    else {
-      return this;
+      this.bulletsLeft--;
+      this.bullets.add(new Bullet());
     }
+    return this;
   }
 
   public WorldScene drawInfo(WorldScene ws) {
@@ -503,8 +579,13 @@ class GameScene extends World {
         80, 280);
   }
 
+  // determines if every bullet has been fired and none are left on the screen
+  public boolean isOver() {
+    return this.bulletsLeft <= 0 && this.bullets.count == 0;
+  }
+
   public WorldEnd worldEnds() {
-    if (bulletsLeft <= 0 && this.loBullets.isEmpty()) {
+    if (this.isOver()) {
       return new WorldEnd(true, makeScene());
     }
     return new WorldEnd(false, new WorldScene(screenWidth, screenHeight));
@@ -512,9 +593,573 @@ class GameScene extends World {
 
   // draw the ships and the bullets on to the new worldscene
   public WorldScene makeScene() {
-    return this.drawInfo(this.loBullets.draw(this.loShips.draw(new WorldScene(500, 300))));
+    return this.drawInfo(this.bullets.draw(this.ships.draw(new WorldScene(500, 300))));
+  }
+
+}
+
+// the ships or the bullets of one tick bucketed into a uniform grid over the box around them,
+// so finding what a circle touches only looks at the buckets its reach overlaps instead of
+// at every object
+// the buckets are as wide as the largest radius in the grid, widened when the box would need
+// more buckets than a few per object, and are laid out one after another, each bucket's
+// objects kept as their x, y and size
+// bucketing costs more than a few scans of every object, so a grid that will only be asked
+// about a few objects, or only holds a few, stays one bucket
+// a grid also keeps which of its objects have been hit, by the order they were added in, so
+// one pass over the other side of a tick finds every contact
+// a grid can be emptied and filled again, keeping its arrays while they're big enough
+class CollisionGrid {
+  static int ONE_BUCKET = 16;
+  int added; // how many objects have been added so far
+  int minX; // the top left corner of the box around every object
+  int minY;
+  int cellSize;
+  int cols;
+  int rows;
+  int maxSize; // the largest radius of any object in the grid
+  int[] start; // where each bucket starts in xs, ys and sizes, with one more for the end
+  int[] xs;
+  int[] ys;
+  int[] sizes;
+  int[] ids; // the order each object was added in
+  boolean[] hit; // which objects have been hit, in the order they were added in
+  int hits; // how many objects have been hit
+  // where bucketing puts the objects before they become xs, ys, sizes and ids
+  int[] spareXs;
+  int[] spareYs;
+  int[] spareSizes;
+  int[] spareIds;
+  int[] cells; // the bucket of each object, in the order they were added in
+  int[] next; // how many objects have been placed in each bucket
+
+  // an empty grid with room for the given number of objects
+  CollisionGrid(int count) {
+    this.xs = new int[count];
+    this.ys = new int[count];
+    this.sizes = new int[count];
+    this.ids = new int[count];
+    this.hit = new boolean[count];
+    this.spareXs = new int[count];
+    this.spareYs = new int[count];
+    this.spareSizes = new int[count];
+    this.spareIds = new int[count];
+    this.cells = new int[count];
+    this.start = new int[2];
+    this.next = new int[1];
+    this.reset(count);
+  }
+
+  // EFFECT: empties this grid, making room for the given number of objects
+  void reset(int count) {
+    if (this.xs.length < count) {
+      int capacity = Math.max(count, 2 * this.xs.length);
+      this.xs = new int[capacity];
+      this.ys = new int[capacity];
+      this.sizes = new int[capacity];
+      this.ids = new int[capacity];
+      this.hit = new boolean[capacity];
+      this.spareXs = new int[capacity];
+      this.spareYs = new int[capacity];
+      this.spareSizes = new int[capacity];
+      this.spareIds = new int[capacity];
+      this.cells = new int[capacity];
+    }
+    else {
+      Arrays.fill(this.hit, 0, count, false);
+    }
+    this.added = 0;
+    this.hits = 0;
+    this.maxSize = 0;
+    this.minX = 0;
+    this.minY = 0;
+    this.cellSize = 1;
+    this.cols = 1;
+    this.rows = 1;
+    this.start[0] = 0;
+    this.start[1] = 0;
+  }
+
+  // EFFECT: empties this grid and fills it with everything in the given store, bucketed if
+  // it's worth it for the given number of lookups, returns this grid
+  CollisionGrid fill(EntityStore store, int lookups) {
+    this.reset(store.count);
+    for (int i = 0; i < store.count; i++) {
+      this.add(store.x[i], store.y[i], store.size[i]);
+    }
+    return this.bucket(lookups);
+  }
+
+  // EFFECT: adds a circle at the given place of the given radius to the one bucket, before
+  // the grid is bucketed
+  void add(int x, int y, int size) {
+    this.xs[this.added] = x;
+    this.ys[this.added] = y;
+    this.sizes[this.added] = size;
+    this.ids[this.added] = this.added;
+    this.maxSize = Math.max(this.maxSize, size);
+    this.added++;
+    this.start[1] = this.added;
+  }
+
+  // EFFECT: sorts the added objects into buckets, if it's worth it for the given number of
+  // lookups, returns this grid
+  CollisionGrid bucket(int lookups) {
+    int count = this.added;
+    if (count <= CollisionGrid.ONE_BUCKET || lookups <= CollisionGrid.ONE_BUCKET) {
+      return this;
+    }
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    this.minX = Integer.MAX_VALUE;
+    this.minY = Integer.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      this.minX = Math.min(this.minX, this.xs[i]);
+      this.minY = Math.min(this.minY, this.ys[i]);
+      maxX = Math.max(maxX, this.xs[i]);
+      maxY = Math.max(maxY, this.ys[i]);
+    }
+    long width = (long) maxX - this.minX + 1;
+    long height = (long) maxY - this.minY + 1;
+    long cell = Math.max(this.maxSize, 1);
+    while ((width + cell - 1) / cell * ((height + cell - 1) / cell) > 4L * count) {
+      cell *= 2;
+    }
+    this.cellSize = (int) cell;
+    this.cols = (int) ((width + cell - 1) / cell);
+    this.rows = (int) ((height + cell - 1) / cell);
+    int buckets = this.cols * this.rows;
+    if (this.next.length < buckets) {
+      this.next = new int[Math.max(buckets, 2 * this.next.length)];
+      this.start = new int[this.next.length + 1];
+    }
+    else {
+      Arrays.fill(this.start, 0, buckets + 1, 0);
+      Arrays.fill(this.next, 0, buckets, 0);
+    }
+    // counts each bucket, then places every object after the buckets before its own
+    for (int i = 0; i < count; i++) {
+      this.cells[i] = this.col(this.xs[i]) * this.rows + this.row(this.ys[i]);
+      this.start[this.cells[i] + 1]++;
+    }
+    for (int c = 0; c < buckets; c++) {
+      this.start[c + 1] += this.start[c];
+    }
+    for (int i = 0; i < count; i++) {
+      int at = this.start[this.cells[i]] + this.next[this.cells[i]]++;
+      this.spareXs[at] = this.xs[i];
+      this.spareYs[at] = this.ys[i];
+      this.spareSizes[at] = this.sizes[i];
+      this.spareIds[at] = this.ids[i];
+    }
+    // the objects in bucket order become the grid, and the arrays they came from the spares
+    int[] swap = this.xs;
+    this.xs = this.spareXs;
+    this.spareXs = swap;
+    swap = this.ys;
+    this.ys = this.spareYs;
+    this.spareYs = swap;
+    swap = this.sizes;
+    this.sizes = this.spareSizes;
+    this.spareSizes = swap;
+    swap = this.ids;
+    this.ids = this.spareIds;
+    this.spareIds = swap;
+    return this;
   }
 
+  // the column of the grid the given x falls in, the nearest edge for one outside the box
+  int col(long x) {
+    return (int) Math.max(0, Math.min(this.cols - 1, Math.floorDiv(x - this.minX,
+        this.cellSize)));
+  }
+
+  // the row of the grid the given y falls in, the nearest edge for one outside the box
+  int row(long y) {
+    return (int) Math.max(0, Math.min(this.rows - 1, Math.floorDiv(y - this.minY,
+        this.cellSize)));
+  }
+
+  // determines if a circle at the given place of the given radius touches anything in this
+  // grid, marking everything it touches as hit if asked to, instead of stopping at the first
+  boolean touches(int x, int y, int size, boolean markAll) {
+    if (this.cols * this.rows == 1) {
+      return this.touches(x, y, size, 0, this.added, markAll);
+    }
+    long reach = (long) size + this.maxSize;
+    int lastCol = this.col(x + reach);
+    int firstRow = this.row(y - reach);
+    int lastRow = this.row(y + reach);
+    boolean touched = false;
+    for (int col = this.col(x - reach); col <= lastCol; col++) {
+      // the buckets of one column are next to each other, so its rows are one run
+      touched = this.touches(x, y, size, this.start[col * this.rows + firstRow],
+          this.start[col * this.rows + lastRow + 1], markAll) || touched;
+      if (touched && !markAll) {
+        return true;
+      }
+    }
+    return touched;
+  }
+
+  // determines if a circle at the given place of the given radius touches any of the
+  // objects from the given index up to the other, the same test as hit, marking everything
+  // it touches as hit if asked to
+  boolean touches(int x, int y, int size, int from, int to, boolean markAll) {
+    boolean touched = false;
+    for (int i = from; i < to; i++) {
+      // once the object has touched something, what's already hit has nothing left to add
+      if (touched && this.hit[this.ids[i]]) {
+        continue;
+      }
+      long dx = (long) this.xs[i] - x;
+      long dy = (long) this.ys[i] - y;
+      long sizes = this.sizes[i] + size;
+      if (dx * dx + dy * dy <= sizes * sizes) {
+        if (!markAll) {
+          return true;
+        }
+        touched = true;
+        if (!this.hit[this.ids[i]]) {
+          this.hits++;
+        }
+        this.hit[this.ids[i]] = true;
+      }
+    }
+    return touched;
+  }
+}
+
+// the ships or the bullets of a game, one slot of each array per entity, moved where they are
+// every tick, so a tick makes no objects and walks no lists
+// an entity is removed by moving the last one into its slot, so the order of the slots
+// changes, which nothing in the game depends on
+// how far an entity moves each tick is worked out once, when it's added, the same way move
+// works it out every time
+class EntityStore {
+  static int CAPACITY = 16;
+  int count;
+  int[] x;
+  int[] y;
+  int[] dx;
+  int[] dy;
+  int[] size;
+  int[] round; // the bulletRound of a bullet, 0 for a ship
+  double[] direction;
+  double[] velocity;
+  Color[] color;
+  Utils screen = new Utils();
+  int limit = Integer.MAX_VALUE; // explosions add no pieces once there are this many entities
+
+  // an empty store, with room for a few entities before it grows
+  EntityStore() {
+    this(EntityStore.CAPACITY);
+  }
+
+  // an empty store with room for the given number of entities before it grows
+  EntityStore(int capacity) {
+    this.x = new int[capacity];
+    this.y = new int[capacity];
+    this.dx = new int[capacity];
+    this.dy = new int[capacity];
+    this.size = new int[capacity];
+    this.round = new int[capacity];
+    this.direction = new double[capacity];
+    this.velocity = new double[capacity];
+    this.color = new Color[capacity];
+  }
+
+  // a store of the given ships, in the order of the list
+  EntityStore(ILoShip ships) {
+    this(Math.max(EntityStore.CAPACITY, ships.length()));
+    ships.addTo(this);
+  }
+
+  // a store of the given bullets, in the order of the list
+  EntityStore(ILoBullet bullets) {
+    this(Math.max(EntityStore.CAPACITY, bullets.length()));
+    bullets.addTo(this);
+  }
+
+  // EFFECT: adds the given ship, which moves along x only
+  void add(Ship ship) {
+    this.add(ship.size, ship.x, ship.y, ship.direction, ship.velocity, ship.color, 0, false);
+  }
+
+  // EFFECT: adds the given bullet
+  void add(Bullet bullet) {
+    this.add(bullet.size, bullet.x, bullet.y, bullet.direction, bullet.velocity, bullet.color,
+        bullet.bulletRound, true);
+  }
+
+  // EFFECT: adds an entity with the given fields, which only moves along y if asked to,
+  // doubling every array when they're full
+  void add(int size, int x, int y, double direction, double velocity, Color color, int round,
+      boolean movesY) {
+    if (this.count == this.x.length) {
+      int capacity = Math.max(EntityStore.CAPACITY, 2 * this.count);
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.dx = Arrays.copyOf(this.dx, capacity);
+      this.dy = Arrays.copyOf(this.dy, capacity);
+      this.size = Arrays.copyOf(this.size, capacity);
+      this.round = Arrays.copyOf(this.round, capacity);
+      this.direction = Arrays.copyOf(this.direction, capacity);
+      this.velocity = Arrays.copyOf(this.velocity, capacity);
+      this.color = Arrays.copyOf(this.color, capacity);
+    }
+    int i = this.count;
+    this.x[i] = x;
+    this.y[i] = y;
+    this.dx[i] = (int) (-velocity * Math.cos(Math.toRadians(direction)));
+    this.dy[i] = movesY ? (int) (velocity * Math.sin(Math.toRadians(direction))) : 0;
+    this.size[i] = size;
+    this.round[i] = round;
+    this.direction[i] = direction;
+    this.velocity[i] = velocity;
+    this.color[i] = color;
+    this.count++;
+  }
+
+  // EFFECT: adds a ship at a random height on one side of the screen, as spawnShip does
+  void spawnShip(Random rand) {
+    int randomY = rand.nextInt(200) + 50;
+    if (rand.nextInt() % 2 == 0) {
+      this.add(20, 0, randomY, 180.0, 5, Color.pink, 0, false);
+    }
+    else {
+      this.add(20, 500, randomY, 0.0, 5, Color.pink, 0, false);
+    }
+  }
+
+  // EFFECT: removes the entity in the given slot, moving the last one into it
+  void remove(int i) {
+    int last = this.count - 1;
+    this.x[i] = this.x[last];
+    this.y[i] = this.y[last];
+    this.dx[i] = this.dx[last];
+    this.dy[i] = this.dy[last];
+    this.size[i] = this.size[last];
+    this.round[i] = this.round[last];
+    this.direction[i] = this.direction[last];
+    this.velocity[i] = this.velocity[last];
+    this.color[i] = this.color[last];
+    // clears the last slot, so stores with the same entities are the same
+    this.x[last] = 0;
+    this.y[last] = 0;
+    this.dx[last] = 0;
+    this.dy[last] = 0;
+    this.size[last] = 0;
+    this.round[last] = 0;
+    this.direction[last] = 0;
+    this.velocity[last] = 0;
+    this.color[last] = null;
+    this.count = last;
+  }
+
+  // determines if the entity in the given slot is within the screen
+  boolean onScreen(int i) {
+    return this.screen.onScreen(this.size[i], this.x[i], this.y[i]);
+  }
+
+  // EFFECT: moves the entity in the given slot according to its velocity
+  void move(int i) {
+    this.x[i] += this.dx[i];
+    this.y[i] += this.dy[i];
+  }
+
+  // EFFECT: moves every entity on the screen, and removes the rest, as moveLOS does
+  void moveOnScreen() {
+    for (int i = this.count - 1; i >= 0; i--) {
+      if (this.onScreen(i)) {
+        this.move(i);
+      }
+      else {
+        this.remove(i);
+      }
+    }
+  }
+
+  // EFFECT: removes every entity marked as hit in the given grid, which was filled from this
+  void removeHits(CollisionGrid grid) {
+    // going from the end, the entity moved into a removed slot has already been looked at
+    for (int i = this.count - 1; i >= 0; i--) {
+      if (grid.hit[i]) {
+        this.remove(i);
+      }
+    }
+  }
+
+  // EFFECT: moves every bullet on the screen, explodes those that hit a ship in the given grid
+  // and removes the rest, marking every ship a bullet hits, as moveLOB does
+  void moveBullets(CollisionGrid ships) {
+    // going from the end, the pieces of an explosion go after every bullet left to look at,
+    // and aren't moved until the next tick
+    for (int i = this.count - 1; i >= 0; i--) {
+      boolean hitShip = ships.touches(this.x[i], this.y[i], this.size[i], true);
+      if (this.onScreen(i) && hitShip) {
+        this.explode(i);
+        this.remove(i);
+      }
+      else if (this.onScreen(i)) {
+        this.move(i);
+      }
+      else {
+        this.remove(i);
+      }
+    }
+  }
+
+  // EFFECT: adds the pieces the bullet in the given slot explodes into, as explode does,
+  // as many as fit under the limit
+  void explode(int i) {
+    int bulletRound = this.round[i];
+    int pieceSize = bulletRound < 4 ? this.size[i] + 2 * bulletRound : this.size[i];
+    double explodeAngle = 360.00 / (bulletRound + 1);
+    for (int piece = bulletRound + 1; piece > 0 && this.count < this.limit; piece--) {
+      this.add(pieceSize, this.x[i], this.y[i], explodeAngle * piece, 10, Color.blue,
+          bulletRound + 1, true);
+    }
+  }
+
+  // the bullet in the given slot
+  Bullet bullet(int i) {
+    return new Bullet(this.size[i], this.x[i], this.y[i], this.direction[i], this.velocity[i],
+        this.color[i], this.round[i]);
+  }
+
+  // the ships in this store, in slot order
+  ILoShip ships() {
+    ILoShip ships = new MtLoShip();
+    for (int i = this.count - 1; i >= 0; i--) {
+      ships = new ConsLoShip(new Ship(this.size[i], this.x[i], this.y[i], this.direction[i],
+          this.velocity[i], this.color[i]), ships);
+    }
+    return ships;
+  }
+
+  // the bullets in this store, in slot order
+  ILoBullet bullets() {
+    ILoBullet bullets = new MtLoBullet();
+    for (int i = this.count - 1; i >= 0; i--) {
+      bullets = new ConsLoBullet(this.bullet(i), bullets);
+    }
+    return bullets;
+  }
+
+  // draws every entity in this store
+  WorldScene draw(WorldScene ws) {
+    for (int i = 0; i < this.count; i++) {
+      ws = ws.placeImageXY(new CircleImage(this.size[i], "solid", this.color[i]), this.x[i],
+          this.y[i]);
+    }
+    return ws;
+  }
+}
+
+// what a headless run of NBullets did
+class RunReport {
+  long ticks;
+  int games; // games started, a new one begins whenever one is over
+  long shots; // bullets fired from the bottom of the screen
+  long destroyed; // ships that collided with a bullet, every one of a tick that hits several
+  long nanos;
+  GameScene last; // the game as the run left it
+  // the error that stopped the run early, or null if every tick was played
+  Throwable failure;
+
+  RunReport(long ticks, int games, long shots, long destroyed, long nanos, GameScene last,
+      Throwable failure) {
+    this.ticks = ticks;
+    this.games = games;
+    this.shots = shots;
+    this.destroyed = destroyed;
+    this.nanos = nanos;
+    this.last = last;
+    this.failure = failure;
+  }
+
+  // how many ticks the run got through per second
+  double ticksPerSecond() {
+    return this.ticks / (Math.max(this.nanos, 1) / 1e9);
+  }
+
+  // a summary of the run
+  public String toString() {
+    return String.format("%,d ticks in %.3f s, %,.0f ticks/s, %,d games, %,d shots, "
+        + "%,d ships destroyed", this.ticks, this.nanos / 1e9, this.ticksPerSecond(),
+        this.games, this.shots, this.destroyed)
+        + (this.failure == null ? "" : ", stopped by " + this.failure);
+  }
+}
+
+// plays NBullets without a window, stepping onKeyEvent and onTick as fast as they go instead
+// of at the tick rate of big-bang, so the game can be run for millions of ticks
+// the input is a script with one character per tick, the key pressed before that tick, or
+// '.' for none, repeated for as long as the run lasts
+// every game of a run shares one Random with a fixed seed, so the same run plays the same way
+class NBulletsRunner {
+  String script;
+  String[] keys; // the key of each tick of the script, made once so ticks don't make them
+  long seed;
+  int bullets; // the bullets each game starts with
+
+  NBulletsRunner(String script, long seed, int bullets) {
+    if (script.isEmpty()) {
+      throw new IllegalArgumentException("the script needs at least one tick");
+    }
+    this.script = script;
+    this.keys = new String[script.length()];
+    for (int i = 0; i < script.length(); i++) {
+      this.keys[i] = String.valueOf(script.charAt(i));
+    }
+    this.seed = seed;
+    this.bullets = bullets;
+  }
+
+  // plays the given number of ticks, starting a new game whenever one is over, or until a
+  // tick throws, which ends the run with the ticks played before it
+  RunReport run(long ticks) {
+    Random random = new Random(this.seed);
+    GameScene game = new GameScene(random, this.bullets);
+    int games = 1;
+    long shots = 0;
+    long destroyed = 0;
+    long tick = 0;
+    Throwable failure = null;
+    long start = System.nanoTime();
+    try {
+      for (; tick < ticks; tick++) {
+        if (game.isOver()) {
+          destroyed += game.shipsHit;
+          game = new GameScene(random, this.bullets);
+          games++;
+        }
+        String key = this.keys[(int) (tick % this.keys.length)];
+        if (!key.equals(".")) {
+          int before = game.bulletsLeft;
+          game = game.onKeyEvent(key);
+          shots += before - game.bulletsLeft;
+        }
+        game = game.onTick();
+      }
+    }
+    catch (RuntimeException e) {
+      // a tick that throws is what a fuzzing run is looking for
+      failure = e;
+    }
+    long nanos = System.nanoTime() - start;
+    return new RunReport(tick, games, shots, destroyed + game.shipsHit, nanos, game, failure);
+  }
+
+  // arguments: [ticks] [script] [seed] [bullets]
+  public static void main(String[] args) {
+    long ticks = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+    String script = args.length > 1 ? args[1] : " ...............";
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 2510;
+    int bullets = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+    System.out.println(new NBulletsRunner(script, seed, bullets).run(ticks));
+  }
 }
 
 class ExamplesNBullets {
@@ -694,11 +1339,191 @@ class ExamplesNBullets {
     return t.checkExpect(new GameScene(seeded3, 10).onTick(), this.sceneAfterOnTick);
   }
 
+  // test for the entity store
+  boolean testEntityStore(Tester t) {
+    EntityStore store = new EntityStore(this.sList1);
+    EntityStore bullets = new EntityStore(this.bList1);
+    EntityStore spawned = new EntityStore();
+    spawned.spawnShip(new Random(2));
+    EntityStore exploded = new EntityStore();
+    exploded.add(this.explodeBullet1);
+    exploded.explode(0);
+    int[] xs = bullets.x;
+    bullets.moveOnScreen();
+    EntityStore offScreen = new EntityStore(new ConsLoShip(this.offScreenShip, this.sList1));
+    offScreen.moveOnScreen();
+    return t.checkExpect(store.count, 2) && t.checkExpect(store.x.length, 16)
+        && t.checkExpect(store.ships(), this.sList1) && t.checkExpect(store.dx[0], 8)
+        && t.checkExpect(store.dy[0], 0)
+        && t.checkExpect(new EntityStore(this.bList1).bullets(), this.bList1)
+        // moving updates the same arrays
+        && t.checkExpect(bullets.bullets(), this.bList2) && t.checkExpect(bullets.x == xs, true)
+        // the last ship takes the slot of the one that left the screen
+        && t.checkExpect(offScreen.ships(), new ConsLoShip(
+            new Ship(2, 258, 290, 180, 8, Color.blue), new ConsLoShip(this.secondShip,
+                this.mtShip)))
+        && t.checkExpect(spawned.ships(), new MtLoShip().spawnShip(new Random(2)))
+        && t.checkExpect(exploded.count, 4)
+        && t.checkExpect(new EntityStore(this.mtBullet.explode(this.explodeBullet1)).bullets(),
+            new ConsLoBullet(exploded.bullet(1), new ConsLoBullet(exploded.bullet(2),
+                new ConsLoBullet(exploded.bullet(3), this.mtBullet))));
+  }
+
+  // test for remove
+  boolean testRemove(Tester t) {
+    EntityStore store = new EntityStore(this.exlodeList);
+    store.remove(1);
+    EntityStore last = new EntityStore(this.bList1);
+    last.remove(1);
+    last.remove(0);
+    return t.checkExpect(store.bullets(), new ConsLoBullet(this.explodeBullet1,
+        new ConsLoBullet(this.explodeBullet4, new ConsLoBullet(this.explodeBullet3,
+            this.mtBullet))))
+        && t.checkExpect(store.x[3], 0) && t.checkExpect(store.color[3], null)
+        && t.checkExpect(last, new EntityStore());
+  }
+
+  // test for removeHits
+  boolean testRemoveHits(Tester t) {
+    EntityStore untouched = new EntityStore(this.shipList);
+    untouched.removeHits(new CollisionGrid(0).fill(untouched, 1));
+    EntityStore store = new EntityStore(this.shipList);
+    CollisionGrid ships = new CollisionGrid(0).fill(store, 1);
+    boolean touched = ships.touches(this.defaultBullet.x, this.defaultBullet.y,
+        this.defaultBullet.size, true);
+    store.removeHits(ships);
+    EntityStore empty = new EntityStore();
+    empty.removeHits(new CollisionGrid(0).fill(empty, 1));
+    return t.checkExpect(untouched.ships(), this.shipList) && t.checkExpect(touched, true)
+        && t.checkExpect(ships.hit[0], false) && t.checkExpect(ships.hit[1], true)
+        && t.checkExpect(ships.hits, 1)
+        && t.checkExpect(store.ships(), new ConsLoShip(this.missShip, this.mtShip))
+        && t.checkExpect(empty, new EntityStore());
+  }
+
+  // test for onTick with collisions, which every check finds in one pass
+  boolean testOnTickCollisions(Tester t) {
+    Ship left = new Ship(20, 240, 150, 180.0, 5.0, Color.pink);
+    Ship right = new Ship(20, 265, 150, 180.0, 5.0, Color.pink);
+    Ship far = new Ship(20, 100, 100, 180.0, 5.0, Color.pink);
+    Bullet bullet = new Bullet(2, 252, 155, 270, 8, Color.blue, 1);
+    // off the screen, so it is dropped, but it still hits the ship it touches
+    Bullet gone = new Bullet(2, -10, 100, 270, 8, Color.blue, 1);
+    Ship edge = new Ship(20, 0, 100, 180.0, 5.0, Color.pink);
+    ILoShip ships = new ConsLoShip(left, new ConsLoShip(far, new ConsLoShip(right,
+        new ConsLoShip(edge, this.mtShip))));
+    ILoBullet bullets = new ConsLoBullet(bullet, new ConsLoBullet(gone, this.mtBullet));
+    GameScene scene = new GameScene(5, 3, ships, bullets, this.seeded1, 1);
+    GameScene after = scene.onTick();
+    CollisionGrid grid = after.grid;
+    int[] xs = grid.xs;
+    // the last piece of the explosion takes the slot of the bullet that exploded
+    return t.checkExpect(after.loShips(), new ConsLoShip(far, this.mtShip).moveLOS())
+        && t.checkExpect(after.loBullets(),
+            new ConsLoBullet(new Bullet(4, 252, 155, 180.0, 10, Color.blue, 2),
+                new ConsLoBullet(new Bullet(4, 252, 155, 360.0, 10, Color.blue, 2),
+                    this.mtBullet)))
+        && t.checkExpect(after.bulletsLeft, 5) && t.checkExpect(after.clock, 2)
+        && t.checkExpect(after, scene)
+        && t.checkExpect(after.destroyed, 3 + ships.countCollisions(bullets))
+        // the three ships hit all count, though the tick only scores one
+        && t.checkExpect(after.shipsHit, 3)
+        // the next tick fills the same grid again
+        && t.checkExpect(after.onTick().grid == grid, true) && t.checkExpect(grid.xs == xs, true)
+        && t.checkExpect(grid.added, 1);
+  }
+
   // test for onKeyEvent
   boolean testOnKeyEvent(Tester t) {
     return t.checkExpect(this.world.onKeyEvent(" "), this.sceneAfterKeyEvent);
   }
 
+  // test for length
+  boolean testLength(Tester t) {
+    return t.checkExpect(this.bList1.length(), 2) && t.checkExpect(this.mtShip.length(), 0)
+        && t.checkExpect(this.exlodeList.length(), 4);
+  }
+
+  // determines if the given object touches anything in the given grid, marking nothing
+  boolean touches(CollisionGrid grid, AObjects object) {
+    return grid.touches(object.x, object.y, object.size, false);
+  }
+
+  // test for the collision grid
+  boolean testCollisionGrid(Tester t) {
+    CollisionGrid ships = new CollisionGrid(0).fill(new EntityStore(this.shipList), 0);
+    // a row of 40 ships 30 apart, far enough to be bucketed
+    ILoShip row = this.mtShip;
+    for (int i = 0; i < 40; i++) {
+      row = new ConsLoShip(new Ship(10, 30 * i, 100, 180.0, 5.0, Color.pink), row);
+    }
+    EntityStore rowStore = new EntityStore(row);
+    CollisionGrid oneBucket = new CollisionGrid(0).fill(rowStore, 0);
+    CollisionGrid bucketed = new CollisionGrid(0).fill(rowStore, 100);
+    CollisionGrid empty = new CollisionGrid(0).fill(new EntityStore(), 100);
+    Bullet between = new Bullet(4, 15, 100, 270, 8, Color.blue, 1);
+    Bullet touching = new Bullet(4, 30, 114, 270, 8, Color.blue, 1);
+    Bullet below = new Bullet(4, 30, 115, 270, 8, Color.blue, 1);
+    Bullet farAway = new Bullet(4, 2000, -500, 270, 8, Color.blue, 1);
+    return t.checkExpect(ships.added, 2) && t.checkExpect(ships.maxSize, 20)
+        && t.checkExpect(this.touches(ships, this.secondBullet), true)
+        && t.checkExpect(this.touches(ships, this.defaultBullet),
+            this.defaultBullet.isColliding(this.shipList))
+        && t.checkExpect(this.touches(empty, this.defaultShip), false)
+        && t.checkExpect(oneBucket.start.length, 2)
+        && t.checkExpect(bucketed.cols * bucketed.rows > 1, true)
+        && t.checkExpect(bucketed.cellSize, 10)
+        && t.checkExpect(this.touches(bucketed, between), this.touches(oneBucket, between))
+        && t.checkExpect(this.touches(bucketed, between), false)
+        && t.checkExpect(this.touches(bucketed, touching), true)
+        && t.checkExpect(this.touches(bucketed, below), false)
+        && t.checkExpect(touching.isColliding(row), true)
+        && t.checkExpect(this.touches(bucketed, farAway), false)
+        // looking without marking leaves every object unhit
+        && t.checkExpect(bucketed.hits, 0)
+        && t.checkExpect(row.countCollisions(new ConsLoBullet(touching, this.mtBullet)), 1)
+        && t.checkExpect(row.removeCollisions(new ConsLoBullet(touching, this.mtBullet))
+            .length(), 39);
+  }
+
+  // test for isOver
+  boolean testIsOver(Tester t) {
+    return t.checkExpect(this.world.isOver(), false)
+        && t.checkExpect(new GameScene(this.seeded1, 0).isOver(), true)
+        && t.checkExpect(new GameScene(0, 0, this.mtShip, this.bList1, this.seeded1, 0).isOver(),
+            false);
+  }
+
+  // test for the headless runner
+  boolean testRunner(Tester t) {
+    NBulletsRunner runner = new NBulletsRunner(" ...............", 2510, 10);
+    RunReport report = runner.run(1000);
+    RunReport idle = new NBulletsRunner("...", 2510, 10).run(1000);
+    RunReport rapid = new NBulletsRunner(" ", 3, 2).run(100);
+    RunReport chain = runner.run(4000);
+    // long past where the explosions once ran out of memory
+    RunReport endless = runner.run(20000);
+    return t.checkExpect(report.ticks, 1000L) && t.checkExpect(report.games, 4)
+        && t.checkExpect(report.shots, 40L)
+        // 49 ticks destroy ships, one of them two at once
+        && t.checkExpect(report.destroyed, 50L)
+        && t.checkExpect(report.failure, null)
+        // the same seed and script play the same way
+        && t.checkExpect(runner.run(1000).last, report.last)
+        && t.checkExpect(idle.games, 1) && t.checkExpect(idle.shots, 0L)
+        && t.checkExpect(idle.destroyed, 0L) && t.checkExpect(idle.last.clock, 1000)
+        && t.checkExpect(rapid.games, 3) && t.checkExpect(rapid.shots, 6L)
+        // a chain of explosions that once ran out of stack
+        && t.checkExpect(chain.failure, null)
+        // the chain is held under MAX_BULLETS, which it reaches before tick 4000
+        && t.checkExpect(chain.last.bullets.count > 5000, true)
+        && t.checkExpect(endless.failure, null) && t.checkExpect(endless.ticks, 20000L)
+        && t.checkExpect(endless.last.bullets.count <= GameScene.MAX_BULLETS, true)
+        && t.checkConstructorException(
+            new IllegalArgumentException("the script needs at least one tick"), "NBulletsRunner",
+            "", 2510L, 10);
+  }
+
   // Renders the world
   boolean testBigBang(Tester t) {
     GameScene game = new GameScene();
@@ -0,0 +1,119 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import javalib.worldimages.CircleImage;
+import javalib.worldimages.EmptyImage;
+import javalib.worldimages.EquilateralTriangleImage;
+import javalib.worldimages.FrameImage;
+import javalib.worldimages.OutlineMode;
+import javalib.worldimages.OverlayImage;
+import javalib.worldimages.RectangleImage;
+import javalib.worldimages.TextImage;
+import javalib.worldimages.WorldImage;
+
+// every image a cell can be drawn as, built once for a cell size and shared by every cell
+// a cell is shown with a count from 0 to 8, a shown mine, flagged or covered, which is the
+// state that indexes the sprites
+class CellSprites {
+  static int MINE = 9;
+  static int FLAGGED = 10;
+  static int COVERED = 11;
+  // the sprites for the cell size last asked for
+  static CellSprites current;
+  int size;
+  // the sprites with their pinholes in the middle, as drawCell returns them
+  WorldImage[] centered = new WorldImage[12];
+  // the same sprites with their pinholes in the top left corner, for placing on a scene
+  WorldImage[] cornered = new WorldImage[12];
+  // the mine counts on their own, as drawMineCount returns them
+  WorldImage[] numbers = new WorldImage[9];
+  // the colors of every pixel of each sprite, indexed x * size + y, drawn when first needed
+  Color[][] pixels = new Color[12][];
+
+  // builds every sprite for cells of the given size
+  CellSprites(int size) {
+    this.size = size;
+    for (int count = 0; count <= 8; count++) {
+      this.numbers[count] = this.buildNumber(count);
+    }
+    for (int state = 0; state < this.centered.length; state++) {
+      this.centered[state] = this.build(state);
+      // moving a pinhole makes a new image, so the centered sprite is left as it was
+      this.cornered[state] = this.build(state).movePinhole(-.5 * size, -.5 * size);
+    }
+  }
+
+  // the sprites for cells of the given size, only built again when the size changes
+  static CellSprites forSize(int size) {
+    if (CellSprites.current == null || CellSprites.current.size != size) {
+      CellSprites.current = new CellSprites(size);
+    }
+    return CellSprites.current;
+  }
+
+  // the state of the given cell, with the given number of mines around it
+  static int state(Cell cell, int mineCount) {
+    if (cell.isShown) {
+      return cell.isMine ? CellSprites.MINE : mineCount;
+    }
+    else {
+      return cell.isFlagged ? CellSprites.FLAGGED : CellSprites.COVERED;
+    }
+  }
+
+  // the pixels of the sprite of the given state, for copying into a back-buffer
+  Color[] pixels(int state) {
+    if (this.pixels[state] == null) {
+      BufferedImage image = new BufferedImage(this.size, this.size,
+          BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = image.createGraphics();
+      g.translate(this.size / 2.0, this.size / 2.0);
+      this.centered[state].draw(g);
+      g.dispose();
+      this.pixels[state] = new Color[this.size * this.size];
+      for (int x = 0; x < this.size; x++) {
+        for (int y = 0; y < this.size; y++) {
+          this.pixels[state][x * this.size + y] = new Color(image.getRGB(x, y), true);
+        }
+      }
+    }
+    return this.pixels[state];
+  }
+
+  // a new image of the given state
+  WorldImage build(int state) {
+    WorldImage cellRevealed = new RectangleImage(this.size, this.size, OutlineMode.SOLID,
+        Color.darkGray);
+    WorldImage cellCovered = new RectangleImage(this.size, this.size, OutlineMode.SOLID,
+        Color.lightGray);
+    if (state == CellSprites.MINE) { // a revealed mine
+      return new FrameImage(new OverlayImage(
+          new CircleImage((int) (this.size / 3), OutlineMode.SOLID, Color.black), cellRevealed));
+    }
+    else if (state == CellSprites.FLAGGED) { // a hidden flagged cell
+      return new FrameImage(new OverlayImage(
+          new EquilateralTriangleImage(this.size / 2.5, OutlineMode.SOLID, Color.red),
+          cellCovered));
+    }
+    else if (state == CellSprites.COVERED) { // a hidden cell
+      return new FrameImage(cellCovered);
+    }
+    else { // a revealed non mine
+      return new FrameImage(new OverlayImage(this.buildNumber(state), cellRevealed));
+    }
+  }
+
+  // a new image of the given mine count, with a different color for each count
+  WorldImage buildNumber(int mineCount) {
+    int evenDivisor = 0xFFFFFF / 8;
+    int newCode = mineCount * evenDivisor;
+    Color numColor = new Color(newCode);
+    if (mineCount == 0) {
+      return new EmptyImage();
+    }
+    else {
+      return new TextImage(Integer.toString(mineCount), 12, numColor);
+    }
+  }
+}
@@ -47,12 +47,10 @@ class ExamplesMinesweeper {
   Cell threeMineHidden;
   Cell threeMineRevealed;
   ArrayList<Cell> nineCells;
-  Cell nineCellsCell;
   ArrayList<Cell> nineNonMines;
   MinesweeperGame game3;
   MinesweeperGame game4 = new MinesweeperGame(1, 1, 1);
   MinesweeperGame game5 = new MinesweeperGame(1, 1, 1);
-  Cell nineNonMinesCell;
   MinesweeperGame tinyGame = new MinesweeperGame(1, 1, 1);
   MinesweeperGame smallGame = new MinesweeperGame(2, 2, 1);
   Cell smallGameNeighbor1 = new Cell(true, false, false);
@@ -98,18 +96,13 @@ class ExamplesMinesweeper {
     this.zeroFlaggedRevealed = new Cell(false, true, true);
     this.zeroMineHidden = new Cell(true, false, false);
     this.zeroMineRevealed = new Cell(true, false, true);
+    // the three cells are drawn with 3 mines around them
     this.threeHidden = new Cell(false, false, false);
-    threeHidden.addCellNeighbors(1, 1, this.grid1);
     this.threeRevealed = new Cell(false, false, true);
-    threeRevealed.addCellNeighbors(1, 1, this.grid1);
     this.threeFlaggedHidden = new Cell(false, true, false);
-    threeFlaggedHidden.addCellNeighbors(1, 1, this.grid1);
     this.threeFlaggedRevealed = new Cell(false, true, true);
-    threeFlaggedRevealed.addCellNeighbors(1, 1, this.grid1);
     this.threeMineHidden = new Cell(true, false, false);
-    threeMineHidden.addCellNeighbors(1, 1, this.grid1);
     this.threeMineRevealed = new Cell(true, false, true);
-    threeMineRevealed.addCellNeighbors(1, 1, this.grid1);
     this.nineCells = new ArrayList<Cell>();
     this.nineCells.add(this.cell1);
     this.nineCells.add(this.cell2);
@@ -120,7 +113,6 @@ class ExamplesMinesweeper {
     this.nineCells.add(this.cell7);
     this.nineCells.add(this.cell8);
     this.nineCells.add(this.cell9);
-    this.nineCellsCell = new Cell(false, false, false, this.nineCells);
     this.nineNonMines = new ArrayList<Cell>();
     this.nineNonMines.add(new Cell());
     this.nineNonMines.add(new Cell());
@@ -131,22 +123,12 @@ class ExamplesMinesweeper {
     this.nineNonMines.add(new Cell());
     this.nineNonMines.add(new Cell());
     this.nineNonMines.add(new Cell());
-    this.nineNonMinesCell = new Cell(false, false, false, this.nineNonMines);
     this.game3 = new MinesweeperGame(3, 3, 4);
     this.smallGameNeighbors.add(this.smallGameNeighbor1);
     this.smallGameNeighbors.add(this.smallGameNeighbor3);
 
   }
 
-  // tests for validCoordinates
-  public void testValidCoordinates(Tester t) {
-    initData();
-    t.checkExpect(this.cell1.validCoordinates(3, 3, this.grid1), false);
-    t.checkExpect(this.cell1.validCoordinates(2, 3, this.grid1), false);
-    t.checkExpect(this.cell1.validCoordinates(2, 2, this.grid1), true);
-    t.checkExpect(this.cell1.validCoordinates(0, 0, this.grid1), true);
-  }
-
   // tests for constructing the grid
   public void testGridConstruction(Tester t) {
     initData();
@@ -161,76 +143,62 @@ class ExamplesMinesweeper {
     t.checkExpect(this.grid1.get(2).get(2), this.cell9);
   }
 
-  // tests for testAddCellNeighbors
-  public void testAddCellNeighbors(Tester t) {
+  // tests for countAllMines and the counts built with the board
+  public void testCountAllMines(Tester t) {
     initData();
-    t.checkExpect(this.mt.contains(this.cell1), false);
-    this.mt.add(cell1);
-    t.checkExpect(this.mt.contains(this.cell1), true);
-    t.checkExpect(this.cell5.neighbors, new ArrayList<Cell>());
-    this.cell5.addCellNeighbors(1, 1, this.grid1);
-    t.checkExpect(this.cell5.neighbors.get(0), this.cell1);
-    t.checkExpect(this.cell5.neighbors.get(1), this.cell2);
-    t.checkExpect(this.cell5.neighbors.get(2), this.cell3);
-    t.checkExpect(this.cell5.neighbors.get(3), this.cell4);
-    t.checkExpect(this.cell5.neighbors.get(4), this.cell6);
-    t.checkExpect(this.cell5.neighbors.get(5), this.cell7);
-    t.checkExpect(this.cell5.neighbors.get(6), this.cell8);
-    t.checkExpect(this.cell5.neighbors.get(7), this.cell9);
-    t.checkExpect(this.cell5.neighbors.size(), 8);
+    t.checkExpect(this.game1.counts, new byte[] { 3, 3, 2, 3, 3, 2, 2, 2, 1 });
+    t.checkExpect(this.game1.index(2, 1), 7);
+    // the same counts as looking at every neighbor of every cell
+    boolean allMatch = true;
+    for (int x = 0; x < this.game2.colCount; x++) {
+      for (int y = 0; y < this.game2.rowCount; y++) {
+        allMatch = allMatch
+            && this.game2.counts[this.game2.index(x, y)] == this.minesAround(this.game2, x, y);
+      }
+    }
+    t.checkExpect(allMatch, true);
+    this.game1.countAllMines(this.grid1);
+    t.checkExpect(this.game1.counts, new byte[] { 2, 2, 3, 3, 3, 3, 2, 2, 3 });
+  }
 
-    initData();
-    this.cell1.addCellNeighbors(0, 0, this.grid1);
-    t.checkExpect(this.cell1.neighbors.get(0), this.cell2);
-    t.checkExpect(this.cell1.neighbors.get(1), this.cell4);
-    t.checkExpect(this.cell1.neighbors.get(2), this.cell5);
+  // the mines around the given cell of the given game, counted one neighbor at a time
+  int minesAround(MinesweeperGame game, int col, int row) {
+    int mines = 0;
+    for (int x = Math.max(0, col - 1); x <= Math.min(game.colCount - 1, col + 1); x++) {
+      for (int y = Math.max(0, row - 1); y <= Math.min(game.rowCount - 1, row + 1); y++) {
+        if ((x != col || y != row) && game.cells.get(x).get(y).isMine) {
+          mines++;
+        }
+      }
+    }
+    return mines;
+  }
 
-    initData();
-    this.cell6.addCellNeighbors(1, 2, this.grid1);
-    t.checkExpect(this.cell6.neighbors.get(0), this.cell2);
-    t.checkExpect(this.cell6.neighbors.get(1), this.cell3);
-    t.checkExpect(this.cell6.neighbors.get(2), this.cell5);
-    t.checkExpect(this.cell6.neighbors.get(3), this.cell8);
-    t.checkExpect(this.cell6.neighbors.get(4), this.cell9);
+  // the mines in the given cells
+  int minesIn(ArrayList<Cell> cells) {
+    int mines = 0;
+    for (Cell c : cells) {
+      mines += c.isMine ? 1 : 0;
+    }
+    return mines;
   }
 
-  // tests for testAddCellNeighbors
-  public void testAddAllNeighbors(Tester t) {
-    initData();
-    t.checkExpect(this.cell5.neighbors, new ArrayList<Cell>());
-    t.checkExpect(this.cell1.neighbors, new ArrayList<Cell>());
-    t.checkExpect(this.cell6.neighbors, new ArrayList<Cell>());
-    this.game1.addAllNeighbors(grid1);
-    t.checkExpect(this.cell5.neighbors.get(0), this.cell1);
-    t.checkExpect(this.cell5.neighbors.get(1), this.cell2);
-    t.checkExpect(this.cell5.neighbors.get(2), this.cell3);
-    t.checkExpect(this.cell5.neighbors.get(3), this.cell4);
-    t.checkExpect(this.cell5.neighbors.get(4), this.cell6);
-    t.checkExpect(this.cell5.neighbors.get(5), this.cell7);
-    t.checkExpect(this.cell5.neighbors.get(6), this.cell8);
-    t.checkExpect(this.cell5.neighbors.get(7), this.cell9);
-    t.checkExpect(this.cell5.neighbors.size(), 8);
-    t.checkExpect(this.cell1.neighbors.get(0), this.cell2);
-    t.checkExpect(this.cell1.neighbors.get(1), this.cell4);
-    t.checkExpect(this.cell1.neighbors.get(2), this.cell5);
-    t.checkExpect(this.cell6.neighbors.get(0), this.cell2);
-    t.checkExpect(this.cell6.neighbors.get(1), this.cell3);
-    t.checkExpect(this.cell6.neighbors.get(2), this.cell5);
-    t.checkExpect(this.cell6.neighbors.get(3), this.cell8);
-    t.checkExpect(this.cell6.neighbors.get(4), this.cell9);
-    t.checkExpect(this.cell9.neighbors.get(0), this.cell5);
-    t.checkExpect(this.cell9.neighbors.get(1), this.cell6);
-    t.checkExpect(this.cell9.neighbors.get(2), this.cell8);
-  }
-
-  // tests for countMines
-  public void testCountMines(Tester t) {
+  // tests for adjustCounts and moveMine
+  public void testMoveMine(Tester t) {
     initData();
-    this.game1.addAllNeighbors(grid1);
-    t.checkExpect(this.cell5.countMines(), 3);
-    t.checkExpect(this.cell1.countMines(), 2);
-    t.checkExpect(this.cell4.countMines(), 3);
-
+    this.game1.adjustCounts(2, 2, 1);
+    t.checkExpect(this.game1.counts, new byte[] { 3, 3, 2, 3, 4, 3, 2, 3, 1 });
+    this.game1.adjustCounts(2, 2, -1);
+    this.game1.moveMine(0, 0, 2, 2);
+    t.checkExpect(this.game1.cells.get(0).get(0).isMine, false);
+    t.checkExpect(this.game1.cells.get(2).get(2).isMine, true);
+    t.checkExpect(this.game1.counts, new byte[] { 3, 2, 2, 2, 3, 3, 2, 3, 1 });
+    // only a mine can move, and only onto a cell without one
+    this.game1.moveMine(0, 0, 2, 1);
+    this.game1.moveMine(0, 1, 1, 1);
+    t.checkExpect(this.game1.cells.get(2).get(1).isMine, false);
+    t.checkExpect(this.game1.cells.get(0).get(1).isMine, true);
+    t.checkExpect(this.game1.counts, new byte[] { 3, 2, 2, 2, 3, 3, 2, 3, 1 });
   }
 
   // tests for generateAllCells
@@ -239,66 +207,60 @@ class ExamplesMinesweeper {
     t.checkExpect(this.game1.generateAllCells().size(), 9);
     t.checkExpect(this.game2.generateAllCells().size(), 100);
     initData();
-    // just adds the list of cells to neighbors so we can check mine count with
-    // existing
-    // functions
-    Cell dummy2 = new Cell(false, false, false, this.game2.generateAllCells());
-    t.checkExpect(dummy2.countMines(), 80);
+    t.checkExpect(this.minesIn(this.game2.generateAllCells()), 80);
     t.checkExpect(this.game2.generateAllCells().size(), 100);
-
-    Cell dummy3 = new Cell(false, false, false, this.game1.generateAllCells());
-    t.checkExpect(dummy3.countMines(), 4);
+    t.checkExpect(this.minesIn(this.game1.generateAllCells()), 4);
     t.checkExpect(this.game1.generateAllCells().size(), 9);
   }
 
   // tests for drawCell
   public void testDrawCell(Tester t) {
     initData();
-    t.checkExpect(zeroHidden.drawCell(),
+    t.checkExpect(zeroHidden.drawCell(0),
         new FrameImage(new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
             OutlineMode.SOLID, Color.lightGray)));
-    t.checkExpect(zeroMineHidden.drawCell(),
+    t.checkExpect(zeroMineHidden.drawCell(0),
         new FrameImage(new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
             OutlineMode.SOLID, Color.lightGray)));
-    t.checkExpect(zeroRevealed.drawCell(),
+    t.checkExpect(zeroRevealed.drawCell(0),
         new FrameImage(
             new OverlayImage(new EmptyImage(), new RectangleImage(MinesweeperGame.CELL_SIZE,
                 MinesweeperGame.CELL_SIZE, OutlineMode.SOLID, Color.darkGray))));
-    t.checkExpect(zeroFlaggedHidden.drawCell(), new FrameImage(new OverlayImage(
+    t.checkExpect(zeroFlaggedHidden.drawCell(0), new FrameImage(new OverlayImage(
             new EquilateralTriangleImage(MinesweeperGame.CELL_SIZE / 2.5, OutlineMode.SOLID,
                 Color.red),
             new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
                 OutlineMode.SOLID, Color.lightGray))));
-    t.checkExpect(zeroFlaggedRevealed.drawCell(),
+    t.checkExpect(zeroFlaggedRevealed.drawCell(0),
         new FrameImage(
             new OverlayImage(new EmptyImage(), new RectangleImage(MinesweeperGame.CELL_SIZE,
                 MinesweeperGame.CELL_SIZE, OutlineMode.SOLID, Color.darkGray))));
-    t.checkExpect(zeroMineRevealed.drawCell(), new FrameImage(new OverlayImage(
+    t.checkExpect(zeroMineRevealed.drawCell(0), new FrameImage(new OverlayImage(
             new CircleImage(MinesweeperGame.CELL_SIZE / 3, OutlineMode.SOLID, Color.black),
             new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
                 OutlineMode.SOLID, Color.darkGray))));
 
-    t.checkExpect(threeHidden.drawCell(),
+    t.checkExpect(threeHidden.drawCell(3),
         new FrameImage(new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
             OutlineMode.SOLID, Color.lightGray)));
-    t.checkExpect(threeRevealed.drawCell(),
+    t.checkExpect(threeRevealed.drawCell(3),
         new FrameImage(new OverlayImage(new TextImage("3", 12, new Color(95, 255, 253)),
             new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
                 OutlineMode.SOLID, Color.darkGray))));
-    t.checkExpect(threeFlaggedHidden.drawCell(),
+    t.checkExpect(threeFlaggedHidden.drawCell(3),
         new FrameImage(new OverlayImage(
             new EquilateralTriangleImage(MinesweeperGame.CELL_SIZE / 2.5, OutlineMode.SOLID,
                 Color.red),
             new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
                 OutlineMode.SOLID, Color.lightGray))));
-    t.checkExpect(threeFlaggedRevealed.drawCell(),
+    t.checkExpect(threeFlaggedRevealed.drawCell(3),
         new FrameImage(new OverlayImage(new TextImage("3", 12, new Color(95, 255, 253)),
             new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
                 OutlineMode.SOLID, Color.darkGray))));
-    t.checkExpect(threeMineHidden.drawCell(),
+    t.checkExpect(threeMineHidden.drawCell(3),
         new FrameImage(new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
             OutlineMode.SOLID, Color.lightGray)));
-    t.checkExpect(threeMineRevealed.drawCell(),
+    t.checkExpect(threeMineRevealed.drawCell(3),
         new FrameImage(new OverlayImage(new CircleImage(6, OutlineMode.SOLID, Color.black),
             new RectangleImage(MinesweeperGame.CELL_SIZE, MinesweeperGame.CELL_SIZE,
                 OutlineMode.SOLID, Color.darkGray))));
@@ -322,10 +284,39 @@ class ExamplesMinesweeper {
     t.checkExpect(game1.placeCells(nineCells).get(2).get(2), this.cell9);
   }
 
+  // tests for NeighborTable
+  void testNeighborTable(Tester t) {
+    NeighborTable table = new NeighborTable(3, 2);
+    t.checkExpect(table.stride, 4);
+    t.checkExpect(table.size, 20);
+    t.checkExpect(table.padded(0, 0), 5);
+    t.checkExpect(table.padded(2, 1), 14);
+    t.checkExpect(table.offsets, new int[] { -5, -4, -3, -1, 1, 3, 4, 5 });
+    // mines at (0, 0) and (1, 1) count across the whole board without going out of range
+    boolean[] mines = new boolean[table.size];
+    mines[table.padded(0, 0)] = true;
+    mines[table.padded(1, 1)] = true;
+    t.checkExpect(table.countAround(mines), new byte[] { 1, 2, 2, 1, 1, 1 });
+    t.checkExpect(table.countAround(mines), new MineField(this.gameOf(3, 2, 0, 3)).counts);
+    // one table is shared until the size changes
+    t.checkExpect(NeighborTable.forSize(3, 2) == NeighborTable.forSize(3, 2), true);
+    t.checkExpect(NeighborTable.forSize(2, 3).rowCount, 3);
+  }
+
+  // a game of the given size with mines at the given indices, col * rowCount + row
+  MinesweeperGame gameOf(int colCount, int rowCount, int... mines) {
+    MinesweeperGame game = new MinesweeperGame(colCount, rowCount, 0, new Random(1));
+    for (int i : mines) {
+      game.cells.get(i / rowCount).get(i % rowCount).isMine = true;
+      game.mineCount++;
+    }
+    game.countAllMines(game.cells);
+    return game;
+  }
+
   // tests for buildBoard
   public void testBuildBoard(Tester t) {
-    // checks size, that there are 4 mines, and that neighbors are fetched
-    // correctly
+    // checks size, and that there are 4 mines where the seed puts them
     initData();
     // constructing a game calls buildBoard() and puts it into the cells field
     t.checkExpect(this.game1.cells.size(), 3);
@@ -339,93 +330,832 @@ class ExamplesMinesweeper {
     t.checkExpect(this.game1.cells.get(2).get(0).isMine, false);
     t.checkExpect(this.game1.cells.get(2).get(1).isMine, false);
     t.checkExpect(this.game1.cells.get(2).get(2).isMine, false);
-    t.checkExpect(this.game1.cells.get(0).get(0).neighbors.size(), 3);
-    t.checkExpect(this.game1.cells.get(1).get(1).neighbors.size(), 8);
     t.checkExpect(this.game2.cells.size(), 10);
   }
 
   // tests for addMines
   public void testAddMines(Tester t) {
     initData();
-    Cell nineNonMinesCell = new Cell(false, false, false, this.nineNonMines);
-    t.checkExpect(nineNonMinesCell.countMines(), 0);
+    t.checkExpect(this.minesIn(this.nineNonMines), 0);
     this.game1.addMines(this.nineNonMines);
-    Cell nineNonMinesCell2 = new Cell(false, false, false, this.nineNonMines);
-    t.checkExpect(nineNonMinesCell2.countMines(), 4);
+    t.checkExpect(this.minesIn(this.nineNonMines), 4);
     ArrayList<Cell> oldMines = this.nineNonMines;
     initData();
-    Cell nineNonMinesCell3 = new Cell(false, false, false, this.nineNonMines);
-    t.checkExpect(nineNonMinesCell3.countMines(), 0);
+    t.checkExpect(this.minesIn(this.nineNonMines), 0);
     // randomly seeded game
     this.game3.addMines(this.nineNonMines);
-    Cell nineNonMinesCell4 = new Cell(false, false, false, this.nineNonMines);
-    t.checkExpect(nineNonMinesCell4.countMines(), 4);
+    t.checkExpect(this.minesIn(this.nineNonMines), 4);
     t.checkExpect(oldMines.equals(this.nineNonMines), false);
     initData();
   }
 
+  // are the given indices all different and between 0 and cellCount
+  boolean distinctIndices(int[] indices, int cellCount) {
+    boolean[] seen = new boolean[cellCount];
+    for (int i : indices) {
+      if (i < 0 || i >= cellCount || seen[i]) {
+        return false;
+      }
+      seen[i] = true;
+    }
+    return true;
+  }
+
+  // tests for MinePlacer
+  void testMinePlacer(Tester t) {
+    MinePlacer placer = new MinePlacer();
+    t.checkExpect(placer.choose(9, 4, new Random(10)), new int[] { 0, 4, 1, 3 });
+    t.checkExpect(placer.choose(9, 4, new Random(10)), placer.shuffle(9, 4, new Random(10)));
+    t.checkExpect(placer.choose(1000, 10, new Random(10)),
+        placer.sample(1000, 10, new Random(10)));
+    t.checkExpect(placer.choose(1000, 10, new Random(4)), placer.choose(1000, 10, new Random(4)));
+    t.checkExpect(placer.choose(1000, 10, new Random(4)).length, 10);
+    t.checkExpect(this.distinctIndices(placer.sample(100, 99, new Random(2)), 100), true);
+    t.checkExpect(this.distinctIndices(placer.shuffle(100, 99, new Random(2)), 100), true);
+    t.checkExpect(this.distinctIndices(placer.choose(5000, 100, new Random(7)), 5000), true);
+    t.checkExpect(this.distinctIndices(placer.choose(50, 50, new Random(7)), 50), true);
+    t.checkExpect(placer.choose(10, 0, new Random(7)), new int[0]);
+    t.checkException(new IllegalArgumentException("can't place 11 mines in 10 cells"), placer,
+        "choose", 10, 11, new Random(7));
+  }
+
+  // tests for chooseAvoiding and area on MinePlacer
+  void testMinePlacerAvoiding(Tester t) {
+    MinePlacer placer = new MinePlacer();
+    t.checkExpect(MinePlacer.area(3, 3, 1, 1), new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 });
+    t.checkExpect(MinePlacer.area(3, 3, 0, 0), new int[] { 0, 1, 3, 4 });
+    t.checkExpect(MinePlacer.area(4, 2, 3, 1), new int[] { 4, 5, 6, 7 });
+    t.checkExpect(MinePlacer.area(1, 1, 0, 0), new int[] { 0 });
+    t.checkExpect(MinePlacer.safeArea(3, 3, 0, 0, 5), new int[] { 0, 1, 3, 4 });
+    t.checkExpect(MinePlacer.safeArea(3, 3, 0, 0, 6), new int[] { 0 });
+    t.checkExpect(MinePlacer.safeArea(3, 3, 2, 1, 8), new int[] { 7 });
+    t.checkExpect(MinePlacer.safeArea(3, 3, 0, 0, 9), new int[0]);
+    t.checkExpect(placer.chooseAvoiding(9, 4, new Random(10), new int[0]),
+        placer.choose(9, 4, new Random(10)));
+    t.checkExpect(placer.chooseAvoiding(5, 3, new Random(1), new int[] { 1, 3 }),
+        new int[] { 0, 2, 4 });
+    int[] mines = placer.chooseAvoiding(400, 300, new Random(6), MinePlacer.area(20, 20, 5, 5));
+    t.checkExpect(this.distinctIndices(mines, 400), true);
+    boolean avoided = true;
+    for (int m : mines) {
+      for (int a : MinePlacer.area(20, 20, 5, 5)) {
+        avoided = avoided && m != a;
+      }
+    }
+    t.checkExpect(avoided, true);
+    t.checkException(new IllegalArgumentException("can't place 3 mines in 2 cells"), placer,
+        "chooseAvoiding", 3, 3, new Random(1), new int[] { 0 });
+  }
+
+  // tests for CellSprites
+  void testCellSprites(Tester t) {
+    initData();
+    CellSprites sprites = CellSprites.forSize(MinesweeperGame.CELL_SIZE);
+    t.checkExpect(CellSprites.forSize(MinesweeperGame.CELL_SIZE) == sprites, true);
+    t.checkExpect(CellSprites.state(this.threeRevealed, 3), 3);
+    t.checkExpect(CellSprites.state(this.zeroMineRevealed, 0), CellSprites.MINE);
+    t.checkExpect(CellSprites.state(this.zeroFlaggedHidden, 0), CellSprites.FLAGGED);
+    t.checkExpect(CellSprites.state(this.threeMineHidden, 3), CellSprites.COVERED);
+    // cells drawn the same way share one image
+    t.checkExpect(this.zeroHidden.drawCell(0) == this.threeHidden.drawCell(3), true);
+    t.checkExpect(this.threeRevealed.drawCell(3) == sprites.centered[3], true);
+    t.checkExpect(this.cell1.drawMineCount(3) == sprites.numbers[3], true);
+    // the placed sprites are the same images moved to their corner
+    t.checkExpect(sprites.cornered[CellSprites.COVERED],
+        sprites.centered[CellSprites.COVERED].movePinhole(-10, -10));
+    t.checkExpect(this.game1.makeScene(), this.game1.makeScene());
+    // a new cell size gets new sprites
+    MinesweeperGame.CELL_SIZE = 30;
+    t.checkExpect(CellSprites.forSize(MinesweeperGame.CELL_SIZE).size, 30);
+    t.checkExpect(this.zeroHidden.drawCell(0), new FrameImage(new RectangleImage(30, 30,
+        OutlineMode.SOLID, Color.lightGray)));
+    MinesweeperGame.CELL_SIZE = 20;
+  }
+
+  // tests for makeScene drawing only the cells that changed
+  void testDirtyScene(Tester t) {
+    MinesweeperGame game = new MinesweeperGame(12, 10, 15, new Random(4));
+    WorldScene scene = game.makeScene();
+    t.checkExpect(game.makeScene() == scene, true);
+    t.checkExpect(game.board.getColorAt(10, 10), Color.lightGray);
+    t.checkExpect(game.dirtyCount, 0);
+    // a right click changes one cell, and only that cell is drawn again
+    game.onMouseClicked(new Posn(30, 30), "RightButton");
+    game.onMouseClicked(new Posn(30, 30), "RightButton");
+    t.checkExpect(game.dirtyCount, 1);
+    t.checkExpect(game.dirty[0], game.index(1, 1));
+    game.onMouseClicked(new Posn(30, 30), "RightButton");
+    t.checkExpect(game.makeScene() == scene, true);
+    t.checkExpect(game.dirtyCount, 0);
+    t.checkExpect(game.board.getColorAt(30, 30), Color.red);
+    // after clicks and a moved mine, the kept board matches one drawn from scratch
+    int col = 0;
+    while (game.cells.get(col).get(9).isMine || game.cells.get(col).get(9).isFlagged) {
+      col++;
+    }
+    game.onMouseClicked(new Posn(col * 20 + 5, 185), "LeftButton");
+    t.checkExpect(game.dirtyCount > 0, true);
+    t.checkExpect(game.board.getColorAt(col * 20 + 10, 190), Color.lightGray);
+    int[] mines = new MineField(game).mineIndices();
+    game.moveMine(mines[0] / 10, mines[0] % 10, 11, 0);
+    game.makeScene();
+    t.checkExpect(game.board.getColorAt(col * 20 + 10, 190).equals(Color.lightGray), false);
+    MinesweeperGame fresh = new MinesweeperGame(12, 10, 15, new Random(4));
+    fresh.cells = game.cells;
+    fresh.counts = game.counts;
+    fresh.makeScene();
+    boolean same = true;
+    for (int x = 0; x < 240; x++) {
+      for (int y = 0; y < 200; y++) {
+        same = same && game.board.getColorAt(x, y).equals(fresh.board.getColorAt(x, y));
+      }
+    }
+    t.checkExpect(same, true);
+    // changing cells directly needs the whole board drawn again
+    game.cells.get(11).get(9).isShown = true;
+    game.markAllDirty();
+    t.checkExpect(game.makeScene() == scene, false);
+  }
+
+  // a 3 by 3 game with one mine, at the given cell
+  MinesweeperGame oneMine(int col, int row) {
+    MinesweeperGame game = new MinesweeperGame(3, 3, 0, new Random(1));
+    game.mineCount = 1;
+    game.cells.get(col).get(row).isMine = true;
+    game.adjustCounts(col, row, 1);
+    return game;
+  }
+
+  // tests for hiddenAround and chord
+  void testChord(Tester t) {
+    MinesweeperGame game = this.oneMine(0, 0);
+    game.reveal(1, 1);
+    t.checkExpect(game.hiddenAround(1, 1), new int[] { 8, 0 });
+    // not enough flags yet
+    t.checkExpect(game.chord(1, 1), 0);
+    game.onMouseClicked(new Posn(5, 5), "RightButton");
+    t.checkExpect(game.hiddenAround(1, 1), new int[] { 8, 1 });
+    // hidden cells and zeros can't be chorded
+    t.checkExpect(game.chord(0, 1), 0);
+    // the middle click shows the other seven, spreading through the zeros, and wins
+    game.onMouseClicked(new Posn(25, 25), "MiddleButton");
+    t.checkExpect(game.shownSafe, 8);
+    t.checkExpect(game.cells.get(0).get(0).isShown, false);
+    t.checkExpect(game.theGameIsOver, true);
+    t.checkExpect(game.wonGame, true);
+    // a wrong flag shows the mine and loses
+    MinesweeperGame wrong = this.oneMine(0, 0);
+    wrong.reveal(1, 1);
+    wrong.cells.get(2).get(2).isFlagged = true;
+    // the flagged cell is still shown by the zero region around it
+    t.checkExpect(wrong.chord(1, 1), 8);
+    t.checkExpect(wrong.cells.get(0).get(0).isShown, true);
+    t.checkExpect(wrong.theGameIsOver, true);
+    wrong.checkWin();
+    t.checkExpect(wrong.wonGame, false);
+  }
+
+  // tests for autoFlag and flagAround
+  void testAutoFlag(Tester t) {
+    MinesweeperGame game = this.oneMine(0, 0);
+    t.checkExpect(game.autoFlag(), 0);
+    t.checkExpect(game.reveal(2, 2), 8);
+    t.checkExpect(game.autoFlag(), 1);
+    t.checkExpect(game.cells.get(0).get(0).isFlagged, true);
+    t.checkExpect(game.autoFlag(), 0);
+    // the f key flags too, once the board exists
+    MinesweeperGame keyed = this.oneMine(2, 2);
+    keyed.reveal(0, 0);
+    keyed.onKeyEvent("g");
+    t.checkExpect(keyed.cells.get(2).get(2).isFlagged, false);
+    keyed.onKeyEvent("f");
+    t.checkExpect(keyed.cells.get(2).get(2).isFlagged, true);
+    MinesweeperGame deferred = new MinesweeperGame(3, 3, 1, new Random(1), true);
+    deferred.onKeyEvent("f");
+    t.checkExpect(deferred.cells, null);
+    // flagAround skips shown and flagged cells
+    MinesweeperGame around = this.oneMine(1, 1);
+    around.reveal(0, 0);
+    around.cells.get(2).get(2).isFlagged = true;
+    t.checkExpect(around.flagAround(1, 1), 6);
+  }
+
+  // tests for play
+  void testPlay(Tester t) {
+    MinesweeperGame game = this.oneMine(0, 0);
+    game.play(MinesweeperGame.FLAG, 0, 0);
+    t.checkExpect(game.cells.get(0).get(0).isFlagged, true);
+    game.play(MinesweeperGame.REVEAL, 1, 1);
+    t.checkExpect(game.shownSafe, 1);
+    game.play(MinesweeperGame.CHORD, 1, 1);
+    t.checkExpect(game.wonGame, true);
+    MinesweeperGame lost = this.oneMine(0, 0);
+    lost.play(MinesweeperGame.REVEAL, 0, 0);
+    t.checkExpect(lost.theGameIsOver, true);
+    t.checkExpect(lost.wonGame, false);
+    MinesweeperGame flagged = this.oneMine(2, 2);
+    flagged.play(MinesweeperGame.REVEAL, 0, 0);
+    flagged.play(MinesweeperGame.AUTO_FLAG, 0, 0);
+    t.checkExpect(flagged.cells.get(2).get(2).isFlagged, true);
+  }
+
+  // tests for SaveFile
+  void testSaveFile(Tester t) {
+    try {
+      java.nio.file.Path path = java.nio.file.Files.createTempFile("minesweeper", ".save");
+      MinesweeperGame game = new MinesweeperGame(40, 30, 150, new Random(6), true);
+      game.onMouseClicked(new Posn(200, 200), "LeftButton");
+      game.onMouseClicked(new Posn(5, 5), "RightButton");
+      game.boardSeed = 42;
+      new SaveFile().save(game, path);
+      // the header and three planes of 19 longs
+      t.checkExpect(java.nio.file.Files.size(path), 32L + 3 * 19 * 8);
+      MineField field = new SaveFile().loadField(path);
+      MineField expected = new MineField(game);
+      t.checkExpect(field.mines, expected.mines);
+      t.checkExpect(field.shown, expected.shown);
+      t.checkExpect(field.flagged, expected.flagged);
+      t.checkExpect(field.counts, expected.counts);
+      t.checkExpect(field.mineCount, 150);
+      t.checkExpect(field.shownSafe, game.shownSafe);
+      // a loaded game carries on from where the saved one was
+      MinesweeperGame loaded = new SaveFile().loadGame(path);
+      t.checkExpect(loaded.boardSeed, 42L);
+      t.checkExpect(loaded.cells, game.cells);
+      t.checkExpect(loaded.counts, game.counts);
+      t.checkExpect(loaded.shownSafe, game.shownSafe);
+      t.checkExpect(loaded.theGameIsOver, false);
+      // anything else is turned away
+      java.nio.file.Files.write(path, new byte[40]);
+      t.checkException(new java.io.IOException("not a Minesweeper save"), new SaveFile(),
+          "loadField", path);
+      java.nio.file.Files.write(path, new byte[] { 0x4D, 0x53 });
+      t.checkException(new java.io.IOException("the file ends 30 bytes early"), new SaveFile(),
+          "loadField", path);
+      // a header is checked before a board its size is made
+      SaveFile save = new SaveFile();
+      java.nio.ByteBuffer bytes = save.encode(new MineField(game), 42);
+      bytes.putInt(8, -40);
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("no board is -40 by 30"), save, "loadField",
+          path);
+      bytes.putInt(8, 40).putInt(16, 1201);
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("1201 mines don't fit the board"), save,
+          "loadField", path);
+      bytes.putInt(16, 150).putInt(28, 20);
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("planes of 20 longs don't fit the board"), save,
+          "loadField", path);
+      bytes.putInt(8, 40000).putInt(12, 40000).putInt(28, 25000000);
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("the file ends 599999544 bytes early"), save,
+          "loadField", path);
+      bytes.putInt(8, 40).putInt(12, 30).putInt(28, 19);
+      byte[] longer = java.util.Arrays.copyOf(bytes.array(), 32 + 3 * 19 * 8 + 1);
+      java.nio.file.Files.write(path, longer);
+      t.checkException(new java.io.IOException("1 bytes after the board"), save, "loadField",
+          path);
+      // so are planes that disagree with the header, the last of 19 longs holds 48 cells
+      int lastMines = 32 + 18 * 8;
+      long last = bytes.getLong(lastMines);
+      bytes.putLong(lastMines, last | (1L << 48));
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("mine bits past the board"), save, "loadField",
+          path);
+      bytes.putLong(lastMines, last);
+      int firstMine = Long.numberOfTrailingZeros(bytes.getLong(32));
+      bytes.putLong(32, bytes.getLong(32) & ~(1L << firstMine));
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("149 mines where the header says 150"), save,
+          "loadField", path);
+      bytes.putLong(32, bytes.getLong(32) | (1L << firstMine));
+      bytes.putLong(lastMines + 19 * 8, bytes.getLong(lastMines + 19 * 8) | (1L << 63));
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("shown bits past the board"), save, "loadField",
+          path);
+      bytes.putLong(lastMines + 19 * 8, bytes.getLong(lastMines + 19 * 8) & ~(1L << 63));
+      bytes.putLong(lastMines + 38 * 8, bytes.getLong(lastMines + 38 * 8) | (1L << 50));
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkException(new java.io.IOException("flagged bits past the board"), save,
+          "loadField", path);
+      bytes.putLong(lastMines + 38 * 8, bytes.getLong(lastMines + 38 * 8) & ~(1L << 50));
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkExpect(save.loadField(path).mines, new MineField(game).mines);
+      java.nio.file.Files.delete(path);
+    }
+    catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // tests for MoveLog
+  void testMoveLog(Tester t) {
+    try {
+      java.nio.file.Path path = java.nio.file.Files.createTempFile("minesweeper", ".log");
+      MinesweeperGame game = new MinesweeperGame(16, 16, 40, new Random(2), true);
+      game.log = new MoveLog(path);
+      // nothing is written until there is a board
+      game.onMouseClicked(new Posn(5, 5), "RightButton");
+      t.checkExpect(java.nio.file.Files.size(path), 0L);
+      game.onMouseClicked(new Posn(160, 160), "LeftButton");
+      long start = java.nio.file.Files.size(path);
+      t.checkExpect(start, 32L + 3 * 4 * 8 + 9);
+      int moves = 1;
+      for (int x = 0; x < 16 && !game.theGameIsOver; x += 3) {
+        game.onMouseClicked(new Posn(x * 20 + 5, 305), "RightButton");
+        game.onMouseClicked(new Posn(x * 20 + 5, 25), "LeftButton");
+        moves += 2;
+      }
+      // one of those finds a mine, and the move that ended the game closed the log
+      t.checkExpect(game.theGameIsOver, true);
+      t.checkExpect(moves, 5);
+      t.checkExpect(java.nio.file.Files.size(path), start + (moves - 1) * 9);
+      t.checkExpect(game.log.channel, null);
+      // the replay ends where the game did
+      MinesweeperGame replayed = MoveLog.replay(path);
+      t.checkExpect(replayed.cells, game.cells);
+      t.checkExpect(replayed.shownSafe, game.shownSafe);
+      t.checkExpect(replayed.theGameIsOver, game.theGameIsOver);
+      t.checkExpect(replayed.log, null);
+      // pressing f after the game is over does nothing, and later clicks aren't written
+      game.onKeyEvent("f");
+      game.onMouseClicked(new Posn(160, 160), "MiddleButton");
+      game.onMouseClicked(new Posn(5, 305), "RightButton");
+      t.checkExpect(java.nio.file.Files.size(path), start + (moves - 1) * 9);
+      t.checkExpect(game.log.channel, null);
+      // a log cut off partway through a move, or with a move play can't make, is turned away
+      byte[] log = java.nio.file.Files.readAllBytes(path);
+      MoveLog reader = new MoveLog(path);
+      java.nio.file.Files.write(path, java.util.Arrays.copyOf(log, log.length - 5));
+      t.checkException(new java.io.IOException("the log ends 4 bytes into a move"), reader,
+          "replay", path);
+      log[log.length - 9] = 7;
+      java.nio.file.Files.write(path, log);
+      t.checkException(new java.io.IOException("unknown move 7"), reader, "replay", path);
+      log[log.length - 9] = (byte) MinesweeperGame.REVEAL;
+      java.nio.ByteBuffer.wrap(log).putInt(log.length - 8, 16);
+      java.nio.file.Files.write(path, log);
+      t.checkException(new java.io.IOException("move at 16, 1 is off the board"), reader,
+          "replay", path);
+      java.nio.file.Files.delete(path);
+    }
+    catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // tests for MinesweeperBenchmark
+  void testBenchmark(Tester t) {
+    MinesweeperBenchmark bench = new MinesweeperBenchmark(1, 3, 100, 0);
+    BenchResult result = bench.measure("allocate", () -> 0,
+        s -> bench.sink += new long[1000].length, 2);
+    t.checkExpect(result.name, "allocate");
+    t.checkExpect(result.bytes >= 8000, true);
+    t.checkExpect(result.medianNanos <= result.maxNanos, true);
+    t.checkExpect(result.toString().startsWith("allocate "), true);
+    MineField corner = new MineField(3, 3);
+    corner.set(corner.mines, 0);
+    corner.countAllMines();
+    t.checkExpect(bench.firstZero(corner), 2);
+    // with no zero cells, the corner
+    t.checkExpect(bench.firstZero(this.pairField()), 0);
+    // the Cell grid runs up to 100 cells here, and nothing is drawn
+    t.checkExpect(bench.board(9, 9, 10, 1).size(), 8);
+    t.checkExpect(bench.board(11, 11, 10, 1).size(), 4);
+  }
+
   // tests for drawMineCount
   void testDrawMineCount(Tester t) {
     initData();
-    // no neighbors here
-    t.checkExpect(this.cell1.drawMineCount(), new EmptyImage());
-    // added all neighbors to this grid
-    this.game1.addAllNeighbors(grid1);
-    t.checkExpect(this.cell1.drawMineCount(), new TextImage("2", 12, new Color(63, 255, 254)));
-    t.checkExpect(this.cell2.drawMineCount(), new TextImage("2", 12, new Color(63, 255, 254)));
-    t.checkExpect(this.cell3.drawMineCount(), new TextImage("3", 12, new Color(95, 255, 253)));
-    t.checkExpect(this.cell4.drawMineCount(), new TextImage("3", 12, new Color(95, 255, 253)));
-    t.checkExpect(this.cell5.drawMineCount(), new TextImage("3", 12, new Color(95, 255, 253)));
-    t.checkExpect(this.cell6.drawMineCount(), new TextImage("3", 12, new Color(95, 255, 253)));
-    t.checkExpect(this.cell7.drawMineCount(), new TextImage("2", 12, new Color(63, 255, 254)));
-    t.checkExpect(this.cell8.drawMineCount(), new TextImage("2", 12, new Color(63, 255, 254)));
-    t.checkExpect(this.cell9.drawMineCount(), new TextImage("3", 12, new Color(95, 255, 253)));
-    t.checkExpect(this.nineNonMinesCell.drawMineCount(), new EmptyImage());
-    t.checkExpect(this.nineCellsCell.drawMineCount(),
+    t.checkExpect(this.cell1.drawMineCount(0), new EmptyImage());
+    t.checkExpect(this.cell1.drawMineCount(3), new TextImage("3", 12, new Color(95, 255, 253)));
+    t.checkExpect(this.zeroRevealed.drawCell(3), this.threeRevealed.drawCell(3));
+    t.checkExpect(this.zeroHidden.drawCell(3), this.zeroHidden.drawCell(0));
+    t.checkExpect(this.cell1.drawMineCount(2), new TextImage("2", 12, new Color(63, 255, 254)));
+    t.checkExpect(this.cell1.drawMineCount(4),
         new TextImage("4", 12, new Color(127, 255, 252)));
   }
 
-  // tests for floodFill
-  void testFloodFill(Tester t) {
+  // tests for isZero and zeroBits
+  void testIsZero(Tester t) {
+    initData();
+    t.checkExpect(this.game1.isZero(2, 2), false);
+    MinesweeperGame open = new MinesweeperGame(3, 1, 0, new Random(1));
+    open.cells.get(2).get(0).isMine = true;
+    open.adjustCounts(2, 0, 1);
+    t.checkExpect(open.isZero(0, 0), true);
+    t.checkExpect(open.isZero(1, 0), false);
+    t.checkExpect(open.isZero(2, 0), false);
+    t.checkExpect(open.zeroBits(open.cells), new long[] { 1 });
+    t.checkExpect(this.game1.zeroBits(this.game1.cells), new long[] { 0 });
+  }
+
+  // tests for ZeroRegions
+  void testZeroRegions(Tester t) {
+    // two regions split by a column of mines, each with the mines' other neighbors as border
+    long[] zero = new long[1];
+    for (int i : new int[] { 0, 1, 2, 12, 13, 14 }) {
+      zero[0] |= 1L << i;
+    }
+    ZeroRegions split = new ZeroRegions(5, 3, zero);
+    t.checkExpect(split.regionCount, 2);
+    t.checkExpect(split.regionOf[0], split.regionOf[2]);
+    t.checkExpect(split.regionOf[12], split.regionOf[14]);
+    t.checkExpect(split.regionOf[0] == split.regionOf[12], false);
+    t.checkExpect(split.regionOf[3], -1);
+    long[] shown = new long[1];
+    t.checkExpect(split.showRegion(split.regionOf[1], shown), 6);
+    t.checkExpect(shown[0], 63L);
+    t.checkExpect(split.showRegion(split.regionOf[1], shown), 0);
+    t.checkExpect(split.showRegion(split.regionOf[13], shown), 6);
+    t.checkExpect(shown[0], 63L | (63L << 9));
+    // zero cells touching only at a corner are one region
+    ZeroRegions corner = new ZeroRegions(2, 2, new long[] { 1L | (1L << 3) });
+    t.checkExpect(corner.regionCount, 1);
+    t.checkExpect(corner.regionOf[3], 0);
+    // a region spanning many words shows every one of them
+    long[] all = new long[16];
+    java.util.Arrays.fill(all, -1L);
+    ZeroRegions open = new ZeroRegions(32, 32, all);
+    t.checkExpect(open.regionCount, 1);
+    t.checkExpect(open.words.length, 16);
+    long[] openShown = new long[16];
+    t.checkExpect(open.showRegion(0, openShown), 1024);
+    // buildBoard finds them up front and changing the counts drops them
+    initData();
+    t.checkExpect(this.game1.regions.regionCount, 0);
+    this.game1.moveMine(0, 0, 2, 2);
+    t.checkExpect(this.game1.regions, null);
+    t.checkExpect(this.game1.reveal(0, 0), 1);
+    t.checkExpect(this.game1.regions, null);
+    // a MineField finds them on its first zero reveal and shows the same cells as the game
+    MinesweeperGame game = new MinesweeperGame(40, 30, 150, new Random(5));
+    MineField field = new MineField(game);
+    t.checkExpect(field.regions, null);
+    int cell = 0;
+    while (!field.isZero(cell)) {
+      cell++;
+    }
+    t.checkExpect(field.reveal(cell), game.reveal(cell / 30, cell % 30));
+    t.checkExpect(field.regions == null, false);
+    t.checkExpect(field.shown, new MineField(game).shown);
+    t.checkExpect(field.shownSafe, field.shownSafeCount());
+    field.countAllMines();
+    t.checkExpect(field.regions, null);
+  }
+
+  // tests for reveal
+  void testReveal(Tester t) {
     initData();
-    this.game1.addAllNeighbors(grid1);
-    t.checkExpect(this.cell1.neighbors.get(0).isShown, false);
-    t.checkExpect(this.cell1.neighbors.get(1).isShown, true);
-    t.checkExpect(this.cell1.neighbors.get(2).isShown, false);
-    this.cell1.floodFill();
-    t.checkExpect(this.cell1.isShown, true);
-    t.checkExpect(this.cell1.neighbors.get(0).isShown, true);
-    t.checkExpect(this.cell1.neighbors.get(1).isShown, true);
-    t.checkExpect(this.cell1.neighbors.get(2).isShown, true);
+    // a numbered cell or a mine only shows itself
+    t.checkExpect(this.game1.reveal(2, 2), 1);
+    t.checkExpect(this.game1.reveal(2, 2), 0);
+    t.checkExpect(this.game1.reveal(0, 0), 1);
+    t.checkExpect(this.game1.cells.get(2).get(1).isShown, false);
+    // a wall of mines down the middle stops the fill
+    MinesweeperGame walled = new MinesweeperGame(5, 5, 0, new Random(1));
+    for (int y = 0; y < 5; y++) {
+      walled.cells.get(2).get(y).isMine = true;
+      walled.adjustCounts(2, y, 1);
+    }
+    t.checkExpect(walled.reveal(0, 4), 10);
+    t.checkExpect(walled.cells.get(1).get(0).isShown, true);
+    t.checkExpect(walled.cells.get(2).get(0).isShown, false);
+    t.checkExpect(walled.cells.get(3).get(0).isShown, false);
+    t.checkExpect(walled.reveal(4, 0), 10);
+    // a huge empty board fills without overflowing the stack
+    MinesweeperGame empty = new MinesweeperGame(1000, 1000, 0, new Random(1));
+    t.checkExpect(empty.reveal(500, 500), 1000000);
+    t.checkExpect(empty.cells.get(999).get(0).isShown, true);
+    // shows exactly what the MineField's regions show
+    MinesweeperGame scan = new MinesweeperGame(30, 20, 60, new Random(3));
+    MineField regions = new MineField(scan);
+    int col = 0;
+    int row = 0;
+    while (!scan.isZero(col, row)) {
+      col = (col + 1) % 30;
+      row = col == 0 ? row + 1 : row;
+    }
+    int revealed = scan.reveal(col, row);
+    regions.reveal(regions.index(col, row));
+    int shown = 0;
+    boolean same = true;
+    for (int x = 0; x < 30; x++) {
+      for (int y = 0; y < 20; y++) {
+        same = same && scan.cells.get(x).get(y).isShown == regions.get(regions.shown,
+            regions.index(x, y));
+        shown += scan.cells.get(x).get(y).isShown ? 1 : 0;
+      }
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(revealed, shown);
+    t.checkExpect(revealed > 1, true);
+  }
+
+  // tests for building a MineField
+  void testMineFieldConstruction(Tester t) {
     initData();
-    this.game1.addAllNeighbors(grid1);
-    t.checkExpect(this.cell3.neighbors.get(0).isShown, false);
-    t.checkExpect(this.cell3.neighbors.get(1).isShown, false);
-    t.checkExpect(this.cell3.neighbors.get(2).isShown, true);
-    this.cell3.floodFill();
-    t.checkExpect(this.cell3.isShown, true);
-    t.checkExpect(this.cell3.neighbors.get(0).isShown, true);
-    t.checkExpect(this.cell3.neighbors.get(1).isShown, true);
-    t.checkExpect(this.cell3.neighbors.get(2).isShown, true);
+    this.game1.cells.get(2).get(2).isShown = true;
+    this.game1.cells.get(0).get(2).isFlagged = true;
+    MineField field = new MineField(this.game1);
+    t.checkExpect(field.mines, new long[] { 27 });
+    t.checkExpect(field.shown, new long[] { 256 });
+    t.checkExpect(field.flagged, new long[] { 4 });
+    t.checkExpect(field.counts, this.game1.counts);
+    t.checkExpect(field.mineCount, 4);
+    t.checkExpect(new MineField(this.game2).counts, this.game2.counts);
+    MineField random = new MineField(100, 100, 1500, new Random(5));
+    t.checkExpect(random.mines.length, 157);
+    int mines = 0;
+    for (long word : random.mines) {
+      mines += Long.bitCount(word);
+    }
+    t.checkExpect(mines, 1500);
+    t.checkExpect(random.mineCount, 1500);
+    t.checkExpect(random.bytesUsed(), 3L * 157 * 8 + 10000);
+    t.checkExpect(new MineField(2, 3).counts, new byte[6]);
+  }
+
+  // tests for get, set, clear, toggleFlag and neighbors on MineField
+  void testMineFieldBits(Tester t) {
+    MineField field = new MineField(10, 10);
+    field.set(field.shown, 70);
+    t.checkExpect(field.get(field.shown, 70), true);
+    t.checkExpect(field.shown, new long[] { 0, 64 });
+    field.clear(field.shown, 70);
+    t.checkExpect(field.get(field.shown, 70), false);
+    field.toggleFlag(3);
+    t.checkExpect(field.get(field.flagged, 3), true);
+    t.checkExpect(field.flaggedCount(), 1);
+    field.toggleFlag(3);
+    t.checkExpect(field.flaggedCount(), 0);
+    int[] around = new int[8];
+    t.checkExpect(field.neighbors(0, around), 3);
+    t.checkExpect(around[0], 1);
+    t.checkExpect(around[1], 10);
+    t.checkExpect(around[2], 11);
+    t.checkExpect(field.neighbors(field.index(5, 5), around), 8);
+    t.checkExpect(field.neighbors(field.index(9, 4), around), 5);
+  }
+
+  // tests for reveal, isWon and the other whole board checks on MineField
+  void testMineFieldReveal(Tester t) {
     initData();
-    this.game1.addAllNeighbors(grid1);
-    t.checkExpect(this.cell5.neighbors.get(0).isShown, false);
-    t.checkExpect(this.cell5.neighbors.get(1).isShown, false);
-    t.checkExpect(this.cell5.neighbors.get(2).isShown, false);
-    t.checkExpect(this.cell5.neighbors.get(3).isShown, true);
-    this.cell5.floodFill();
-    t.checkExpect(this.cell5.isShown, true);
-    t.checkExpect(this.cell5.neighbors.get(0).isShown, true);
-    t.checkExpect(this.cell5.neighbors.get(1).isShown, true);
-    t.checkExpect(this.cell5.neighbors.get(2).isShown, true);
-    t.checkExpect(this.cell5.neighbors.get(3).isShown, true);
+    MineField field = new MineField(this.game1);
+    t.checkExpect(field.isZero(8), false);
+    t.checkExpect(field.reveal(8), 1);
+    t.checkExpect(field.reveal(8), 0);
+    t.checkExpect(field.shownSafeCount(), 1);
+    t.checkExpect(field.isWon(), false);
+    field.reveal(2);
+    field.reveal(5);
+    field.reveal(6);
+    t.checkExpect(field.isWon(), false);
+    t.checkExpect(field.reveal(7), 1);
+    t.checkExpect(field.isWon(), true);
+    t.checkExpect(field.hitMine(), false);
+    field.showAllMines();
+    t.checkExpect(field.hitMine(), true);
+    t.checkExpect(field.shown, new long[] { 511 });
+    t.checkExpect(field.shownSafeCount(), 5);
+    // shows the same cells as the game's scanline reveal
+    MinesweeperGame game = new MinesweeperGame(30, 20, 60, new Random(3));
+    MineField same = new MineField(game);
+    int zero = 0;
+    while (!same.isZero(zero)) {
+      zero++;
+    }
+    t.checkExpect(same.reveal(zero), game.reveal(zero / 20, zero % 20));
+    t.checkExpect(same.shown, new MineField(game).shown);
+    MineField empty = new MineField(2000, 1000);
+    t.checkExpect(empty.reveal(12345), 2000000);
+    t.checkExpect(empty.isWon(), true);
+  }
+
+  // tests for deferred mine placement
+  void testDeferredMines(Tester t) {
+    MinesweeperGame game = new MinesweeperGame(10, 10, 20, new Random(4), true);
+    t.checkExpect(game.cells, null);
+    t.checkExpect(game.counts, null);
+    t.checkExpect(game.makeScene().width, 200);
+    game.onMouseClicked(new Posn(25, 25), "RightButton");
+    t.checkExpect(game.cells, null);
+    game.onMouseClicked(new Posn(25, 25), "LeftButton");
+    t.checkExpect(game.cells.size(), 10);
+    t.checkExpect(game.theGameIsOver, false);
+    t.checkExpect(game.isZero(1, 1), true);
+    t.checkExpect(game.cells.get(0).get(0).isShown, true);
+    t.checkExpect(game.shownSafe >= 9, true);
+    t.checkExpect(game.shownSafe, game.countShownSafe());
+    t.checkExpect(new MineField(game).mineCount, 20);
+    // too many mines to clear the whole area, only the clicked cell is kept safe
+    MinesweeperGame crowded = new MinesweeperGame(3, 3, 8, new Random(4), true);
+    crowded.onMouseClicked(new Posn(25, 25), "LeftButton");
+    t.checkExpect(crowded.safeCells, new int[] { 4 });
+    t.checkExpect(crowded.cells.get(1).get(1).isMine, false);
+    t.checkExpect(crowded.wonGame, true);
+    // a deferred game doesn't touch its random until the click
+    MinesweeperGame later = new MinesweeperGame(5, 5, 5, new Random(4), true);
+    later.placeMinesAround(0, 0);
+    t.checkExpect(later.safeCells, new int[] { 0, 1, 5, 6 });
+    t.checkExpect(new MineField(later).mines, new MineField(5, 5, 5, new Random(4), 0).mines);
+    MineField crowdedField = new MineField(3, 3, 8, new Random(4), 4);
+    t.checkExpect(crowdedField.get(crowdedField.mines, 4), false);
+    t.checkExpect(crowdedField.mineCount, 8);
+    // a board that is all mines can't keep the first click safe, but the click still works
+    MinesweeperGame full = new MinesweeperGame(3, 3, 9, new Random(4), true);
+    full.onMouseClicked(new Posn(25, 25), "LeftButton");
+    t.checkExpect(full.safeCells, new int[0]);
+    t.checkExpect(full.cells.get(1).get(1).isShown, true);
+    t.checkExpect(full.theGameIsOver, true);
+    t.checkExpect(full.wonGame, false);
+    t.checkExpect(new MineField(3, 3, 9, new Random(4), 4).mineCount, 9);
+  }
+
+  // a 3x2 board with mines in the top corners and the bottom row shown, so every number
+  // is ambiguous alone but the pair of them settle the top row
+  MineField pairField() {
+    MineField field = new MineField(3, 2);
+    field.set(field.mines, 0);
+    field.set(field.mines, 4);
+    field.mineCount = 2;
+    field.countAllMines();
+    field.set(field.shown, 1);
+    field.set(field.shown, 3);
+    field.set(field.shown, 5);
+    field.shownSafe = 3;
+    return field;
+  }
+
+  // tests for the rules MineSolver uses to find certain moves
+  void testMineSolverRules(Tester t) {
+    MineSolver solver = new MineSolver(this.pairField(), 3);
+    int[][] unknowns = solver.constraints();
+    t.checkExpect(unknowns[1], new int[] { 0, 2 });
+    t.checkExpect(unknowns[3], new int[] { 0, 2, 4 });
+    t.checkExpect(unknowns[0], null);
+    t.checkExpect(solver.remaining(3), 2);
+    t.checkExpect(solver.outside(unknowns[3], unknowns[1]), 1);
+    t.checkExpect(solver.outside(unknowns[1], unknowns[3]), 0);
+    solver.findCertain();
+    t.checkExpect(solver.pendingSize > 0, true);
+    t.checkExpect(solver.nextPending(), ~0);
+    // the other corner is queued too, but it doesn't come back once it's already flagged
+    solver.field.set(solver.field.flagged, 4);
+    t.checkExpect(solver.remaining(3), 1);
+    t.checkExpect(solver.nextPending(), MineSolver.NONE);
+    MineSolver whole = new MineSolver(this.pairField(), 3);
+    t.checkExpect(whole.solve(), true);
+    t.checkExpect(whole.guesses, 0);
+    t.checkExpect(whole.field.flaggedCount(), 2);
+    t.checkExpect(whole.step(), null);
+  }
+
+  // tests for the chances MineSolver works out
+  void testMineSolverEstimate(Tester t) {
+    MineSolver solver = new MineSolver(new MineField(1, 1), 0);
+    t.checkInexact(solver.logChoose(5, 2), Math.log(10), 0.0001);
+    t.checkExpect(solver.logChoose(5, 6) == Double.NEGATIVE_INFINITY, true);
+    t.checkExpect(solver.logChoose(5, 0), 0.0);
+    t.checkExpect(solver.convolve(new double[] { 1, 1 }, new double[] { 1, 2, 1 }),
+        new double[] { 1, 3, 3, 1 });
+    t.checkExpect(solver.find(new int[] { 1, 2, 2 }, 0), 2);
+    // a one in the middle of a row of three is a coin flip
+    MineField coin = new MineField(3, 1);
+    coin.set(coin.mines, 0);
+    coin.mineCount = 1;
+    coin.countAllMines();
+    MineSolver flip = new MineSolver(coin, 1);
+    t.checkExpect(flip.step().guess, false);
+    SolverStep guess = flip.step();
+    t.checkExpect(guess.guess, true);
+    t.checkExpect(guess.cell, 0);
+    t.checkInexact(guess.mineChance, 0.5, 0.0001);
+    t.checkExpect(flip.lost, true);
+    t.checkExpect(flip.solve(), false);
+    // the mine count says the far cell is safe: a one next to two unknowns, but two mines
+    // left and three unknowns, so the unknown away from the one must be a mine
+    MineField count = new MineField(4, 1);
+    count.set(count.mines, 0);
+    count.set(count.mines, 3);
+    count.mineCount = 2;
+    count.countAllMines();
+    count.set(count.shown, 1);
+    count.shownSafe = 1;
+    MineSolver counting = new MineSolver(count, 1);
+    counting.estimate();
+    t.checkInexact(counting.chance[0], 0.5, 0.0001);
+    t.checkInexact(counting.chance[2], 0.5, 0.0001);
+    t.checkInexact(counting.chance[3], 1.0, 0.0001);
+    t.checkExpect(counting.nextPending(), ~3);
+    // a mine count no arrangement fits makes nothing certain, the local estimate is used
+    count.mineCount = 0;
+    MineSolver impossible = new MineSolver(count, 1);
+    impossible.estimate();
+    t.checkInexact(impossible.chance[0], 0.5, 0.0001);
+    t.checkInexact(impossible.chance[2], 0.5, 0.0001);
+    t.checkInexact(impossible.chance[3], 0.0, 0.0001);
+    t.checkExpect(impossible.nextPending(), MineSolver.NONE);
+  }
+
+  // tests for solving whole boards with MineSolver
+  void testMineSolverBoards(Tester t) {
+    MineSolver beginner = new MineSolver(new MineField(9, 9, 10, new Random(3), 40), 40);
+    t.checkExpect(beginner.solve(), true);
+    t.checkExpect(beginner.guesses, 0);
+    t.checkExpect(beginner.field.isWon(), true);
+    t.checkExpect(beginner.field.flaggedCount(), 10);
+    t.checkExpect(MineSolver.summary(9, 9, 10, new boolean[] { true, false },
+        new long[] { 1000, 3000 }, new int[] { 0, 2 }),
+        "9x9, 10 mines: 2 boards, 50.0% won, 50.0% without guessing, 1.00 guesses each, "
+            + "p50 1 us, p99 3 us");
+    try {
+      t.checkExpect(MineSolver.batch(9, 9, 10, 20, 1, 2).startsWith("9x9, 10 mines: 20 boards"),
+          true);
+    }
+    catch (Exception e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // tests for NoGuessGenerator
+  void testNoGuessGenerator(Tester t) {
+    NoGuessGenerator generator = new NoGuessGenerator(2);
+    GeneratedBoard board = generator.generate(30, 16, 99, 7, 248);
+    t.checkExpect(board.field.mineCount, 99);
+    t.checkExpect(board.field.shownSafe, 0);
+    t.checkExpect(board.seed, generator.candidateSeed(7, board.attempts - 1));
+    t.checkExpect(generator.passes(30, 16, 99, board.seed, 248), true);
+    t.checkExpect(new MineField(30, 16, 99, new Random(board.seed), 248).mines,
+        board.field.mines);
+    // the lowest passing candidate wins no matter how many threads look
+    NoGuessGenerator single = new NoGuessGenerator(1);
+    t.checkExpect(single.generate(30, 16, 99, 7, 248).seed, board.seed);
+    boolean earlierFail = true;
+    for (int a = 0; a < board.attempts - 1; a++) {
+      earlierFail = earlierFail
+          && !generator.passes(30, 16, 99, generator.candidateSeed(7, a), 248);
+    }
+    t.checkExpect(earlierFail, true);
+    MineSolver solver = new MineSolver(board.field, 248);
+    t.checkExpect(solver.solve(), true);
+    t.checkExpect(solver.guesses, 0);
+    // a board with a single safe cell can be generated, but one full of mines can't
+    single.maxAttempts = 5;
+    t.checkExpect(single.generate(2, 2, 3, 1, 0).field.mineIndices(), new int[] { 1, 2, 3 });
+    t.checkException(new IllegalStateException("no board without guessing in 5 attempts"),
+        single, "generate", 2, 2, 2, 1L, 0);
+    t.checkExpect(single.timing(9, 9, 10, 3).startsWith("9x9, 10 mines: 3 boards"), true);
+    // out of time gives up too, however many attempts are left
+    single.maxAttempts = 100000;
+    single.maxNanos = 0;
+    t.checkException(new IllegalStateException("no board without guessing in 0 ms"),
+        single, "generate", 9, 9, 10, 1L, 40);
+    generator.shutdown();
+    single.shutdown();
+  }
+
+  // tests for a deferred game with a no guess generator
+  void testNoGuessGame(Tester t) {
+    MinesweeperGame game = new MinesweeperGame(16, 16, 40, new Random(2), true);
+    game.generator = new NoGuessGenerator(1);
+    game.onMouseClicked(new Posn(165, 85), "LeftButton");
+    t.checkExpect(game.cells.get(8).get(4).isShown, true);
+    t.checkExpect(new MineField(game).mineIndices(), game.plannedMines);
+    t.checkExpect(new MineField(16, 16, 40, new Random(game.boardSeed), 132).mines,
+        new MineField(game).mines);
+    MineSolver solver = new MineSolver(new MineField(game), 132);
+    solver.deduceOnly = true;
+    t.checkExpect(solver.solve(), true);
+    game.generator.shutdown();
+    // when the generator gives up, the first click still gets a board
+    MinesweeperGame dense = new MinesweeperGame(2, 2, 2, new Random(2), true);
+    dense.generator = new NoGuessGenerator(1);
+    dense.generator.maxAttempts = 5;
+    dense.onMouseClicked(new Posn(5, 5), "LeftButton");
+    t.checkExpect(dense.plannedMines, null);
+    t.checkExpect(dense.cells.get(0).get(0).isShown, true);
+    t.checkExpect(dense.cells.get(0).get(0).isMine, false);
+    t.checkExpect(new MineField(dense).mineCount, 2);
+    t.checkExpect(dense.theGameIsOver, false);
+    dense.generator.shutdown();
+    // an interactive game gives up on a board too dense to clear within its budget
+    long start = System.nanoTime();
+    MinesweeperGame crowded = new MinesweeperGame(16, 16, 90, NoGuessGenerator.interactive());
+    t.checkExpect(crowded.cells, null);
+    t.checkExpect(crowded.generator.maxNanos, NoGuessGenerator.INTERACTIVE_MILLIS * 1000000L);
+    crowded.onMouseClicked(new Posn(165, 85), "LeftButton");
+    t.checkExpect(System.nanoTime() - start < 2000000000L, true);
+    t.checkExpect(crowded.cells.get(8).get(4).isShown, true);
+    t.checkExpect(new MineField(crowded).mineCount, 90);
+    crowded.generator.shutdown();
   }
 
   // tests for onMouseClicked
   void testOnMouseClicked(Tester t) {
     // left click a mine
     initData();
-    this.game1.addAllNeighbors(grid1);
     t.checkExpect(this.game1.cells.get(0).get(0).isShown, false);
     t.checkExpect(this.game1.cells.get(0).get(0).isMine, true);
     t.checkExpect(this.game1.cells.get(0).get(0).isFlagged, false);
@@ -437,7 +1167,6 @@ class ExamplesMinesweeper {
     t.checkExpect(this.game1.theGameIsOver, true);
     // right click a mine
     initData();
-    this.game1.addAllNeighbors(grid1);
     t.checkExpect(this.game1.cells.get(0).get(0).isShown, false);
     t.checkExpect(this.game1.cells.get(0).get(0).isMine, true);
     t.checkExpect(this.game1.cells.get(0).get(0).isFlagged, false);
@@ -450,7 +1179,6 @@ class ExamplesMinesweeper {
 
     // left click a nonMine
     initData();
-    this.game1.addAllNeighbors(grid1);
     t.checkExpect(this.game1.cells.get(2).get(0).isShown, false);
     t.checkExpect(this.game1.cells.get(2).get(0).isMine, false);
     t.checkExpect(this.game1.cells.get(2).get(0).isFlagged, false);
@@ -463,7 +1191,6 @@ class ExamplesMinesweeper {
 
     // right click a nonMine
     initData();
-    this.game1.addAllNeighbors(grid1);
     t.checkExpect(this.game1.cells.get(2).get(0).isShown, false);
     t.checkExpect(this.game1.cells.get(2).get(0).isMine, false);
     t.checkExpect(this.game1.cells.get(2).get(0).isFlagged, false);
@@ -477,7 +1204,7 @@ class ExamplesMinesweeper {
 
   // tests for locateCell
   void testLocateCell(Tester t) {
-    this.game1.addAllNeighbors(grid1);
+    initData();
     t.checkExpect(this.tinyGame.locateCell(new Posn(1, 1)), new Cell(true, false, false));
     t.checkExpect(this.game4.locateCell(new Posn(0, 0)), new Cell(true, false, false));
     t.checkExpect(this.tinyGame.locateCell(new Posn(10, 10)), new Cell(true, false, false));
@@ -498,23 +1225,68 @@ class ExamplesMinesweeper {
     t.checkExpect(this.game1.cells.get(2).get(0).isMine, false);
     t.checkExpect(this.game1.cells.get(2).get(1).isMine, false);
     t.checkExpect(this.game1.cells.get(2).get(2).isMine, false);
+    this.game1.verify = true;
     this.game1.checkWin();
     t.checkExpect(this.game1.wonGame, false);
-    this.game1.cells.get(0).get(2).isShown = true;
+    this.game1.reveal(0, 2);
     this.game1.checkWin();
     t.checkExpect(this.game1.wonGame, false);
-    this.game1.cells.get(1).get(2).isShown = true;
+    this.game1.reveal(1, 2);
     this.game1.checkWin();
     t.checkExpect(this.game1.wonGame, false);
-    this.game1.cells.get(2).get(0).isShown = true;
+    this.game1.reveal(2, 0);
     this.game1.checkWin();
     t.checkExpect(this.game1.wonGame, false);
-    this.game1.cells.get(2).get(1).isShown = true;
+    this.game1.reveal(2, 1);
     this.game1.checkWin();
     t.checkExpect(this.game1.wonGame, false);
-    this.game1.cells.get(2).get(2).isShown = true;
+    this.game1.reveal(2, 2);
     this.game1.checkWin();
     t.checkExpect(this.game1.wonGame, true);
+    t.checkExpect(this.game1.shownSafe, 5);
+    // a shown mine doesn't count toward the win
+    initData();
+    this.game1.verify = true;
+    this.game1.onMouseClicked(new Posn(1, 1), "LeftButton");
+    t.checkExpect(this.game1.shownSafe, 0);
+    t.checkExpect(this.game1.countShownSafe(), 0);
+    t.checkExpect(this.game1.wonGame, false);
+    // clicks keep the count, showing cells behind its back is caught
+    this.game1.onMouseClicked(new Posn(50, 50), "LeftButton");
+    t.checkExpect(this.game1.shownSafe, 1);
+    this.game1.cells.get(2).get(0).isShown = true;
+    t.checkException(new IllegalStateException("shownSafe is 1 but 2 are shown"), this.game1,
+        "checkWin");
+    this.game1.verify = false;
+    this.game1.checkWin();
+    t.checkExpect(this.game1.wonGame, false);
+  }
+
+  // tests for the shown cell count kept by MineField
+  void testMineFieldShownSafe(Tester t) {
+    initData();
+    this.game1.reveal(2, 2);
+    MineField field = new MineField(this.game1);
+    field.verify = true;
+    t.checkExpect(field.shownSafe, 1);
+    field.reveal(0);
+    t.checkExpect(field.shownSafe, 1);
+    field.reveal(7);
+    t.checkExpect(field.shownSafe, 2);
+    t.checkExpect(field.isWon(), false);
+    field.set(field.shown, 6);
+    t.checkException(new IllegalStateException("shownSafe is 2 but 3 are shown"), field,
+        "isWon");
+    MineField open = new MineField(50, 40, 10, new Random(8));
+    open.verify = true;
+    int zero = 0;
+    while (!open.isZero(zero)) {
+      zero++;
+    }
+    t.checkExpect(open.shownSafe, 0);
+    t.checkExpect(open.reveal(zero), open.shownSafe);
+    t.checkExpect(open.shownSafe, open.shownSafeCount());
+    t.checkExpect(open.isWon(), open.shownSafe == 1990);
   }
 
   // tests for worldEnds
@@ -541,10 +1313,124 @@ class ExamplesMinesweeper {
 
   // can we get extra credit for doing 200 tests pretty please
 
+  // tests for InfiniteField
+  void testInfiniteField(Tester t) {
+    InfiniteField field = new InfiniteField(7, 10, 16);
+    // mines depend only on the seed and the chunk
+    t.checkExpect(field.minesOf(3, -2), new InfiniteField(7, 10, 1).minesOf(3, -2));
+    t.checkExpect(field.minesOf(3, -2) == new InfiniteField(8, 10, 1).minesOf(3, -2), false);
+    t.checkExpect(Long.bitCount(field.minesOf(-5, 9)), 10);
+    t.checkExpect(InfiniteField.key(-1, -1) == InfiniteField.key(-1, 0), false);
+    // the origin and the cells around it are clear
+    boolean clear = true;
+    for (int x = -1; x <= 1; x++) {
+      for (int y = -1; y <= 1; y++) {
+        clear = clear && !field.isMine(x, y);
+      }
+    }
+    t.checkExpect(clear, true);
+    // counts match the mines around each cell, across chunk edges and negative coordinates
+    boolean counted = true;
+    for (int x = -12; x < 12; x++) {
+      for (int y = -12; y < 12; y++) {
+        int around = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+          for (int dy = -1; dy <= 1; dy++) {
+            if ((dx != 0 || dy != 0) && field.isMine(x + dx, y + dy)) {
+              around++;
+            }
+          }
+        }
+        counted = counted && field.count(x, y) == around;
+      }
+    }
+    t.checkExpect(counted, true);
+    t.checkExpect(field.chunks.size() <= 16, true);
+    t.checkConstructorException(new IllegalArgumentException("can't place 60 mines in a chunk"),
+        "InfiniteField", 1L, 60, 4);
+  }
+
+  // tests for reveal and chunk eviction on an InfiniteField
+  void testInfiniteReveal(Tester t) {
+    // a fill crossing many chunks shows the same cells whether they stay loaded or not
+    InfiniteField roomy = new InfiniteField(11, 8, 10000);
+    InfiniteField tight = new InfiniteField(11, 8, 4);
+    int revealed = roomy.reveal(0, 0);
+    t.checkExpect(tight.reveal(0, 0), revealed);
+    t.checkExpect(revealed > 9, true);
+    t.checkExpect(roomy.chunks.size() > 4, true);
+    t.checkExpect(tight.chunks.size(), 4);
+    t.checkExpect(tight.shownSafe, roomy.shownSafe);
+    boolean same = true;
+    for (int x = -40; x < 40; x++) {
+      for (int y = -40; y < 40; y++) {
+        same = same && tight.isShown(x, y) == roomy.isShown(x, y);
+      }
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(tight.chunks.size(), 4);
+    // flags survive their chunk being dropped and built again
+    InfiniteField small = new InfiniteField(3, 8, 2);
+    small.toggleFlag(100, 100);
+    small.isShown(0, 0);
+    small.isShown(50, 50);
+    t.checkExpect(small.chunks.containsKey(InfiniteField.key(12, 12)), false);
+    t.checkExpect(small.saved.size(), 1);
+    t.checkExpect(small.isFlagged(100, 100), true);
+    t.checkExpect(small.saved.size(), 0);
+    // showing a mine loses
+    int x = 5;
+    while (!small.isMine(x, 0)) {
+      x++;
+    }
+    t.checkExpect(small.reveal(x, 0), 1);
+    t.checkExpect(small.lost, true);
+  }
+
+  // tests for InfiniteMinesweeper
+  void testInfiniteMinesweeper(Tester t) {
+    InfiniteMinesweeper game = new InfiniteMinesweeper(10, 6, 3, 8);
+    t.checkExpect(game.viewX, -5);
+    t.checkExpect(game.viewY, -3);
+    t.checkExpect(game.field.isShown(0, 0), true);
+    game.onKeyEvent("left");
+    game.onKeyEvent("up");
+    game.onKeyEvent("up");
+    t.checkExpect(game.viewX, -9);
+    t.checkExpect(game.viewY, -11);
+    game.onKeyEvent("right");
+    game.onKeyEvent("down");
+    t.checkExpect(game.viewX, -5);
+    t.checkExpect(game.viewY, -7);
+    // a right click flags the cell under the mouse, in world coordinates
+    game.onMouseClicked(new Posn(25, 45), "RightButton");
+    t.checkExpect(game.field.isFlagged(-4, -5), true);
+    // left clicking a flag does nothing
+    game.onMouseClicked(new Posn(25, 45), "LeftButton");
+    t.checkExpect(game.field.isShown(-4, -5), false);
+    t.checkExpect(game.theGameIsOver, false);
+    t.checkExpect(game.makeScene().width, 200);
+    t.checkExpect(game.worldEnds().worldEnds, false);
+    // a frame builds each chunk in view once, cells -805 to -796 by -803 to -798 span four
+    InfiniteMinesweeper fresh = new InfiniteMinesweeper(10, 6, 3, 8);
+    fresh.viewX = -805;
+    fresh.viewY = -803;
+    int loads = fresh.field.loads;
+    fresh.makeScene();
+    t.checkExpect(fresh.field.loads - loads, 4);
+    t.checkExpect(fresh.field.chunks.containsKey(InfiniteField.key(-101, -101)), true);
+    t.checkExpect(fresh.field.chunks.containsKey(InfiniteField.key(-100, -101)), true);
+    t.checkExpect(fresh.field.chunks.containsKey(InfiniteField.key(-101, -100)), true);
+    t.checkExpect(fresh.field.chunks.containsKey(InfiniteField.key(-100, -100)), true);
+    fresh.makeScene();
+    t.checkExpect(fresh.field.loads - loads, 4);
+  }
+
   // tests for big bang
   void testBigBang(Tester t) {
     initData();
-    MinesweeperGame game = new MinesweeperGame(50, 20, 80);
+    // mines are placed on the first click, so it is always safe and needs no guessing
+    MinesweeperGame game = new MinesweeperGame(50, 20, 80, NoGuessGenerator.interactive());
     game.bigBang(game.colCount * MinesweeperGame.CELL_SIZE,
         game.rowCount * MinesweeperGame.CELL_SIZE, 0.25);
   }
@@ -0,0 +1,253 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+// an 8 by 8 piece of an endless board, one bit per cell for mines, shown cells and flags,
+// cells indexed x * SIZE + y from the chunk's corner
+class Chunk {
+  static int SIZE = 8;
+  int chunkX;
+  int chunkY;
+  long mines;
+  long shown;
+  long flagged;
+  // how many mines touch each cell, counting the mines of the chunks around this one
+  byte[] counts = new byte[Chunk.SIZE * Chunk.SIZE];
+
+  Chunk(int chunkX, int chunkY, long mines) {
+    this.chunkX = chunkX;
+    this.chunkY = chunkY;
+    this.mines = mines;
+  }
+
+  // is the given bit of the given bits set
+  boolean has(long bits, int bit) {
+    return (bits & (1L << bit)) != 0;
+  }
+}
+
+// a Minesweeper board with no edges, made of chunks whose mines come from a hash of the seed
+// and the chunk's position, so a chunk is only built when something looks at it
+// at most capacity chunks are kept, the least recently used goes first and only its shown
+// cells and flags are kept, in two longs, so memory grows with what has been opened rather
+// than with how far the view has moved
+class InfiniteField {
+  // reveals that spread further than this stop, clicking a shown zero cell carries on
+  static int REVEAL_LIMIT = 1 << 20;
+  long seed;
+  int minesPerChunk;
+  int capacity;
+  LinkedHashMap<Long, Chunk> chunks;
+  // the shown cells and flags of chunks that were dropped, by chunk key
+  HashMap<Long, long[]> saved = new HashMap<Long, long[]>();
+  // how many times a chunk has been built
+  int loads;
+  long shownSafe;
+  boolean lost;
+
+  // the cells next to the origin never hold mines, so the game can open there
+  InfiniteField(long seed, int minesPerChunk, int capacity) {
+    if (minesPerChunk < 0 || minesPerChunk > Chunk.SIZE * Chunk.SIZE - 9) {
+      throw new IllegalArgumentException("can't place " + minesPerChunk + " mines in a chunk");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("can't keep " + capacity + " chunks");
+    }
+    this.seed = seed;
+    this.minesPerChunk = minesPerChunk;
+    this.capacity = capacity;
+    this.chunks = new LinkedHashMap<Long, Chunk>(16, 0.75f, true) {
+      // keeps the state of the chunk being dropped once there are too many
+      protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+        if (this.size() <= InfiniteField.this.capacity) {
+          return false;
+        }
+        Chunk chunk = eldest.getValue();
+        if (chunk.shown != 0 || chunk.flagged != 0) {
+          InfiniteField.this.saved.put(eldest.getKey(),
+              new long[] { chunk.shown, chunk.flagged });
+        }
+        return true;
+      }
+    };
+  }
+
+  // the key of the given chunk
+  static long key(int chunkX, int chunkY) {
+    return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+  }
+
+  // a well mixed hash of the seed and the given chunk
+  long hash(int chunkX, int chunkY) {
+    long h = this.seed ^ (InfiniteField.key(chunkX, chunkY) * 0x9E3779B97F4A7C15L);
+    h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+    h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+    return h ^ (h >>> 31);
+  }
+
+  // the mines of the given chunk, the same every time and worked out without building it
+  long minesOf(int chunkX, int chunkY) {
+    long mines = 0;
+    // mines land in the cells left once the origin's neighborhood is taken out
+    int[] avoid = new int[9];
+    int avoided = 0;
+    for (int x = 0; x < Chunk.SIZE; x++) {
+      for (int y = 0; y < Chunk.SIZE; y++) {
+        int worldX = chunkX * Chunk.SIZE + x;
+        int worldY = chunkY * Chunk.SIZE + y;
+        if (Math.abs(worldX) <= 1 && Math.abs(worldY) <= 1) {
+          avoid[avoided++] = x * Chunk.SIZE + y;
+        }
+      }
+    }
+    int[] picks = new MinePlacer().chooseAvoiding(Chunk.SIZE * Chunk.SIZE, this.minesPerChunk,
+        new Random(this.hash(chunkX, chunkY)), Arrays.copyOf(avoid, avoided));
+    for (int i : picks) {
+      mines |= 1L << i;
+    }
+    return mines;
+  }
+
+  // the given chunk, built and counted if it isn't kept
+  Chunk chunk(int chunkX, int chunkY) {
+    long key = InfiniteField.key(chunkX, chunkY);
+    Chunk chunk = this.chunks.get(key);
+    if (chunk == null) {
+      chunk = this.build(chunkX, chunkY);
+      long[] state = this.saved.remove(key);
+      if (state != null) {
+        chunk.shown = state[0];
+        chunk.flagged = state[1];
+      }
+      this.chunks.put(key, chunk);
+    }
+    return chunk;
+  }
+
+  // a fresh chunk, counting mines from the hashes of the chunks around it so none of them
+  // has to be built
+  Chunk build(int chunkX, int chunkY) {
+    this.loads++;
+    int size = Chunk.SIZE;
+    // the mines of the chunk and a one cell border, indexed (x + 1) * (size + 2) + y + 1
+    boolean[] area = new boolean[(size + 2) * (size + 2)];
+    long mines = 0;
+    for (int cx = -1; cx <= 1; cx++) {
+      for (int cy = -1; cy <= 1; cy++) {
+        long bits = this.minesOf(chunkX + cx, chunkY + cy);
+        if (cx == 0 && cy == 0) {
+          mines = bits;
+        }
+        for (; bits != 0; bits &= bits - 1) {
+          int bit = Long.numberOfTrailingZeros(bits);
+          int x = cx * size + bit / size;
+          int y = cy * size + bit % size;
+          if (x >= -1 && x <= size && y >= -1 && y <= size) {
+            area[(x + 1) * (size + 2) + y + 1] = true;
+          }
+        }
+      }
+    }
+    Chunk chunk = new Chunk(chunkX, chunkY, mines);
+    for (int x = 0; x < size; x++) {
+      for (int y = 0; y < size; y++) {
+        for (int dx = 0; dx <= 2; dx++) {
+          for (int dy = 0; dy <= 2; dy++) {
+            if ((dx != 1 || dy != 1) && area[(x + dx) * (size + 2) + y + dy]) {
+              chunk.counts[x * size + y]++;
+            }
+          }
+        }
+      }
+    }
+    return chunk;
+  }
+
+  // the chunk holding the given cell
+  Chunk chunkAt(int x, int y) {
+    return this.chunk(Math.floorDiv(x, Chunk.SIZE), Math.floorDiv(y, Chunk.SIZE));
+  }
+
+  // the bit of the given cell inside its chunk
+  int bit(int x, int y) {
+    return Math.floorMod(x, Chunk.SIZE) * Chunk.SIZE + Math.floorMod(y, Chunk.SIZE);
+  }
+
+  // is there a mine at the given cell
+  boolean isMine(int x, int y) {
+    Chunk chunk = this.chunkAt(x, y);
+    return chunk.has(chunk.mines, this.bit(x, y));
+  }
+
+  // is the given cell shown
+  boolean isShown(int x, int y) {
+    Chunk chunk = this.chunkAt(x, y);
+    return chunk.has(chunk.shown, this.bit(x, y));
+  }
+
+  // is the given cell flagged
+  boolean isFlagged(int x, int y) {
+    Chunk chunk = this.chunkAt(x, y);
+    return chunk.has(chunk.flagged, this.bit(x, y));
+  }
+
+  // how many mines touch the given cell
+  int count(int x, int y) {
+    return this.chunkAt(x, y).counts[this.bit(x, y)];
+  }
+
+  // EFFECT: flags the given cell if it isn't, unflags it if it is
+  void toggleFlag(int x, int y) {
+    this.chunkAt(x, y).flagged ^= 1L << this.bit(x, y);
+  }
+
+  // EFFECT: shows the given cell, and if it touches no mines, the region of such cells and
+  // its border, loading chunks as the fill reaches them
+  // a chunk is only changed straight after it is looked up, so one dropped mid fill is saved
+  // with everything done to it
+  // returns how many cells were newly shown
+  int reveal(int x, int y) {
+    Chunk chunk = this.chunkAt(x, y);
+    int bit = this.bit(x, y);
+    boolean wasShown = chunk.has(chunk.shown, bit);
+    chunk.shown |= 1L << bit;
+    if (chunk.has(chunk.mines, bit)) {
+      this.lost = true;
+      return wasShown ? 0 : 1;
+    }
+    int revealed = wasShown ? 0 : 1;
+    this.shownSafe += revealed;
+    if (chunk.counts[bit] != 0) {
+      return revealed;
+    }
+    // cells are packed into longs as x in the high half and y in the low half
+    long[] stack = new long[64];
+    int size = 0;
+    stack[size++] = InfiniteField.key(x, y);
+    while (size > 0 && revealed < InfiniteField.REVEAL_LIMIT) {
+      long cell = stack[--size];
+      int cx = (int) (cell >> 32);
+      int cy = (int) cell;
+      for (int nx = cx - 1; nx <= cx + 1; nx++) {
+        for (int ny = cy - 1; ny <= cy + 1; ny++) {
+          Chunk next = this.chunkAt(nx, ny);
+          int nextBit = this.bit(nx, ny);
+          if (!next.has(next.shown, nextBit)) { // a cell touching a zero can't be a mine
+            next.shown |= 1L << nextBit;
+            revealed++;
+            this.shownSafe++;
+            if (next.counts[nextBit] == 0) {
+              if (size == stack.length) {
+                stack = Arrays.copyOf(stack, size * 2);
+              }
+              stack[size++] = InfiniteField.key(nx, ny);
+            }
+          }
+        }
+      }
+    }
+    return revealed;
+  }
+}
@@ -0,0 +1,111 @@
+import java.awt.Color;
+
+import javalib.impworld.World;
+import javalib.impworld.WorldScene;
+import javalib.worldimages.Posn;
+import javalib.worldimages.TextImage;
+import javalib.worldimages.WorldEnd;
+
+// endless Minesweeper, a window onto an InfiniteField that the arrow keys move around
+// the game opens at the origin, and is only over once a mine is shown
+class InfiniteMinesweeper extends World {
+  // how many cells an arrow key moves the view
+  static int SCROLL = 4;
+  InfiniteField field;
+  int colCount; // the width of the view in cells
+  int rowCount; // the height of the view in cells
+  int viewX; // the cell at the top left of the view
+  int viewY;
+  boolean theGameIsOver;
+
+  // a view of the given size over a field with the given seed, centered on the origin
+  InfiniteMinesweeper(int colCount, int rowCount, long seed, int minesPerChunk) {
+    this.colCount = colCount;
+    this.rowCount = rowCount;
+    // keeps enough chunks to cover the view and a ring around it
+    int across = (colCount + Chunk.SIZE - 1) / Chunk.SIZE + 2;
+    int down = (rowCount + Chunk.SIZE - 1) / Chunk.SIZE + 2;
+    this.field = new InfiniteField(seed, minesPerChunk, 2 * across * down);
+    this.viewX = -colCount / 2;
+    this.viewY = -rowCount / 2;
+    this.field.reveal(0, 0);
+  }
+
+  // draws the cells in view, building the chunks under them if they aren't kept
+  // each chunk in view is looked up once and its cells drawn from it
+  public WorldScene makeScene() {
+    WorldScene scene = new WorldScene(this.colCount * MinesweeperGame.CELL_SIZE,
+        this.rowCount * MinesweeperGame.CELL_SIZE);
+    CellSprites sprites = CellSprites.forSize(MinesweeperGame.CELL_SIZE);
+    Cell cell = new Cell();
+    int size = Chunk.SIZE;
+    int endX = this.viewX + this.colCount;
+    int endY = this.viewY + this.rowCount;
+    for (int chunkX = Math.floorDiv(this.viewX, size); chunkX * size < endX; chunkX++) {
+      for (int chunkY = Math.floorDiv(this.viewY, size); chunkY * size < endY; chunkY++) {
+        Chunk chunk = this.field.chunk(chunkX, chunkY);
+        // the part of the chunk inside the view
+        int fromX = Math.max(chunkX * size, this.viewX);
+        int toX = Math.min(chunkX * size + size, endX);
+        int fromY = Math.max(chunkY * size, this.viewY);
+        int toY = Math.min(chunkY * size + size, endY);
+        for (int worldX = fromX; worldX < toX; worldX++) {
+          for (int worldY = fromY; worldY < toY; worldY++) {
+            int bit = (worldX - chunkX * size) * size + (worldY - chunkY * size);
+            cell.isMine = chunk.has(chunk.mines, bit);
+            cell.isShown = chunk.has(chunk.shown, bit);
+            cell.isFlagged = chunk.has(chunk.flagged, bit);
+            scene.placeImageXY(sprites.cornered[CellSprites.state(cell, chunk.counts[bit])],
+                (worldX - this.viewX) * MinesweeperGame.CELL_SIZE,
+                (worldY - this.viewY) * MinesweeperGame.CELL_SIZE);
+          }
+        }
+      }
+    }
+    return scene;
+  }
+
+  // shows or flags the cell under the mouse
+  public void onMouseClicked(Posn mouse, String button) {
+    int worldX = this.viewX + mouse.x / MinesweeperGame.CELL_SIZE;
+    int worldY = this.viewY + mouse.y / MinesweeperGame.CELL_SIZE;
+    if (button.equals("LeftButton") && !this.field.isFlagged(worldX, worldY)) {
+      this.field.reveal(worldX, worldY);
+      this.theGameIsOver = this.field.lost;
+    }
+    if (button.equals("RightButton") && !this.field.isShown(worldX, worldY)) {
+      this.field.toggleFlag(worldX, worldY);
+    }
+  }
+
+  // moves the view with the arrow keys
+  public void onKeyEvent(String key) {
+    if (key.equals("left")) {
+      this.viewX -= InfiniteMinesweeper.SCROLL;
+    }
+    else if (key.equals("right")) {
+      this.viewX += InfiniteMinesweeper.SCROLL;
+    }
+    else if (key.equals("up")) {
+      this.viewY -= InfiniteMinesweeper.SCROLL;
+    }
+    else if (key.equals("down")) {
+      this.viewY += InfiniteMinesweeper.SCROLL;
+    }
+  }
+
+  // ends the world once a mine is shown, with how many cells were cleared
+  public WorldEnd worldEnds() {
+    if (this.theGameIsOver) {
+      int middleX = this.colCount * MinesweeperGame.CELL_SIZE / 2;
+      int middleY = this.rowCount * MinesweeperGame.CELL_SIZE / 2;
+      WorldScene end = this.getEmptyScene();
+      end.placeImageXY(new TextImage("You Lose! " + this.field.shownSafe + " cells cleared",
+          middleY / 4, Color.RED), middleX, middleY);
+      return new WorldEnd(true, end);
+    }
+    else {
+      return new WorldEnd(false, this.makeScene());
+    }
+  }
+}
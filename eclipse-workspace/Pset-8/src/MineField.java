@@ -0,0 +1,243 @@
+import java.util.Random;
+
+// a Minesweeper board stored as bitsets instead of Cell objects, one bit per cell for mines,
+// shown cells and flags plus a byte of mine count, cells indexed col * rowCount + row
+// like MinesweeperGame, neighbors are worked out from the index instead of stored
+class MineField {
+  int colCount;
+  int rowCount;
+  int mineCount;
+  long[] mines;
+  long[] shown;
+  long[] flagged;
+  // how many mines touch each cell
+  byte[] counts;
+  // how many cells without mines are shown, kept up to date by reveal
+  int shownSafe;
+  // when set, isWon also counts every shown cell and fails if shownSafe disagrees
+  boolean verify;
+  // the connected regions of cells touching no mines, found by the first reveal that needs
+  // them and dropped whenever the counts change
+  ZeroRegions regions;
+
+  // an empty board with no mines
+  MineField(int colCount, int rowCount) {
+    this.colCount = colCount;
+    this.rowCount = rowCount;
+    this.mineCount = 0;
+    int words = (colCount * rowCount + 63) / 64;
+    this.mines = new long[words];
+    this.shown = new long[words];
+    this.flagged = new long[words];
+    this.counts = new byte[colCount * rowCount];
+  }
+
+  // a board with mines placed at random
+  MineField(int colCount, int rowCount, int mineCount, Random rand) {
+    this(colCount, rowCount);
+    for (int i : new MinePlacer().choose(colCount * rowCount, mineCount, rand)) {
+      this.set(this.mines, i);
+    }
+    this.mineCount = mineCount;
+    this.countAllMines();
+  }
+
+  // a board with mines placed at random, but none on or next to the given cell so it opens up
+  // when revealed first, or if there are too many mines for that, just none on the cell,
+  // as MinePlacer.safeArea allows
+  MineField(int colCount, int rowCount, int mineCount, Random rand, int safeCell) {
+    this(colCount, rowCount);
+    int[] avoid = MinePlacer.safeArea(colCount, rowCount, safeCell / rowCount,
+        safeCell % rowCount, mineCount);
+    for (int i : new MinePlacer().chooseAvoiding(colCount * rowCount, mineCount, rand, avoid)) {
+      this.set(this.mines, i);
+    }
+    this.mineCount = mineCount;
+    this.countAllMines();
+  }
+
+  // a copy of the state of the given game
+  MineField(MinesweeperGame game) {
+    this(game.colCount, game.rowCount);
+    for (int x = 0; x < this.colCount; x++) {
+      for (int y = 0; y < this.rowCount; y++) {
+        Cell cell = game.cells.get(x).get(y);
+        int i = this.index(x, y);
+        if (cell.isMine) {
+          this.set(this.mines, i);
+          this.mineCount++;
+        }
+        if (cell.isShown) {
+          this.set(this.shown, i);
+        }
+        if (cell.isFlagged) {
+          this.set(this.flagged, i);
+        }
+      }
+    }
+    this.countAllMines();
+    this.shownSafe = this.shownSafeCount();
+  }
+
+  // the index of the given cell
+  int index(int col, int row) {
+    return col * this.rowCount + row;
+  }
+
+  // is bit i of the given bitset set
+  boolean get(long[] bits, int i) {
+    return (bits[i >> 6] & (1L << i)) != 0;
+  }
+
+  // EFFECT: sets bit i of the given bitset
+  void set(long[] bits, int i) {
+    bits[i >> 6] |= 1L << i;
+  }
+
+  // EFFECT: clears bit i of the given bitset
+  void clear(long[] bits, int i) {
+    bits[i >> 6] &= ~(1L << i);
+  }
+
+  // the indices of every mine, in increasing order
+  int[] mineIndices() {
+    int[] indices = new int[this.mineCount];
+    int found = 0;
+    for (int w = 0; w < this.mines.length; w++) {
+      for (long bits = this.mines[w]; bits != 0; bits &= bits - 1) {
+        indices[found++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+      }
+    }
+    return indices;
+  }
+
+  // EFFECT: writes the cells touching the given cell into out, which needs room for 8
+  // returns how many there are
+  int neighbors(int cell, int[] out) {
+    int col = cell / this.rowCount;
+    int row = cell % this.rowCount;
+    int found = 0;
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, this.colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, this.rowCount - 1); y++) {
+        if (x != col || y != row) {
+          out[found++] = this.index(x, y);
+        }
+      }
+    }
+    return found;
+  }
+
+  // EFFECT: recounts the mines touching every cell
+  void countAllMines() {
+    int[] around = new int[8];
+    this.counts = new byte[this.colCount * this.rowCount];
+    this.regions = null;
+    for (int w = 0; w < this.mines.length; w++) {
+      // only visits the set bits of each word
+      for (long bits = this.mines[w]; bits != 0; bits &= bits - 1) {
+        int mine = (w << 6) + Long.numberOfTrailingZeros(bits);
+        int found = this.neighbors(mine, around);
+        for (int n = 0; n < found; n++) {
+          this.counts[around[n]]++;
+        }
+      }
+    }
+  }
+
+  // is the given cell a non mine with no mines around it
+  boolean isZero(int cell) {
+    return this.counts[cell] == 0 && !this.get(this.mines, cell);
+  }
+
+  // EFFECT: shows the given cell, and if it touches no mines, everything the region of such
+  // cells touches, ORing in the region's precomputed words instead of searching
+  // returns how many cells were newly shown
+  int reveal(int cell) {
+    if (this.get(this.shown, cell)) {
+      return 0;
+    }
+    if (!this.isZero(cell)) {
+      this.set(this.shown, cell);
+      if (!this.get(this.mines, cell)) {
+        this.shownSafe++;
+      }
+      return 1;
+    }
+    if (this.regions == null) {
+      this.regions = new ZeroRegions(this.colCount, this.rowCount, this.zeroBits());
+    }
+    // a cell in or around a region can't be a mine
+    int revealed = this.regions.showRegion(this.regions.regionOf[cell], this.shown);
+    this.shownSafe += revealed;
+    return revealed;
+  }
+
+  // a bitset of the non mines with no mines around them
+  long[] zeroBits() {
+    long[] zero = new long[this.mines.length];
+    for (int i = 0; i < this.counts.length; i++) {
+      if (this.counts[i] == 0) {
+        this.set(zero, i);
+      }
+    }
+    for (int w = 0; w < zero.length; w++) {
+      zero[w] &= ~this.mines[w];
+    }
+    return zero;
+  }
+
+  // EFFECT: flags the given cell if it isn't, unflags it if it is
+  void toggleFlag(int cell) {
+    this.flagged[cell >> 6] ^= 1L << cell;
+  }
+
+  // EFFECT: shows every mine at once, for when the game is lost
+  void showAllMines() {
+    for (int w = 0; w < this.shown.length; w++) {
+      this.shown[w] |= this.mines[w];
+    }
+  }
+
+  // how many cells without mines are shown, a word at a time
+  int shownSafeCount() {
+    int count = 0;
+    for (int w = 0; w < this.shown.length; w++) {
+      count += Long.bitCount(this.shown[w] & ~this.mines[w]);
+    }
+    return count;
+  }
+
+  // how many cells are flagged
+  int flaggedCount() {
+    int count = 0;
+    for (int w = 0; w < this.flagged.length; w++) {
+      count += Long.bitCount(this.flagged[w]);
+    }
+    return count;
+  }
+
+  // has a mine been shown
+  boolean hitMine() {
+    for (int w = 0; w < this.shown.length; w++) {
+      if ((this.shown[w] & this.mines[w]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // is every cell without a mine shown
+  boolean isWon() {
+    if (this.verify && this.shownSafeCount() != this.shownSafe) {
+      throw new IllegalStateException(
+          "shownSafe is " + this.shownSafe + " but " + this.shownSafeCount() + " are shown");
+    }
+    return this.shownSafe == this.colCount * this.rowCount - this.mineCount;
+  }
+
+  // roughly how many bytes of arrays this board holds, counting its regions once found
+  long bytesUsed() {
+    return 8L * (this.mines.length + this.shown.length + this.flagged.length)
+        + this.counts.length + (this.regions == null ? 0 : this.regions.bytesUsed());
+  }
+}
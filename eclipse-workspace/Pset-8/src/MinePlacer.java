@@ -0,0 +1,94 @@
+import java.util.Random;
+
+// picks which cells of a board hold mines, the same cells every time for the same seed
+class MinePlacer {
+  // below this fraction of cells being mines, sampling beats shuffling every index
+  static double SPARSE = 0.125;
+
+  // the indices of mineCount different cells out of cellCount, chosen uniformly at random
+  int[] choose(int cellCount, int mineCount, Random rand) {
+    if (mineCount < 0 || mineCount > cellCount) {
+      throw new IllegalArgumentException(
+          "can't place " + mineCount + " mines in " + cellCount + " cells");
+    }
+    if (mineCount < cellCount * MinePlacer.SPARSE) {
+      return this.sample(cellCount, mineCount, rand);
+    }
+    else {
+      return this.shuffle(cellCount, mineCount, rand);
+    }
+  }
+
+  // like choose, but never picks any of the given cells, which must be in increasing order
+  int[] chooseAvoiding(int cellCount, int mineCount, Random rand, int[] avoid) {
+    int[] mines = this.choose(cellCount - avoid.length, mineCount, rand);
+    // shifts each pick past every avoided cell at or below it
+    for (int i = 0; i < mines.length; i++) {
+      for (int a = 0; a < avoid.length && mines[i] >= avoid[a]; a++) {
+        mines[i]++;
+      }
+    }
+    return mines;
+  }
+
+  // the indices of the given cell and the cells around it, in increasing order,
+  // on a board indexed col * rowCount + row
+  static int[] area(int colCount, int rowCount, int col, int row) {
+    int[] cells = new int[(Math.min(col + 1, colCount - 1) - Math.max(col - 1, 0) + 1)
+        * (Math.min(row + 1, rowCount - 1) - Math.max(row - 1, 0) + 1)];
+    int found = 0;
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, rowCount - 1); y++) {
+        cells[found++] = x * rowCount + y;
+      }
+    }
+    return cells;
+  }
+
+  // the cells a first click on the given cell keeps free of mines, in increasing order:
+  // the cell and the cells around it, or if there are too many mines for that just the cell,
+  // or if every cell is a mine, none at all
+  static int[] safeArea(int colCount, int rowCount, int col, int row, int mineCount) {
+    int[] area = MinePlacer.area(colCount, rowCount, col, row);
+    if (colCount * rowCount - area.length >= mineCount) {
+      return area;
+    }
+    else if (colCount * rowCount - 1 >= mineCount) {
+      return new int[] { col * rowCount + row };
+    }
+    else {
+      return new int[0];
+    }
+  }
+
+  // a partial Fisher-Yates shuffle, only the first mineCount slots are ever settled
+  int[] shuffle(int cellCount, int mineCount, Random rand) {
+    int[] indices = new int[cellCount];
+    for (int i = 0; i < cellCount; i++) {
+      indices[i] = i;
+    }
+    int[] mines = new int[mineCount];
+    for (int i = 0; i < mineCount; i++) {
+      int pick = i + rand.nextInt(cellCount - i);
+      mines[i] = indices[pick];
+      indices[pick] = indices[i];
+    }
+    return mines;
+  }
+
+  // Floyd's sampling, one random number per mine and a bitset instead of an index per cell
+  int[] sample(int cellCount, int mineCount, Random rand) {
+    long[] taken = new long[(cellCount + 63) / 64];
+    int[] mines = new int[mineCount];
+    int found = 0;
+    for (int j = cellCount - mineCount; j < cellCount; j++) {
+      int pick = rand.nextInt(j + 1);
+      if ((taken[pick >> 6] & (1L << pick)) != 0) {
+        pick = j;
+      }
+      taken[pick >> 6] |= 1L << pick;
+      mines[found++] = pick;
+    }
+    return mines;
+  }
+}
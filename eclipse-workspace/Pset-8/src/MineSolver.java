@@ -0,0 +1,580 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// one move made by a MineSolver
+class SolverStep {
+  int cell;
+  boolean flag; // whether the cell was flagged as a mine instead of revealed
+  boolean guess; // whether the solver could be wrong about the move
+  double mineChance; // how likely the solver thought it was that the cell was a mine
+
+  SolverStep(int cell, boolean flag, boolean guess, double mineChance) {
+    this.cell = cell;
+    this.flag = flag;
+    this.guess = guess;
+    this.mineChance = mineChance;
+  }
+}
+
+// plays a MineField using only what a player can see, the shown counts and its own flags
+// first by single cell rules, then by comparing pairs of overlapping numbers, then by
+// counting every arrangement of mines along the frontier, and only then by guessing the
+// cell least likely to be a mine
+class MineSolver {
+  // components with more arrangements than this to try are estimated instead of counted
+  static int SEARCH_LIMIT = 1 << 20;
+  // no move, no cell is stored as this
+  static int NONE = Integer.MIN_VALUE;
+
+  MineField field;
+  int start; // the cell to open first, known to be safe
+  // certain moves waiting to be made, a mine is stored as ~cell
+  int[] pending;
+  int pendingSize;
+  // the chance of each cell being a mine, from the last time the frontier was counted
+  double[] chance;
+  int deductions; // moves made without guessing
+  int guesses; // moves that could have been wrong
+  boolean lost;
+  // when set, the solver stops instead of guessing
+  boolean deduceOnly;
+  int[] around;
+  int searched; // nodes visited by the current component search
+
+  MineSolver(MineField field, int start) {
+    this.field = field;
+    this.start = start;
+    this.pending = new int[64];
+    this.chance = new double[field.colCount * field.rowCount];
+    this.around = new int[8];
+  }
+
+  // is the given cell neither shown nor flagged
+  boolean unknown(int cell) {
+    return !this.field.get(this.field.shown, cell) && !this.field.get(this.field.flagged, cell);
+  }
+
+  // EFFECT: makes the next move, returns it, or null once the game is won or lost, or when
+  // a guess is needed and deduceOnly is set
+  SolverStep step() {
+    if (this.lost || this.field.isWon()) {
+      return null;
+    }
+    if (!this.field.get(this.field.shown, this.start)) {
+      this.deductions++;
+      this.field.reveal(this.start);
+      return new SolverStep(this.start, false, false, 0.0);
+    }
+    int move = this.nextPending();
+    if (move == MineSolver.NONE) {
+      this.findCertain();
+      move = this.nextPending();
+    }
+    if (move == MineSolver.NONE) {
+      this.estimate();
+      move = this.nextPending();
+    }
+    if (move != MineSolver.NONE) {
+      this.deductions++;
+      int cell = move < 0 ? ~move : move;
+      return this.play(cell, move < 0, false, move < 0 ? 1.0 : 0.0);
+    }
+    if (this.deduceOnly) {
+      return null;
+    }
+    int best = -1;
+    for (int cell = 0; cell < this.chance.length; cell++) {
+      if (this.unknown(cell) && (best < 0 || this.chance[cell] < this.chance[best])) {
+        best = cell;
+      }
+    }
+    this.guesses++;
+    return this.play(best, false, true, this.chance[best]);
+  }
+
+  // EFFECT: takes the next queued move whose cell is still unknown, the same cell can be
+  // queued more than once
+  // returns the move, or NONE if there is none
+  int nextPending() {
+    while (this.pendingSize > 0) {
+      int move = this.pending[--this.pendingSize];
+      if (this.unknown(move < 0 ? ~move : move)) {
+        return move;
+      }
+    }
+    return MineSolver.NONE;
+  }
+
+  // EFFECT: flags or reveals the given cell
+  SolverStep play(int cell, boolean flag, boolean guess, double mineChance) {
+    if (flag) {
+      this.field.set(this.field.flagged, cell);
+    }
+    else {
+      this.field.reveal(cell);
+      this.lost = this.field.get(this.field.mines, cell);
+    }
+    return new SolverStep(cell, flag, guess, mineChance);
+  }
+
+  // EFFECT: plays until the game is over, or until it has to guess if deduceOnly is set
+  // returns whether it was won
+  boolean solve() {
+    while (this.step() != null) {
+      // every move has already been made by step
+    }
+    return !this.lost && this.field.isWon();
+  }
+
+  // EFFECT: queues the given cell as certain, a mine if mine is true
+  void queue(int cell, boolean mine) {
+    if (this.pendingSize == this.pending.length) {
+      this.pending = Arrays.copyOf(this.pending, this.pendingSize * 2);
+    }
+    this.pending[this.pendingSize++] = mine ? ~cell : cell;
+  }
+
+  // the unknown cells around every shown number that has any, indexed by the number's cell,
+  // null for every other cell
+  int[][] constraints() {
+    int[][] unknowns = new int[this.chance.length][];
+    for (int cell = 0; cell < this.chance.length; cell++) {
+      if (this.field.get(this.field.shown, cell) && this.field.counts[cell] > 0) {
+        int found = this.field.neighbors(cell, this.around);
+        int size = 0;
+        for (int n = 0; n < found; n++) {
+          if (this.unknown(this.around[n])) {
+            size++;
+          }
+        }
+        if (size > 0) {
+          unknowns[cell] = new int[size];
+          size = 0;
+          for (int n = 0; n < found; n++) {
+            if (this.unknown(this.around[n])) {
+              unknowns[cell][size++] = this.around[n];
+            }
+          }
+        }
+      }
+    }
+    return unknowns;
+  }
+
+  // how many of the mines around the given shown cell aren't flagged yet
+  int remaining(int cell) {
+    int left = this.field.counts[cell];
+    int found = this.field.neighbors(cell, this.around);
+    for (int n = 0; n < found; n++) {
+      if (this.field.get(this.field.flagged, this.around[n])) {
+        left--;
+      }
+    }
+    return left;
+  }
+
+  // how many of the cells in a are not in b
+  int outside(int[] a, int[] b) {
+    int count = 0;
+    for (int x : a) {
+      boolean found = false;
+      for (int y : b) {
+        found = found || x == y;
+      }
+      count += found ? 0 : 1;
+    }
+    return count;
+  }
+
+  // EFFECT: queues every cell of a that is not in b, as a mine if mine is true
+  void queueOutside(int[] a, int[] b, boolean mine) {
+    for (int x : a) {
+      boolean found = false;
+      for (int y : b) {
+        found = found || x == y;
+      }
+      if (!found) {
+        this.queue(x, mine);
+      }
+    }
+  }
+
+  // EFFECT: queues every move that follows from one number, or failing that, from two
+  void findCertain() {
+    int[][] unknowns = this.constraints();
+    for (int cell = 0; cell < unknowns.length; cell++) {
+      if (unknowns[cell] != null) {
+        int left = this.remaining(cell);
+        if (left == 0 || left == unknowns[cell].length) {
+          for (int u : unknowns[cell]) {
+            this.queue(u, left > 0);
+          }
+        }
+      }
+    }
+    if (this.pendingSize > 0) {
+      return;
+    }
+    // if b has as many more mines than a as it has cells a doesn't, those are all mines,
+    // and a's other cells are all safe
+    for (int a = 0; a < unknowns.length; a++) {
+      if (unknowns[a] != null) {
+        int col = a / this.field.rowCount;
+        int row = a % this.field.rowCount;
+        int leftA = this.remaining(a);
+        for (int x = Math.max(col - 2, 0); x <= Math.min(col + 2,
+            this.field.colCount - 1); x++) {
+          for (int y = Math.max(row - 2, 0); y <= Math.min(row + 2,
+              this.field.rowCount - 1); y++) {
+            int b = this.field.index(x, y);
+            if (b != a && unknowns[b] != null) {
+              int onlyB = this.outside(unknowns[b], unknowns[a]);
+              int onlyA = this.outside(unknowns[a], unknowns[b]);
+              if (onlyA + onlyB > 0 && this.remaining(b) - leftA == onlyB) {
+                this.queueOutside(unknowns[b], unknowns[a], true);
+                this.queueOutside(unknowns[a], unknowns[b], false);
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  // the log of n choose k, negative infinity when it is 0
+  double logChoose(int n, int k) {
+    if (k < 0 || k > n) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    double sum = 0;
+    for (int i = 1; i <= Math.min(k, n - k); i++) {
+      sum += Math.log((double) (n - Math.min(k, n - k) + i) / i);
+    }
+    return sum;
+  }
+
+  // the distribution of the sum of mines in two independent distributions
+  double[] convolve(double[] a, double[] b) {
+    double[] sum = new double[a.length + b.length - 1];
+    for (int i = 0; i < a.length; i++) {
+      for (int j = 0; j < b.length; j++) {
+        sum[i + j] += a[i] * b[j];
+      }
+    }
+    return sum;
+  }
+
+  // EFFECT: works out the chance of every unknown cell being a mine by counting the ways
+  // mines can be arranged along the frontier, and queues the cells that are certain
+  void estimate() {
+    int[][] unknowns = this.constraints();
+    int cells = this.chance.length;
+    // numbers the frontier cells and joins the ones that share a number
+    int[] frontier = new int[cells];
+    Arrays.fill(frontier, -1);
+    int[] frontierCells = new int[cells];
+    int frontierSize = 0;
+    for (int c = 0; c < cells; c++) {
+      if (unknowns[c] != null) {
+        for (int u : unknowns[c]) {
+          if (frontier[u] < 0) {
+            frontier[u] = frontierSize;
+            frontierCells[frontierSize++] = u;
+          }
+        }
+      }
+    }
+    int[] parent = new int[frontierSize];
+    for (int i = 0; i < frontierSize; i++) {
+      parent[i] = i;
+    }
+    for (int c = 0; c < cells; c++) {
+      if (unknowns[c] != null) {
+        for (int u : unknowns[c]) {
+          int a = this.find(parent, frontier[unknowns[c][0]]);
+          int b = this.find(parent, frontier[u]);
+          parent[a] = b;
+        }
+      }
+    }
+    // splits the frontier and the numbers into components
+    ArrayList<ArrayList<Integer>> compCells = new ArrayList<ArrayList<Integer>>();
+    ArrayList<ArrayList<Integer>> compNumbers = new ArrayList<ArrayList<Integer>>();
+    int[] compOf = new int[frontierSize];
+    Arrays.fill(compOf, -1);
+    for (int i = 0; i < frontierSize; i++) {
+      int root = this.find(parent, i);
+      if (compOf[root] < 0) {
+        compOf[root] = compCells.size();
+        compCells.add(new ArrayList<Integer>());
+        compNumbers.add(new ArrayList<Integer>());
+      }
+      compCells.get(compOf[root]).add(frontierCells[i]);
+    }
+    for (int c = 0; c < cells; c++) {
+      if (unknowns[c] != null) {
+        compNumbers.get(compOf[this.find(parent, frontier[unknowns[c][0]])]).add(c);
+      }
+    }
+    // counts the arrangements of each component by how many mines they use
+    int comps = compCells.size();
+    double[][] ways = new double[comps][];
+    double[][][] minesAt = new double[comps][][];
+    boolean exact = true;
+    int[] localIndex = new int[cells];
+    for (int k = 0; k < comps; k++) {
+      ArrayList<Integer> members = compCells.get(k);
+      for (int i = 0; i < members.size(); i++) {
+        localIndex[members.get(i)] = i;
+      }
+      ways[k] = new double[members.size() + 1];
+      minesAt[k] = new double[members.size() + 1][members.size()];
+      if (exact && !this.enumerate(members, compNumbers.get(k), unknowns, localIndex, ways[k],
+          minesAt[k])) {
+        exact = false;
+      }
+    }
+    int left = this.field.mineCount - this.field.flaggedCount();
+    int outside = 0;
+    for (int c = 0; c < cells; c++) {
+      if (this.unknown(c) && frontier[c] < 0) {
+        outside++;
+      }
+    }
+    if (!exact) {
+      this.estimateLocally(unknowns, left, outside);
+      return;
+    }
+    // weighs each total of frontier mines by how many ways the rest can go outside
+    double[] all = new double[] { 1 };
+    for (int k = 0; k < comps; k++) {
+      all = this.convolve(all, ways[k]);
+    }
+    double[] logWeight = new double[all.length];
+    double top = Double.NEGATIVE_INFINITY;
+    for (int total = 0; total < all.length; total++) {
+      logWeight[total] = this.logChoose(outside, left - total);
+      top = Math.max(top, logWeight[total]);
+    }
+    double[] weight = new double[all.length];
+    for (int total = 0; total < all.length; total++) {
+      weight[total] = Math.exp(logWeight[total] - top);
+    }
+    double total = 0;
+    double minesOutside = 0;
+    for (int t = 0; t < all.length; t++) {
+      total += all[t] * weight[t];
+      minesOutside += all[t] * weight[t] * (left - t);
+    }
+    // no arrangement fits the mine count, or the weights underflowed, so nothing is certain
+    if (!(total > 0)) {
+      this.estimateLocally(unknowns, left, outside);
+      return;
+    }
+    for (int k = 0; k < comps; k++) {
+      double[] others = new double[] { 1 };
+      for (int j = 0; j < comps; j++) {
+        if (j != k) {
+          others = this.convolve(others, ways[j]);
+        }
+      }
+      double[] byMines = new double[ways[k].length];
+      double sum = 0;
+      for (int m = 0; m < ways[k].length; m++) {
+        for (int o = 0; o < others.length; o++) {
+          byMines[m] += others[o] * weight[m + o];
+        }
+        sum += ways[k][m] * byMines[m];
+      }
+      if (!(sum > 0)) {
+        this.estimateLocally(unknowns, left, outside);
+        return;
+      }
+      ArrayList<Integer> members = compCells.get(k);
+      for (int i = 0; i < members.size(); i++) {
+        double mine = 0;
+        for (int m = 0; m < ways[k].length; m++) {
+          mine += minesAt[k][m][i] * byMines[m];
+        }
+        int cell = members.get(i);
+        this.chance[cell] = mine / sum;
+        if (mine == 0 || mine == sum) {
+          this.queue(cell, mine == sum);
+        }
+      }
+    }
+    for (int c = 0; c < cells; c++) {
+      if (this.unknown(c) && frontier[c] < 0) {
+        this.chance[c] = minesOutside / (outside * total);
+        if (minesOutside == 0 || minesOutside == outside * total) {
+          this.queue(c, minesOutside > 0);
+        }
+      }
+    }
+  }
+
+  // EFFECT: a rough chance for every unknown cell when the frontier is too tangled to count,
+  // the worst of the numbers around each frontier cell and an even share of the rest outside
+  void estimateLocally(int[][] unknowns, int left, int outside) {
+    Arrays.fill(this.chance, 0.0);
+    for (int c = 0; c < unknowns.length; c++) {
+      if (unknowns[c] != null) {
+        double local = (double) this.remaining(c) / unknowns[c].length;
+        for (int u : unknowns[c]) {
+          this.chance[u] = Math.max(this.chance[u], local);
+        }
+      }
+    }
+    double expected = 0;
+    for (int c = 0; c < unknowns.length; c++) {
+      expected += this.unknown(c) ? this.chance[c] : 0;
+    }
+    for (int c = 0; c < unknowns.length; c++) {
+      if (this.unknown(c) && this.chance[c] == 0 && outside > 0) {
+        this.chance[c] = Math.min(Math.max((left - expected) / outside, 0.0), 1.0);
+      }
+    }
+  }
+
+  // the root of the given index, halving paths on the way
+  int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  // EFFECT: counts every arrangement of mines over the given cells that agrees with the given
+  // numbers, into ways by mine total and minesAt by mine total and cell
+  // localIndex holds the position of each of the cells in members
+  // returns false if it gave up after SEARCH_LIMIT steps
+  boolean enumerate(ArrayList<Integer> members, ArrayList<Integer> numbers, int[][] unknowns,
+      int[] localIndex, double[] ways, double[][] minesAt) {
+    // which numbers each cell is part of, and what each number still needs
+    int[] need = new int[numbers.size()];
+    int[] open = new int[numbers.size()];
+    ArrayList<ArrayList<Integer>> touching = new ArrayList<ArrayList<Integer>>();
+    for (int i = 0; i < members.size(); i++) {
+      touching.add(new ArrayList<Integer>());
+    }
+    for (int n = 0; n < numbers.size(); n++) {
+      int cell = numbers.get(n);
+      need[n] = this.remaining(cell);
+      open[n] = unknowns[cell].length;
+      for (int u : unknowns[cell]) {
+        touching.get(localIndex[u]).add(n);
+      }
+    }
+    this.searched = 0;
+    return this.search(0, 0, new int[members.size()], touching, need, open, ways, minesAt);
+  }
+
+  // EFFECT: tries both values for cell i and everything after it
+  // returns false if the search ran past SEARCH_LIMIT
+  boolean search(int i, int mines, int[] assignment, ArrayList<ArrayList<Integer>> touching,
+      int[] need, int[] open, double[] ways, double[][] minesAt) {
+    if (++this.searched > MineSolver.SEARCH_LIMIT) {
+      return false;
+    }
+    if (i == assignment.length) {
+      ways[mines]++;
+      for (int j = 0; j < assignment.length; j++) {
+        minesAt[mines][j] += assignment[j];
+      }
+      return true;
+    }
+    for (int value = 0; value <= 1; value++) {
+      boolean fits = true;
+      for (int n : touching.get(i)) {
+        need[n] -= value;
+        open[n]--;
+        fits = fits && need[n] >= 0 && need[n] <= open[n];
+      }
+      assignment[i] = value;
+      boolean finished = !fits
+          || this.search(i + 1, mines + value, assignment, touching, need, open, ways, minesAt);
+      for (int n : touching.get(i)) {
+        need[n] += value;
+        open[n]++;
+      }
+      if (!finished) {
+        return false;
+      }
+    }
+    assignment[i] = 0;
+    return true;
+  }
+
+  // solves boards seeded seed, seed + 1 and so on, each opened in the middle, on the given
+  // number of threads, and summarizes how it went
+  static String batch(int colCount, int rowCount, int mineCount, int boards, long seed,
+      int threads) throws Exception {
+    boolean[] won = new boolean[boards];
+    long[] nanos = new long[boards];
+    int[] guessed = new int[boards];
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    ArrayList<Future<?>> work = new ArrayList<Future<?>>();
+    for (int t = 0; t < threads; t++) {
+      int first = t;
+      work.add(pool.submit(() -> {
+        for (int b = first; b < boards; b += threads) {
+          long begin = System.nanoTime();
+          int middle = (colCount / 2) * rowCount + rowCount / 2;
+          MineSolver solver = new MineSolver(
+              new MineField(colCount, rowCount, mineCount, new Random(seed + b), middle), middle);
+          won[b] = solver.solve();
+          nanos[b] = System.nanoTime() - begin;
+          guessed[b] = solver.guesses;
+        }
+      }));
+    }
+    try {
+      for (Future<?> f : work) {
+        f.get();
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+    return MineSolver.summary(colCount, rowCount, mineCount, won, nanos, guessed);
+  }
+
+  // a line describing a batch of solved boards
+  static String summary(int colCount, int rowCount, int mineCount, boolean[] won, long[] nanos,
+      int[] guessed) {
+    int wins = 0;
+    int guesses = 0;
+    int noGuess = 0;
+    for (int b = 0; b < won.length; b++) {
+      wins += won[b] ? 1 : 0;
+      guesses += guessed[b];
+      noGuess += guessed[b] == 0 ? 1 : 0;
+    }
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    return String.format(
+        "%dx%d, %d mines: %d boards, %.1f%% won, %.1f%% without guessing, %.2f guesses each, "
+            + "p50 %.0f us, p99 %.0f us",
+        colCount, rowCount, mineCount, won.length, 100.0 * wins / won.length,
+        100.0 * noGuess / won.length, (double) guesses / won.length,
+        sorted[(sorted.length - 1) / 2] / 1000.0,
+        sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1000.0);
+  }
+
+  // arguments: [boards per size] [threads]
+  public static void main(String[] args) throws Exception {
+    int boards = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    int[][] sizes = new int[][] { { 9, 9, 10 }, { 16, 16, 40 }, { 30, 16, 99 },
+        { 50, 50, 300 }, { 50, 50, 500 } };
+    for (int[] size : sizes) {
+      System.out.println(MineSolver.batch(size[0], size[1], size[2], boards, 1, threads));
+    }
+  }
+}
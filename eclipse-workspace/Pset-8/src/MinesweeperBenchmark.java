@@ -0,0 +1,188 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// what one benchmark measured, per operation
+class BenchResult {
+  String name;
+  long medianNanos;
+  long maxNanos;
+  long bytes; // allocated by the measured thread, -1 where the JVM can't tell
+  long collections; // garbage collections that ran while measuring, over every run
+
+  BenchResult(String name, long medianNanos, long maxNanos, long bytes, long collections) {
+    this.name = name;
+    this.medianNanos = medianNanos;
+    this.maxNanos = maxNanos;
+    this.bytes = bytes;
+    this.collections = collections;
+  }
+
+  // one line of the results table
+  public String toString() {
+    return String.format("%-44s %12.3f ms %12.3f ms %14s %4d", this.name,
+        this.medianNanos / 1e6, this.maxNanos / 1e6,
+        this.bytes < 0 ? "n/a" : String.format("%,d", this.bytes), this.collections);
+  }
+}
+
+// times board building, first click reveals, win checks and drawing, for the Cell grid next
+// to MineField, at fixed seeds so runs can be compared
+// each run gets a fresh state from its setup, which isn't measured, and is timed alone,
+// with the bytes the thread allocated and the collections that happened alongside
+class MinesweeperBenchmark {
+  int warmups;
+  int runs;
+  // boards with more cells than these skip the Cell grid, and drawing, which wouldn't fit
+  int maxGridCells;
+  int maxSceneCells;
+  // results are added here so the JIT can't drop work nobody looks at
+  long sink;
+
+  MinesweeperBenchmark(int warmups, int runs, int maxGridCells, int maxSceneCells) {
+    this.warmups = warmups;
+    this.runs = runs;
+    this.maxGridCells = maxGridCells;
+    this.maxSceneCells = maxSceneCells;
+  }
+
+  // the bytes this thread has allocated so far, or -1 if the JVM doesn't track them
+  long allocated() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  // how many garbage collections have run
+  long collections() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(gc.getCollectionCount(), 0);
+    }
+    return count;
+  }
+
+  // times op on a fresh state from setup, reps times in a row per run
+  <T> BenchResult measure(String name, Supplier<T> setup, Consumer<T> op, int reps) {
+    for (int w = 0; w < this.warmups; w++) {
+      T state = setup.get();
+      for (int r = 0; r < reps; r++) {
+        op.accept(state);
+      }
+    }
+    long[] nanos = new long[this.runs];
+    long bytes = 0;
+    long collections = 0;
+    for (int i = 0; i < this.runs; i++) {
+      T state = setup.get();
+      long gcBefore = this.collections();
+      long bytesBefore = this.allocated();
+      long start = System.nanoTime();
+      for (int r = 0; r < reps; r++) {
+        op.accept(state);
+      }
+      nanos[i] = (System.nanoTime() - start) / reps;
+      long bytesAfter = this.allocated();
+      bytes = bytesBefore < 0 ? -1 : bytes + (bytesAfter - bytesBefore);
+      collections += this.collections() - gcBefore;
+      this.sink += state.hashCode();
+    }
+    Arrays.sort(nanos);
+    return new BenchResult(name, nanos[(this.runs - 1) / 2], nanos[this.runs - 1],
+        bytes < 0 ? -1 : bytes / this.runs / reps, collections);
+  }
+
+  // the first cell of the given board with no mines around it, where a first click would open
+  // the most, or 0 if there isn't one
+  int firstZero(MineField field) {
+    for (int i = 0; i < field.counts.length; i++) {
+      if (field.isZero(i)) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  // every benchmark for one board size and mine count
+  ArrayList<BenchResult> board(int cols, int rows, int mines, long seed) {
+    ArrayList<BenchResult> results = new ArrayList<BenchResult>();
+    String size = cols + "x" + rows + "/" + mines + " ";
+    int cells = cols * rows;
+    int start = this.firstZero(new MineField(cols, rows, mines, new Random(seed)));
+    int startCol = start / rows;
+    int startRow = start % rows;
+    results.add(this.measure(size + "MineField build", () -> seed,
+        s -> this.sink += new MineField(cols, rows, mines, new Random(s)).counts.length, 1));
+    results.add(this.measure(size + "MineField first reveal",
+        () -> new MineField(cols, rows, mines, new Random(seed)),
+        field -> this.sink += field.reveal(start), 1));
+    results.add(this.measure(size + "MineField isWon",
+        () -> new MineField(cols, rows, mines, new Random(seed)),
+        field -> this.sink += field.isWon() ? 1 : 0, 1000));
+    results.add(this.measure(size + "MineField shownSafeCount",
+        () -> new MineField(cols, rows, mines, new Random(seed)),
+        field -> this.sink += field.shownSafeCount(), 10));
+    if (cells > this.maxGridCells) {
+      return results;
+    }
+    results.add(this.measure(size + "Cell grid buildBoard", () -> seed,
+        s -> this.sink += new MinesweeperGame(cols, rows, mines, new Random(s)).counts.length,
+        1));
+    results.add(this.measure(size + "Cell grid first reveal",
+        () -> new MinesweeperGame(cols, rows, mines, new Random(seed)),
+        game -> this.sink += game.reveal(startCol, startRow), 1));
+    results.add(this.measure(size + "Cell grid checkWin",
+        () -> new MinesweeperGame(cols, rows, mines, new Random(seed)), game -> {
+          game.checkWin();
+          this.sink += game.shownSafe;
+        }, 1000));
+    results.add(this.measure(size + "Cell grid countShownSafe",
+        () -> new MinesweeperGame(cols, rows, mines, new Random(seed)),
+        game -> this.sink += game.countShownSafe(), 10));
+    if (cells > this.maxSceneCells) {
+      return results;
+    }
+    results.add(this.measure(size + "makeScene first frame",
+        () -> new MinesweeperGame(cols, rows, mines, new Random(seed)),
+        game -> this.sink += game.makeScene().width, 1));
+    results.add(this.measure(size + "makeScene after first reveal", () -> {
+      MinesweeperGame game = new MinesweeperGame(cols, rows, mines, new Random(seed));
+      game.makeScene();
+      game.reveal(startCol, startRow);
+      return game;
+    }, game -> this.sink += game.makeScene().width, 1));
+    return results;
+  }
+
+  // arguments: [runs] [largest side], boards are square past expert, 10, 15 and 20% mines
+  public static void main(String[] args) {
+    int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    int largest = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+    MinesweeperBenchmark bench = new MinesweeperBenchmark(Math.max(runs / 2, 1), runs,
+        1000 * 1000, 200 * 200);
+    ArrayList<int[]> boards = new ArrayList<int[]>();
+    boards.add(new int[] { 9, 9, 10 });
+    boards.add(new int[] { 16, 16, 40 });
+    boards.add(new int[] { 30, 16, 99 });
+    for (int side = 100; side <= largest; side = side == 1000 ? 5000 : side * 10) {
+      for (int percent = 10; percent <= 20; percent += 5) {
+        boards.add(new int[] { side, side, side * side / 100 * percent });
+      }
+    }
+    System.out.println(String.format("%-44s %15s %15s %14s %4s", "benchmark", "median",
+        "max", "bytes/op", "gcs"));
+    for (int[] board : boards) {
+      for (BenchResult result : bench.board(board[0], board[1], board[2], 2510)) {
+        System.out.println(result);
+      }
+    }
+    System.out.println("(checksum " + bench.sink + ")");
+  }
+}
@@ -1,9 +1,11 @@
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 import javalib.impworld.World;
 import javalib.impworld.WorldScene;
+import javalib.worldimages.ComputedPixelImage;
 import javalib.worldimages.Posn;
 import javalib.worldimages.TextImage;
 import javalib.worldimages.WorldEnd;
@@ -16,10 +18,41 @@ class MinesweeperGame extends World {
   int mineCount;
   Random rand;
   ArrayList<ArrayList<Cell>> cells;
+  // how many mines touch each cell, indexed by col * rowCount + row like generateAllCells
+  byte[] counts;
   boolean theGameIsOver;
   boolean wonGame;
+  // how many cells without mines are shown, kept up to date by reveal
+  int shownSafe;
+  // when set, checkWin also counts every cell and fails if shownSafe disagrees
+  boolean verify;
+  // cells addMines has to leave empty, in increasing order
+  int[] safeCells = new int[0];
+  // when set on a deferred game, the first click gets a board that needs no guessing
+  NoGuessGenerator generator;
+  // the seed the generator accepted, recreate the mines with it through MineField
+  long boardSeed;
+  // mines picked before the board was built, which addMines uses instead of random ones
+  int[] plannedMines;
+  // where moves are recorded, if anywhere
+  MoveLog log;
+  // the connected regions of cells touching no mines, null when the counts have changed since
+  ZeroRegions regions;
+  // the board as drawn by the last makeScene, kept so only changed cells are drawn again,
+  // and the scene holding it, both null until the first frame
+  ComputedPixelImage board;
+  WorldScene scene;
+  // the cells changed since the last frame, the bitset keeps each one listed once
+  int[] dirty = new int[16];
+  int dirtyCount;
+  long[] dirtyBits;
 
   public static int CELL_SIZE = 20;
+  // the moves play understands, as they are written to a MoveLog
+  static int REVEAL = 0;
+  static int FLAG = 1;
+  static int CHORD = 2;
+  static int AUTO_FLAG = 3;
 
   // extra constructor for manually inputting game end and game win states
   MinesweeperGame(int colCount, int rowCount, int mineCount, Random rand, boolean theGameIsOver,
@@ -39,21 +72,131 @@ class MinesweeperGame extends World {
 
   }
 
+  // a game that leaves cells null until the first left click places the mines around it,
+  // so starting is free and the first click is always safe
+  MinesweeperGame(int colCount, int rowCount, int mineCount, Random rand, boolean deferMines) {
+    this.colCount = colCount;
+    this.rowCount = rowCount;
+    this.mineCount = mineCount;
+    this.rand = rand;
+    if (!deferMines) {
+      this.cells = this.buildBoard();
+    }
+  }
+
   MinesweeperGame(int colCount, int rowCount, int mineCount) {
     this(colCount, rowCount, mineCount, new Random());
   }
 
+  // a deferred game whose first click gets a board from the given generator, which needs no
+  // guessing unless the generator gives up
+  MinesweeperGame(int colCount, int rowCount, int mineCount, NoGuessGenerator generator) {
+    this(colCount, rowCount, mineCount, new Random(), true);
+    this.generator = generator;
+  }
+
+  // a game picking up from the given board, such as one loaded from a SaveFile
+  // the cells are only built because drawing and clicking need them
+  MinesweeperGame(MineField field, long boardSeed) {
+    this(field.colCount, field.rowCount, field.mineCount, new Random(boardSeed), true);
+    this.boardSeed = boardSeed;
+    this.plannedMines = field.mineIndices();
+    this.cells = this.buildBoard();
+    for (int x = 0; x < this.colCount; x++) {
+      for (int y = 0; y < this.rowCount; y++) {
+        Cell cell = this.cells.get(x).get(y);
+        cell.isShown = field.get(field.shown, this.index(x, y));
+        cell.isFlagged = field.get(field.flagged, this.index(x, y));
+      }
+    }
+    this.shownSafe = field.shownSafeCount();
+    this.theGameIsOver = field.hitMine() || field.isWon();
+    this.wonGame = !field.hitMine() && field.isWon();
+  }
+
   // this will build the game board
   public ArrayList<ArrayList<Cell>> buildBoard() {
     // makes all the cells, non-mines and mines
     ArrayList<Cell> allCells = generateAllCells();
     // puts the cells inside the grid
     ArrayList<ArrayList<Cell>> placedCells = placeCells(allCells);
-    // adds neighbors to each cell
-    addAllNeighbors(placedCells);
+    // counts the mines around each cell once, so drawing and clicking never recount, and
+    // cells don't need lists of their neighbors
+    this.countAllMines(placedCells);
+    // finds the regions a click on a zero cell shows, so reveal never has to search
+    this.regions = new ZeroRegions(this.colCount, this.rowCount, this.zeroBits(placedCells));
     return placedCells;
   }
 
+  // EFFECT: builds the board with no mines on or next to the given cell, or if there are too
+  // many mines for that, just none on the given cell, as MinePlacer.safeArea allows
+  // and with a generator, a board that can be cleared from there without guessing, unless the
+  // generator gives up, when the mines are placed at random as if there were no generator
+  public void placeMinesAround(int col, int row) {
+    this.safeCells = MinePlacer.safeArea(this.colCount, this.rowCount, col, row,
+        this.mineCount);
+    if (this.generator != null) {
+      try {
+        GeneratedBoard board = this.generator.generate(this.colCount, this.rowCount,
+            this.mineCount, this.rand.nextLong(), this.index(col, row));
+        this.boardSeed = board.seed;
+        this.plannedMines = board.field.mineIndices();
+      }
+      catch (IllegalStateException e) {
+        // too dense to avoid guessing, a board that needs a guess beats no board at all
+        this.plannedMines = null;
+      }
+    }
+    this.cells = this.buildBoard();
+  }
+
+  // the position of the given cell in counts
+  public int index(int col, int row) {
+    return col * this.rowCount + row;
+  }
+
+  // EFFECT: counts the mines touching every cell of the given grid into counts, from a padded
+  // copy of the mines walked with the shared neighbor table
+  public void countAllMines(ArrayList<ArrayList<Cell>> placedCells) {
+    NeighborTable table = NeighborTable.forSize(this.colCount, this.rowCount);
+    boolean[] mines = new boolean[table.size];
+    for (int x = 0; x < this.colCount; x++) {
+      for (int y = 0; y < this.rowCount; y++) {
+        mines[table.padded(x, y)] = placedCells.get(x).get(y).isMine;
+      }
+    }
+    this.counts = table.countAround(mines);
+    this.regions = null;
+  }
+
+  // EFFECT: adds delta to the count of every cell touching the given cell
+  // and drops the regions, which reveal finds again when it next needs them
+  public void adjustCounts(int col, int row, int delta) {
+    this.regions = null;
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, this.colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, this.rowCount - 1); y++) {
+        if (x != col || y != row) {
+          this.counts[this.index(x, y)] += delta;
+          this.markDirty(x, y);
+        }
+      }
+    }
+  }
+
+  // EFFECT: moves the mine at the first cell to the second, keeping the counts up to date
+  public void moveMine(int fromCol, int fromRow, int toCol, int toRow) {
+    Cell from = this.cells.get(fromCol).get(fromRow);
+    Cell to = this.cells.get(toCol).get(toRow);
+    if (from.isMine && !to.isMine) {
+      from.isMine = false;
+      this.adjustCounts(fromCol, fromRow, -1);
+      this.markDirty(fromCol, fromRow);
+      to.isMine = true;
+      this.adjustCounts(toCol, toRow, 1);
+      this.markDirty(toCol, toRow);
+    }
+  }
+
   // will generate all the cells in one list, adding mines where necessary
   public ArrayList<Cell> generateAllCells() {
     int totalCells = this.colCount * this.rowCount;
@@ -65,26 +208,14 @@ class MinesweeperGame extends World {
     return allCells;
   }
 
-  // EFFECT: adds the mines in randomly
+  // EFFECT: adds the mines in randomly, never on the safe cells
   public void addMines(ArrayList<Cell> cells) {
-    // creates a list of indices of every cell in the that we can place mines
-    ArrayList<Integer> safeIndices = new ArrayList<Integer>();
-    for (int i = 0; i < cells.size(); i++) {
-      safeIndices.add(i);
-    }
-    // creates a list of indices of where the mines should be placed
-    ArrayList<Integer> mineIndices = new ArrayList<Integer>();
-    for (int i = 0; i < this.mineCount; i++) {
-      // picks a random index up to the size of the indices list
-      int randomIndex = this.rand.nextInt(safeIndices.size());
-      // adds a random number from "indices" to mineIndices
-      mineIndices.add(safeIndices.get(randomIndex));
-      // removes the added number from the list of possible indices to place mines
-      safeIndices.remove(randomIndex);
-    }
-
-    // converts the cells at those indices to mines
-    for (Integer i : mineIndices) {
+    int[] mines = this.plannedMines;
+    if (mines == null) {
+      mines = new MinePlacer().chooseAvoiding(cells.size(), this.mineCount, this.rand,
+          this.safeCells);
+    }
+    for (int i : mines) {
       cells.get(i).isMine = true;
     }
   }
@@ -104,73 +235,313 @@ class MinesweeperGame extends World {
     return rows;
   }
 
-  // EFFECT: adds neighbors to the cells of the grid of cells passed in
-  public void addAllNeighbors(ArrayList<ArrayList<Cell>> placedCells) {
+  // is the given cell a non mine with no mines around it
+  public boolean isZero(int col, int row) {
+    return this.counts[this.index(col, row)] == 0 && !this.cells.get(col).get(row).isMine;
+  }
+
+  // a bitset of the cells of the given grid that are non mines with no mines around them
+  public long[] zeroBits(ArrayList<ArrayList<Cell>> placedCells) {
+    long[] zero = new long[(this.colCount * this.rowCount + 63) / 64];
     for (int x = 0; x < this.colCount; x++) {
       for (int y = 0; y < this.rowCount; y++) {
-        placedCells.get(x).get(y).addCellNeighbors(x, y, placedCells);
+        int i = this.index(x, y);
+        if (this.counts[i] == 0 && !placedCells.get(x).get(y).isMine) {
+          zero[i >> 6] |= 1L << i;
+        }
       }
     }
+    return zero;
   }
 
-  // big bang
-  public WorldScene makeScene() {
-    WorldScene scene = new WorldScene(this.colCount * CELL_SIZE, this.rowCount * CELL_SIZE);
-    for (int x = 0; x < this.colCount; x++) {
-      for (int y = 0; y < this.rowCount; y++) {
-        scene.placeImageXY(
-            this.cells.get(x).get(y).drawCell().movePinhole((-.5 * MinesweeperGame.CELL_SIZE),
-                (-.5 * MinesweeperGame.CELL_SIZE)),
-            (x * MinesweeperGame.CELL_SIZE), (y * MinesweeperGame.CELL_SIZE));
+  // EFFECT: shows the given cell, and if it touches no mines, the whole region of such cells
+  // along with the numbered cells bordering it, straight from the precomputed regions
+  // returns how many cells were newly shown
+  public int reveal(int col, int row) {
+    Cell start = this.cells.get(col).get(row);
+    if (!this.isZero(col, row)) {
+      if (start.isShown) {
+        return 0;
+      }
+      start.isShown = true;
+      this.markDirty(col, row);
+      if (!start.isMine) {
+        this.shownSafe++;
+      }
+      return 1;
+    }
+    if (this.regions == null) {
+      this.regions = new ZeroRegions(this.colCount, this.rowCount, this.zeroBits(this.cells));
+    }
+    int revealed = 0;
+    int region = this.regions.regionOf[this.index(col, row)];
+    for (int k = this.regions.wordStart[region]; k < this.regions.wordStart[region + 1]; k++) {
+      for (long bits = this.regions.masks[k]; bits != 0; bits &= bits - 1) {
+        int i = (this.regions.words[k] << 6) + Long.numberOfTrailingZeros(bits);
+        Cell cell = this.cells.get(i / this.rowCount).get(i % this.rowCount);
+        if (!cell.isShown) { // a cell in or around a region can't be a mine
+          cell.isShown = true;
+          this.markDirty(i / this.rowCount, i % this.rowCount);
+          revealed++;
+          this.shownSafe++;
+        }
       }
     }
-    return scene;
+    return revealed;
   }
 
-  // handles the clicks for the world, interacts with the cells that the moust is over
-  public void onMouseClicked(Posn mouse, String button) {
-    Cell clicked = locateCell(mouse);
-    if (button.equals("LeftButton")) { // left click
-      if (clicked.countMines() == 0 && !clicked.isMine) { // if its a fillable cell
-        clicked.floodFill();
+  // how many cells around the given cell are hidden, and how many of those are flagged,
+  // as { hidden, flagged }
+  public int[] hiddenAround(int col, int row) {
+    int[] found = new int[2];
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, this.colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, this.rowCount - 1); y++) {
+        Cell cell = this.cells.get(x).get(y);
+        if ((x != col || y != row) && !cell.isShown) {
+          found[0]++;
+          found[1] += cell.isFlagged ? 1 : 0;
+        }
       }
-      else if (clicked.isMine) { // if its a mine, it'll end the game
-        clicked.isShown = true;
-        this.makeScene();
+    }
+    return found;
+  }
+
+  // EFFECT: if the given cell is a shown number with as many flags around it as mines,
+  // shows every hidden unflagged cell around it as one batch
+  // returns how many cells were newly shown
+  public int chord(int col, int row) {
+    Cell center = this.cells.get(col).get(row);
+    int count = this.counts[this.index(col, row)];
+    if (!center.isShown || center.isMine || count == 0
+        || this.hiddenAround(col, row)[1] != count) {
+      return 0;
+    }
+    int[] targets = new int[8];
+    int size = 0;
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, this.colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, this.rowCount - 1); y++) {
+        Cell cell = this.cells.get(x).get(y);
+        if (!cell.isShown && !cell.isFlagged) {
+          targets[size++] = this.index(x, y);
+        }
+      }
+    }
+    return this.revealAll(targets, size);
+  }
+
+  // EFFECT: shows the first size of the given cells, each spreading through its region like
+  // reveal, and ends the game if any of them is a mine
+  // the win check is left to the caller, so a whole batch is checked once
+  // returns how many cells were newly shown
+  public int revealAll(int[] targets, int size) {
+    int revealed = 0;
+    for (int t = 0; t < size; t++) {
+      int col = targets[t] / this.rowCount;
+      int row = targets[t] % this.rowCount;
+      Cell cell = this.cells.get(col).get(row);
+      if (cell.isMine) { // a wrong flag, the game is lost
+        revealed += cell.isShown ? 0 : 1;
+        cell.isShown = true;
+        this.markDirty(col, row);
         this.theGameIsOver = true;
       }
-      else { // if its a cell you don't want to floodfill, but still show
-        clicked.isShown = true;
+      else {
+        revealed += this.reveal(col, row);
+      }
+    }
+    return revealed;
+  }
+
+  // EFFECT: flags every hidden cell around each shown number that has exactly as many hidden
+  // cells around it as mines, since they all have to be mines, in one pass over the board
+  // returns how many cells were newly flagged
+  public int autoFlag() {
+    int flagged = 0;
+    for (int col = 0; col < this.colCount; col++) {
+      for (int row = 0; row < this.rowCount; row++) {
+        Cell center = this.cells.get(col).get(row);
+        int count = this.counts[this.index(col, row)];
+        if (center.isShown && !center.isMine && count > 0
+            && this.hiddenAround(col, row)[0] == count) {
+          flagged += this.flagAround(col, row);
+        }
+      }
+    }
+    return flagged;
+  }
+
+  // EFFECT: flags every hidden cell around the given cell
+  // returns how many cells were newly flagged
+  public int flagAround(int col, int row) {
+    int flagged = 0;
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, this.colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, this.rowCount - 1); y++) {
+        Cell cell = this.cells.get(x).get(y);
+        if ((x != col || y != row) && !cell.isShown && !cell.isFlagged) {
+          cell.isFlagged = true;
+          this.markDirty(x, y);
+          flagged++;
+        }
+      }
+    }
+    return flagged;
+  }
+
+  // EFFECT: notes that the given cell has to be drawn again next frame
+  public void markDirty(int col, int row) {
+    if (this.scene == null) { // the first frame draws everything anyway
+      return;
+    }
+    int i = this.index(col, row);
+    if ((this.dirtyBits[i >> 6] & (1L << i)) == 0) {
+      this.dirtyBits[i >> 6] |= 1L << i;
+      if (this.dirtyCount == this.dirty.length) {
+        this.dirty = Arrays.copyOf(this.dirty, this.dirtyCount * 2);
+      }
+      this.dirty[this.dirtyCount++] = i;
+    }
+  }
+
+  // EFFECT: has the next frame draw every cell, for changes made to the cells directly
+  public void markAllDirty() {
+    this.scene = null;
+  }
+
+  // EFFECT: copies the sprite of the given cell into the back-buffer
+  public void paintCell(CellSprites sprites, int col, int row) {
+    // nothing has been placed before the first click, so every cell is covered
+    int state = this.cells == null ? CellSprites.COVERED
+        : CellSprites.state(this.cells.get(col).get(row), this.counts[this.index(col, row)]);
+    Color[] pixels = sprites.pixels(state);
+    int size = MinesweeperGame.CELL_SIZE;
+    // fills each run of one color down a column at once, most sprites are mostly runs
+    for (int x = 0; x < size; x++) {
+      int start = 0;
+      for (int y = 1; y <= size; y++) {
+        if (y == size || !pixels[x * size + y].equals(pixels[x * size + start])) {
+          this.board.setPixels(col * size + x, row * size + start, 1, y - start,
+              pixels[x * size + start]);
+          start = y;
+        }
+      }
+    }
+  }
+
+  // big bang, drawing into a back-buffer kept between frames, so after the first frame only
+  // the cells changed since the last one are drawn and the scene is never rebuilt
+  public WorldScene makeScene() {
+    CellSprites sprites = CellSprites.forSize(MinesweeperGame.CELL_SIZE);
+    if (this.scene == null) {
+      int width = this.colCount * MinesweeperGame.CELL_SIZE;
+      int height = this.rowCount * MinesweeperGame.CELL_SIZE;
+      this.board = new ComputedPixelImage(width, height);
+      this.scene = new WorldScene(width, height);
+      this.scene.placeImageXY(this.board, width / 2, height / 2);
+      this.dirtyBits = new long[(this.colCount * this.rowCount + 63) / 64];
+      for (int x = 0; x < this.colCount; x++) {
+        for (int y = 0; y < this.rowCount; y++) {
+          this.paintCell(sprites, x, y);
+        }
+      }
+    }
+    else {
+      for (int d = 0; d < this.dirtyCount; d++) {
+        int i = this.dirty[d];
+        this.dirtyBits[i >> 6] &= ~(1L << i);
+        this.paintCell(sprites, i / this.rowCount, i % this.rowCount);
       }
     }
+    this.dirtyCount = 0;
+    return this.scene;
+  }
 
+  // handles the clicks for the world, interacts with the cells that the moust is over
+  public void onMouseClicked(Posn mouse, String button) {
+    int col = mouse.x / MinesweeperGame.CELL_SIZE;
+    int row = mouse.y / MinesweeperGame.CELL_SIZE;
+    if (this.cells == null) {
+      if (!button.equals("LeftButton")) { // there's nothing to flag before the first reveal
+        return;
+      }
+      this.placeMinesAround(col, row);
+    }
+    if (button.equals("LeftButton")) { // left click
+      this.play(MinesweeperGame.REVEAL, col, row);
+    }
     if (button.equals("RightButton")) { // right click
-      if (clicked.isFlagged) {
-        clicked.isFlagged = false;
+      this.play(MinesweeperGame.FLAG, col, row);
+    }
+    if (button.equals("MiddleButton")) { // middle click on a satisfied number
+      this.play(MinesweeperGame.CHORD, col, row);
+    }
+  }
+
+  // flags every cell that has to be a mine when f is pressed
+  public void onKeyEvent(String key) {
+    if (key.equals("f") && this.cells != null && !this.theGameIsOver) {
+      this.play(MinesweeperGame.AUTO_FLAG, 0, 0);
+    }
+  }
+
+  // EFFECT: makes the given move on the board, which has to exist, writing it to the log
+  // first if there is one, then checks for a win, closing the log once the game is over
+  // moves made after that aren't part of the game, and aren't written
+  public void play(int move, int col, int row) {
+    if (this.log != null && !this.theGameIsOver) {
+      this.log.record(this, move, col, row);
+    }
+    Cell clicked = this.cells.get(col).get(row);
+    if (move == MinesweeperGame.REVEAL) {
+      if (clicked.isMine) { // if its a mine, it'll end the game
+        clicked.isShown = true;
+        this.markDirty(col, row);
+        this.theGameIsOver = true;
       }
-      else {
-        clicked.isFlagged = true;
+      else { // shows the cell, and the open area around it if it touches no mines
+        this.reveal(col, row);
       }
     }
-    this.makeScene();
+    else if (move == MinesweeperGame.FLAG) {
+      clicked.isFlagged = !clicked.isFlagged;
+      this.markDirty(col, row);
+    }
+    else if (move == MinesweeperGame.CHORD) {
+      this.chord(col, row);
+    }
+    else if (move == MinesweeperGame.AUTO_FLAG) {
+      this.autoFlag();
+    }
     this.checkWin();
+    if (this.log != null && this.theGameIsOver) {
+      this.log.close();
+    }
   }
 
-  // checks for a game win
+  // checks for a game win, in constant time since reveal keeps count of the shown cells
   public void checkWin() {
     int nonMineCount = (this.colCount * this.rowCount) - this.mineCount;
+    if (this.verify && this.countShownSafe() != this.shownSafe) {
+      throw new IllegalStateException(
+          "shownSafe is " + this.shownSafe + " but " + this.countShownSafe() + " are shown");
+    }
+    if (this.shownSafe >= nonMineCount && !this.theGameIsOver) { // a lost game stays lost
+      this.theGameIsOver = true;
+      this.wonGame = true;
+    }
+  }
+
+  // counts the shown cells without mines one by one
+  public int countShownSafe() {
     int revealedNonMines = 0;
     for (int x = 0; x < this.colCount; x++) {
       for (int y = 0; y < this.rowCount; y++) {
-        if (this.cells.get(x).get(y).isShown) {
+        Cell cell = this.cells.get(x).get(y);
+        if (cell.isShown && !cell.isMine) {
           revealedNonMines += 1;
         }
       }
     }
-    if (revealedNonMines >= nonMineCount) {
-      this.theGameIsOver = true;
-      this.wonGame = true;
-    }
+    return revealedNonMines;
   }
 
   // ends the world and checks win/loss
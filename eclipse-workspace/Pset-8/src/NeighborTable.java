@@ -0,0 +1,56 @@
+// the offsets from a cell to its 8 neighbors on a board padded with a ring of empty cells,
+// indexed (col + 1) * (rowCount + 2) + row + 1 to match the col * rowCount + row order of the
+// game, so every cell of the board has all 8 neighbors in range and walking them needs no
+// bounds checks, or any list of neighbors on the cell
+class NeighborTable {
+  // the table for the board size last asked for
+  static NeighborTable current;
+  int colCount;
+  int rowCount;
+  int stride; // how far apart neighboring columns are
+  int size; // how many cells the padded board has
+  int[] offsets;
+
+  // the table for a board of the given size
+  NeighborTable(int colCount, int rowCount) {
+    this.colCount = colCount;
+    this.rowCount = rowCount;
+    this.stride = rowCount + 2;
+    this.size = (colCount + 2) * this.stride;
+    this.offsets = new int[] { -this.stride - 1, -this.stride, -this.stride + 1, -1, 1,
+        this.stride - 1, this.stride, this.stride + 1 };
+  }
+
+  // the table for a board of the given size, shared until a board of another size asks
+  static NeighborTable forSize(int colCount, int rowCount) {
+    NeighborTable table = NeighborTable.current;
+    if (table == null || table.colCount != colCount || table.rowCount != rowCount) {
+      table = new NeighborTable(colCount, rowCount);
+      NeighborTable.current = table;
+    }
+    return table;
+  }
+
+  // the index of the given cell on the padded board
+  int padded(int col, int row) {
+    return (col + 1) * this.stride + row + 1;
+  }
+
+  // how many cells are set around each cell of the given padded board, in the unpadded order
+  byte[] countAround(boolean[] padded) {
+    byte[] counts = new byte[this.colCount * this.rowCount];
+    int i = 0;
+    for (int col = 0; col < this.colCount; col++) {
+      for (int p = this.padded(col, 0); p < this.padded(col, this.rowCount); p++) {
+        byte count = 0;
+        for (int offset : this.offsets) {
+          if (padded[p + offset]) {
+            count++;
+          }
+        }
+        counts[i++] = count;
+      }
+    }
+    return counts;
+  }
+}
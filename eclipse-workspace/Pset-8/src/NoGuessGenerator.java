@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// a board made by a NoGuessGenerator, recreate it with
+// new MineField(colCount, rowCount, mineCount, new Random(seed), start)
+class GeneratedBoard {
+  MineField field;
+  long seed; // the seed of the accepted candidate
+  int attempts; // how many candidates it took, counting the accepted one
+  long nanos; // how long generating took
+
+  GeneratedBoard(MineField field, long seed, int attempts, long nanos) {
+    this.field = field;
+    this.seed = seed;
+    this.attempts = attempts;
+    this.nanos = nanos;
+  }
+}
+
+// makes boards that can be solved from the first click without ever guessing, by trying
+// seeded candidates on several threads until the solver clears one by deduction alone
+class NoGuessGenerator {
+  int threads;
+  int maxAttempts = 100000; // candidates to try before giving up on a board
+  long maxNanos = Long.MAX_VALUE; // how long to look before giving up on a board
+  // how long a game waits on its first click, dense boards give up here and get random mines
+  static long INTERACTIVE_MILLIS = 200;
+  ExecutorService pool;
+
+  NoGuessGenerator(int threads) {
+    this.threads = threads;
+    this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "no-guess-generator");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  // a generator for a game, using every core but giving up after INTERACTIVE_MILLIS so a
+  // click never waits long
+  static NoGuessGenerator interactive() {
+    NoGuessGenerator generator = new NoGuessGenerator(
+        Runtime.getRuntime().availableProcessors());
+    generator.maxNanos = NoGuessGenerator.INTERACTIVE_MILLIS * 1000000L;
+    return generator;
+  }
+
+  // the seed of the given candidate, spread out so nearby seeds don't make similar boards
+  long candidateSeed(long seed, int attempt) {
+    return seed * 0x9E3779B97F4A7C15L + attempt;
+  }
+
+  // does the given candidate clear from the start cell without a guess
+  boolean passes(int colCount, int rowCount, int mineCount, long candidate, int start) {
+    MineSolver solver = new MineSolver(
+        new MineField(colCount, rowCount, mineCount, new Random(candidate), start), start);
+    solver.deduceOnly = true;
+    return solver.solve();
+  }
+
+  // a fresh board with the given start cell that needs no guessing, the same one every time
+  // for the same seed since the lowest passing candidate wins whichever thread finds it,
+  // unless maxNanos runs out first
+  GeneratedBoard generate(int colCount, int rowCount, int mineCount, long seed, int start) {
+    long begin = System.nanoTime();
+    AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+    ArrayList<Future<?>> work = new ArrayList<Future<?>>();
+    for (int t = 0; t < this.threads; t++) {
+      int first = t;
+      work.add(this.pool.submit(() -> {
+        for (int a = first; a < this.maxAttempts && a < best.get()
+            && System.nanoTime() - begin < this.maxNanos; a += this.threads) {
+          if (this.passes(colCount, rowCount, mineCount, this.candidateSeed(seed, a), start)) {
+            best.accumulateAndGet(a, Math::min);
+          }
+        }
+      }));
+    }
+    try {
+      for (Future<?> f : work) {
+        f.get();
+      }
+    }
+    catch (InterruptedException | ExecutionException e) {
+      throw new IllegalStateException("board generation failed", e);
+    }
+    if (best.get() == Integer.MAX_VALUE && System.nanoTime() - begin >= this.maxNanos) {
+      throw new IllegalStateException(
+          "no board without guessing in " + this.maxNanos / 1000000 + " ms");
+    }
+    if (best.get() == Integer.MAX_VALUE) {
+      throw new IllegalStateException(
+          "no board without guessing in " + this.maxAttempts + " attempts");
+    }
+    long accepted = this.candidateSeed(seed, best.get());
+    return new GeneratedBoard(
+        new MineField(colCount, rowCount, mineCount, new Random(accepted), start), accepted,
+        best.get() + 1, System.nanoTime() - begin);
+  }
+
+  // EFFECT: stops the worker threads
+  void shutdown() {
+    this.pool.shutdown();
+  }
+
+  // generates boards from seeds 1 to boards, opened in the middle, and summarizes the times
+  String timing(int colCount, int rowCount, int mineCount, int boards) {
+    long[] nanos = new long[boards];
+    long attempts = 0;
+    int middle = (colCount / 2) * rowCount + rowCount / 2;
+    for (int b = 0; b < boards; b++) {
+      GeneratedBoard board = this.generate(colCount, rowCount, mineCount, b + 1, middle);
+      nanos[b] = board.nanos;
+      attempts += board.attempts;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%dx%d, %d mines: %d boards, %.1f attempts each, p50 %.2f ms, p90 %.2f ms, "
+            + "p99 %.2f ms, max %.2f ms",
+        colCount, rowCount, mineCount, boards, (double) attempts / boards,
+        nanos[(boards - 1) / 2] / 1e6, nanos[(int) Math.ceil(boards * 0.9) - 1] / 1e6,
+        nanos[(int) Math.ceil(boards * 0.99) - 1] / 1e6, nanos[boards - 1] / 1e6);
+  }
+
+  // arguments: [boards per size] [threads]
+  public static void main(String[] args) {
+    int boards = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    NoGuessGenerator generator = new NoGuessGenerator(threads);
+    int[][] sizes = new int[][] { { 9, 9, 10 }, { 16, 16, 40 }, { 30, 16, 99 },
+        { 50, 50, 300 }, { 50, 50, 400 } };
+    for (int[] size : sizes) {
+      System.out.println(generator.timing(size[0], size[1], size[2], boards));
+    }
+    generator.shutdown();
+  }
+}
@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// reads and writes Minesweeper boards as a 32 byte header followed by the mine, shown and
+// flagged bitplanes of a MineField, each as its longs in order, all big endian
+// header: magic, version, colCount, rowCount, mineCount, board seed, longs per plane
+class SaveFile {
+  static int MAGIC = 0x4D535750; // "MSWP"
+  static int VERSION = 1;
+  static int HEADER = 32;
+
+  // the given board with the given seed, ready to be written
+  ByteBuffer encode(MineField field, long seed) {
+    int words = field.mines.length;
+    ByteBuffer buffer = ByteBuffer.allocate(SaveFile.HEADER + 24 * words);
+    buffer.putInt(SaveFile.MAGIC).putInt(SaveFile.VERSION).putInt(field.colCount)
+        .putInt(field.rowCount).putInt(field.mineCount).putLong(seed).putInt(words);
+    // the planes go in through a long view of the buffer, a whole plane at a time
+    buffer.asLongBuffer().put(field.mines).put(field.shown).put(field.flagged);
+    buffer.position(0);
+    return buffer;
+  }
+
+  // EFFECT: writes all of the given buffer to the channel
+  void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  // EFFECT: reads from the channel until the given buffer is full
+  void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new IOException("the file ends " + buffer.remaining() + " bytes early");
+      }
+    }
+    buffer.flip();
+  }
+
+  // EFFECT: writes the given game to the given file, replacing it
+  void save(MinesweeperGame game, Path path) throws IOException {
+    this.save(new MineField(game), game.boardSeed, path);
+  }
+
+  // EFFECT: writes the given board to the given file, replacing it
+  void save(MineField field, long seed, Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      this.writeFully(channel, this.encode(field, seed));
+    }
+  }
+
+  // the board in the given file, which has to hold nothing else
+  MineField loadField(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MineField field = this.read(channel);
+      this.checkEnd(channel);
+      return field;
+    }
+  }
+
+  // the game in the given file, which has to hold nothing else
+  MinesweeperGame loadGame(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = this.readHeader(channel);
+      MineField field = this.readPlanes(channel, header);
+      this.checkEnd(channel);
+      return new MinesweeperGame(field, header.getLong(20));
+    }
+  }
+
+  // EFFECT: throws if the channel has anything left after its position
+  void checkEnd(FileChannel channel) throws IOException {
+    long left = channel.size() - channel.position();
+    if (left != 0) {
+      throw new IOException(left + " bytes after the board");
+    }
+  }
+
+  // the header at the channel's position, checked
+  ByteBuffer readHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(SaveFile.HEADER);
+    this.readFully(channel, header);
+    if (header.getInt(0) != SaveFile.MAGIC) {
+      throw new IOException("not a Minesweeper save");
+    }
+    if (header.getInt(4) != SaveFile.VERSION) {
+      throw new IOException("unknown save version " + header.getInt(4));
+    }
+    return header;
+  }
+
+  // the board described by the given header, its planes read in bulk from the channel
+  // the header is checked against itself and the length of the file before anything the
+  // size of the board is made, so a damaged header can't ask for more than the file holds
+  MineField readPlanes(FileChannel channel, ByteBuffer header) throws IOException {
+    int colCount = header.getInt(8);
+    int rowCount = header.getInt(12);
+    int mineCount = header.getInt(16);
+    int words = header.getInt(28);
+    long cells = (long) colCount * rowCount;
+    if (colCount <= 0 || rowCount <= 0 || cells > Integer.MAX_VALUE - 63) {
+      throw new IOException("no board is " + colCount + " by " + rowCount);
+    }
+    if (mineCount < 0 || mineCount > cells) {
+      throw new IOException(mineCount + " mines don't fit the board");
+    }
+    if (words != (cells + 63) / 64) {
+      throw new IOException("planes of " + words + " longs don't fit the board");
+    }
+    long left = channel.size() - channel.position();
+    if (24L * words > left) {
+      throw new IOException("the file ends " + (24L * words - left) + " bytes early");
+    }
+    MineField field = new MineField(colCount, rowCount);
+    ByteBuffer planes = ByteBuffer.allocate(24 * words);
+    this.readFully(channel, planes);
+    planes.asLongBuffer().get(field.mines).get(field.shown).get(field.flagged);
+    // the planes have to agree with the header before anything is counted from them
+    this.checkPlane(field.mines, cells, "mine");
+    this.checkPlane(field.shown, cells, "shown");
+    this.checkPlane(field.flagged, cells, "flagged");
+    int mines = 0;
+    for (long word : field.mines) {
+      mines += Long.bitCount(word);
+    }
+    if (mines != mineCount) {
+      throw new IOException(mines + " mines where the header says " + mineCount);
+    }
+    field.mineCount = mineCount;
+    field.countAllMines();
+    field.shownSafe = field.shownSafeCount();
+    return field;
+  }
+
+  // EFFECT: throws if the given plane has bits set past the last of the given cells
+  void checkPlane(long[] plane, long cells, String name) throws IOException {
+    int used = (int) (cells % 64);
+    if (used != 0 && (plane[plane.length - 1] >>> used) != 0) {
+      throw new IOException(name + " bits past the board");
+    }
+  }
+
+  // the board at the channel's position, header and all
+  MineField read(FileChannel channel) throws IOException {
+    return this.readPlanes(channel, this.readHeader(channel));
+  }
+}
+
+// a recording of a game, a SaveFile of the board before the first recorded move followed by
+// one 9 byte entry per move, the move then its col and row, only ever appended to
+class MoveLog {
+  Path path;
+  FileChannel channel;
+  ByteBuffer entry = ByteBuffer.allocate(9);
+  SaveFile save = new SaveFile();
+
+  // a log that starts writing to the given file, replacing it, at the first recorded move
+  MoveLog(Path path) {
+    this.path = path;
+  }
+
+  // EFFECT: adds the given move to the end of the log, first writing the board it was made
+  // on if this is the first
+  void record(MinesweeperGame game, int move, int col, int row) {
+    try {
+      if (this.channel == null) {
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.save.writeFully(this.channel, this.save.encode(new MineField(game), game.boardSeed));
+      }
+      this.entry.clear();
+      this.entry.put((byte) move).putInt(col).putInt(row).flip();
+      this.save.writeFully(this.channel, this.entry);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // EFFECT: closes the file, any later move starts a new log
+  void close() {
+    try {
+      if (this.channel != null) {
+        this.channel.close();
+        this.channel = null;
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // the game the log in the given file ends with, replayed without drawing anything
+  // a log cut off partway through a move, or holding a move play doesn't know or one off the
+  // board, is turned away
+  static MinesweeperGame replay(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      SaveFile save = new SaveFile();
+      ByteBuffer header = save.readHeader(channel);
+      MinesweeperGame game = new MinesweeperGame(save.readPlanes(channel, header),
+          header.getLong(20));
+      long left = channel.size() - channel.position();
+      if (left % 9 != 0) {
+        throw new IOException("the log ends " + left % 9 + " bytes into a move");
+      }
+      if (left > Integer.MAX_VALUE) {
+        throw new IOException("a log of " + left / 9 + " moves is too long to replay");
+      }
+      ByteBuffer moves = ByteBuffer.allocate((int) left);
+      save.readFully(channel, moves);
+      while (moves.hasRemaining()) {
+        int move = moves.get();
+        int col = moves.getInt();
+        int row = moves.getInt();
+        if (move < MinesweeperGame.REVEAL || move > MinesweeperGame.AUTO_FLAG) {
+          throw new IOException("unknown move " + move);
+        }
+        if (col < 0 || col >= game.colCount || row < 0 || row >= game.rowCount) {
+          throw new IOException("move at " + col + ", " + row + " is off the board");
+        }
+        game.play(move, col, row);
+      }
+      return game;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+import java.util.Arrays;
+
+// the connected areas of cells with no mines around them, found once with a union-find so a
+// click on any of them can show the whole area and its numbered border without searching
+// each area is stored as the words of a bitset over the board that its cells and border
+// touch, with the bits of that word that belong to it
+class ZeroRegions {
+  int colCount;
+  int rowCount;
+  // the area of each cell, -1 for cells that touch a mine or are one
+  int[] regionOf;
+  int regionCount;
+  // the words of area r are words[wordStart[r]] to words[wordStart[r + 1] - 1]
+  int[] wordStart;
+  int[] words;
+  long[] masks;
+
+  // finds the areas of the given bitset of cells with no mines around them,
+  // on a board indexed col * rowCount + row
+  ZeroRegions(int colCount, int rowCount, long[] zero) {
+    this.colCount = colCount;
+    this.rowCount = rowCount;
+    int cells = colCount * rowCount;
+    int[] parent = new int[cells];
+    for (int c = 0; c < cells; c++) {
+      parent[c] = c;
+    }
+    // joins each zero cell to the zero cells after it, the rest come from the other side
+    for (int x = 0; x < colCount; x++) {
+      for (int y = 0; y < rowCount; y++) {
+        int c = x * rowCount + y;
+        if (this.isSet(zero, c)) {
+          if (y + 1 < rowCount && this.isSet(zero, c + 1)) {
+            this.union(parent, c, c + 1);
+          }
+          for (int dy = -1; x + 1 < colCount && dy <= 1; dy++) {
+            if (y + dy >= 0 && y + dy < rowCount && this.isSet(zero, c + rowCount + dy)) {
+              this.union(parent, c, c + rowCount + dy);
+            }
+          }
+        }
+      }
+    }
+    this.regionOf = new int[cells];
+    for (int c = 0; c < cells; c++) {
+      this.regionOf[c] = -1;
+      if (this.isSet(zero, c) && this.find(parent, c) == c) {
+        this.regionOf[c] = this.regionCount++;
+      }
+    }
+    for (int c = 0; c < cells; c++) {
+      if (this.isSet(zero, c)) {
+        this.regionOf[c] = this.regionOf[this.find(parent, c)];
+      }
+    }
+    this.buildMasks();
+  }
+
+  // is bit i of the given bitset set
+  boolean isSet(long[] bits, int i) {
+    return (bits[i >> 6] & (1L << i)) != 0;
+  }
+
+  // the root of the given cell, halving paths on the way
+  int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  // EFFECT: joins the sets of the two cells
+  void union(int[] parent, int a, int b) {
+    parent[this.find(parent, a)] = this.find(parent, b);
+  }
+
+  // EFFECT: writes the different areas the given cell belongs to, as one of their cells or
+  // part of their border, into out, which needs room for 9
+  // returns how many there are
+  int areasAround(int cell, int[] out) {
+    int col = cell / this.rowCount;
+    int row = cell % this.rowCount;
+    int found = 0;
+    for (int x = Math.max(col - 1, 0); x <= Math.min(col + 1, this.colCount - 1); x++) {
+      for (int y = Math.max(row - 1, 0); y <= Math.min(row + 1, this.rowCount - 1); y++) {
+        int region = this.regionOf[x * this.rowCount + y];
+        boolean seen = region < 0;
+        for (int f = 0; f < found && !seen; f++) {
+          seen = out[f] == region;
+        }
+        if (!seen) {
+          out[found++] = region;
+        }
+      }
+    }
+    return found;
+  }
+
+  // EFFECT: fills in the words and masks of every area, counting them first
+  // cells are visited in order, so the words of each area come out in order too
+  void buildMasks() {
+    int cells = this.colCount * this.rowCount;
+    int[] around = new int[9];
+    int[] lastWord = new int[this.regionCount];
+    this.wordStart = new int[this.regionCount + 1];
+    Arrays.fill(lastWord, -1);
+    for (int c = 0; c < cells; c++) {
+      int found = this.areasAround(c, around);
+      for (int f = 0; f < found; f++) {
+        if (lastWord[around[f]] != c >> 6) {
+          lastWord[around[f]] = c >> 6;
+          this.wordStart[around[f] + 1]++;
+        }
+      }
+    }
+    for (int r = 0; r < this.regionCount; r++) {
+      this.wordStart[r + 1] += this.wordStart[r];
+    }
+    this.words = new int[this.wordStart[this.regionCount]];
+    this.masks = new long[this.words.length];
+    int[] next = new int[this.regionCount];
+    Arrays.fill(lastWord, -1);
+    for (int c = 0; c < cells; c++) {
+      int found = this.areasAround(c, around);
+      for (int f = 0; f < found; f++) {
+        int r = around[f];
+        if (lastWord[r] != c >> 6) {
+          lastWord[r] = c >> 6;
+          this.words[this.wordStart[r] + next[r]++] = c >> 6;
+        }
+        this.masks[this.wordStart[r] + next[r] - 1] |= 1L << c;
+      }
+    }
+  }
+
+  // EFFECT: sets the bit of every cell of the given area and its border in shown,
+  // a whole word at a time
+  // returns how many bits were newly set
+  int showRegion(int region, long[] shown) {
+    int revealed = 0;
+    for (int k = this.wordStart[region]; k < this.wordStart[region + 1]; k++) {
+      revealed += Long.bitCount(this.masks[k] & ~shown[this.words[k]]);
+      shown[this.words[k]] |= this.masks[k];
+    }
+    return revealed;
+  }
+
+  // roughly how many bytes of arrays this holds
+  long bytesUsed() {
+    return 4L * (this.regionOf.length + this.wordStart.length + this.words.length)
+        + 8L * this.masks.length;
+  }
+}
@@ -0,0 +1,140 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// flood fill, spanning tree and diameter over any BoardTopology,
+// a board's wiring is an int mask per cell where bit p means a wire leaves through side p
+class BoardAlgorithms {
+
+  // is there a wire on both ends of the given adjacency slot of the given cell
+  boolean linked(BoardTopology topo, int[] masks, int cell, int slot) {
+    return ((masks[cell] >> topo.ports[slot]) & 1) != 0
+        && ((masks[topo.targets[slot]] >> topo.backPorts[slot]) & 1) != 0;
+  }
+
+  // EFFECT: fills dist with the number of wired steps from source to every cell, -1 if unreachable
+  // returns the last cell reached, which is one of the farthest from source
+  int distances(BoardTopology topo, int[] masks, int source, int[] dist) {
+    return this.distances(topo, masks, source, dist, new int[topo.cellCount()]);
+  }
+
+  // same as distances above, but uses the given queue as scratch space instead of allocating one
+  int distances(BoardTopology topo, int[] masks, int source, int[] dist, int[] queue) {
+    Arrays.fill(dist, -1);
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = source;
+    dist[source] = 0;
+    while (head < tail) {
+      int next = queue[head++];
+      for (int s = topo.offsets[next]; s < topo.offsets[next + 1]; s++) {
+        int target = topo.targets[s];
+        if (dist[target] < 0 && this.linked(topo, masks, next, s)) {
+          dist[target] = dist[next] + 1;
+          queue[tail++] = target;
+        }
+      }
+    }
+    return queue[tail - 1];
+  }
+
+  // the number of wired steps on the longest path through the network containing source
+  int diameter(BoardTopology topo, int[] masks, int source) {
+    int[] dist = new int[topo.cellCount()];
+    int farthest = this.distances(topo, masks, source, dist);
+    int farthestSecond = this.distances(topo, masks, farthest, dist);
+    return dist[farthestSecond];
+  }
+
+  // EFFECT: sets power to the radius minus the distance from source for every cell in reach,
+  // and to 0 for every other cell
+  // returns the number of cells left with power above 0
+  int spreadPower(BoardTopology topo, int[] masks, int source, int radius, int[] power) {
+    return this.spreadPower(topo, masks, source, radius, power, new int[topo.cellCount()]);
+  }
+
+  // same as spreadPower above, but uses the given queue as scratch space
+  int spreadPower(BoardTopology topo, int[] masks, int source, int radius, int[] power,
+      int[] queue) {
+    this.distances(topo, masks, source, power, queue);
+    int powered = 0;
+    for (int i = 0; i < power.length; i++) {
+      if (power[i] < 0 || power[i] >= radius) {
+        power[i] = 0;
+      }
+      else {
+        power[i] = radius - power[i];
+        powered++;
+      }
+    }
+    return powered;
+  }
+
+  // builds the wiring of a random spanning tree of the topology with Kruskal's algorithm,
+  // every link gets a weight from rand in slot order, ties keep slot order
+  int[] spanningTree(BoardTopology topo, Random rand) {
+    // each link is only counted from the slot whose source is the lower index
+    int linkCount = 0;
+    for (int i = 0; i < topo.cellCount(); i++) {
+      for (int s = topo.offsets[i]; s < topo.offsets[i + 1]; s++) {
+        if (i < topo.targets[s]) {
+          linkCount++;
+        }
+      }
+    }
+    // packs weight and slot together so one primitive sort orders the links
+    long[] links = new long[linkCount];
+    int[] sources = new int[topo.targets.length];
+    int l = 0;
+    for (int i = 0; i < topo.cellCount(); i++) {
+      for (int s = topo.offsets[i]; s < topo.offsets[i + 1]; s++) {
+        sources[s] = i;
+        if (i < topo.targets[s]) {
+          links[l++] = ((long) rand.nextInt(200) << 32) | s;
+        }
+      }
+    }
+    Arrays.sort(links);
+    int[] parent = this.initParents(topo.cellCount());
+    int[] masks = new int[topo.cellCount()];
+    for (long link : links) {
+      int s = (int) link;
+      int from = sources[s];
+      int to = topo.targets[s];
+      if (this.union(parent, from, to)) {
+        masks[from] |= 1 << topo.ports[s];
+        masks[to] |= 1 << topo.backPorts[s];
+      }
+    }
+    return masks;
+  }
+
+  // makes a union-find parent array where every cell is its own representative
+  int[] initParents(int cellCount) {
+    int[] parent = new int[cellCount];
+    for (int i = 0; i < cellCount; i++) {
+      parent[i] = i;
+    }
+    return parent;
+  }
+
+  // finds the representative of the given cell, halving the path along the way
+  int find(int[] parent, int cell) {
+    while (parent[cell] != cell) {
+      parent[cell] = parent[parent[cell]];
+      cell = parent[cell];
+    }
+    return cell;
+  }
+
+  // EFFECT: joins the sets of the two cells
+  // returns false if they were already in the same set
+  boolean union(int[] parent, int from, int to) {
+    int fromRep = this.find(parent, from);
+    int toRep = this.find(parent, to);
+    if (fromRep == toRep) {
+      return false;
+    }
+    parent[fromRep] = toRep;
+    return true;
+  }
+}
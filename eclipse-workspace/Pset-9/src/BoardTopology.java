@@ -0,0 +1,170 @@
+// the shape of a game board, stored as compressed sparse row adjacency arrays
+// cells are numbered column-major (index = col * height + row),
+// the same order as LightEmAll.grabAllNodes
+abstract class BoardTopology {
+  int width; // column count
+  int height; // row count
+  int portCount; // number of sides a piece can connect through
+  // the adjacency slots of cell i run from offsets[i] up to (not including) offsets[i + 1]
+  int[] offsets;
+  // the neighboring cell of every adjacency slot
+  int[] targets;
+  // the side of the source cell that every adjacency slot leaves through
+  byte[] ports;
+  // the side of the neighboring cell that every adjacency slot enters through
+  byte[] backPorts;
+
+  BoardTopology(int width, int height, int portCount) {
+    this.width = width;
+    this.height = height;
+    this.portCount = portCount;
+    this.build();
+  }
+
+  // the cell next to the given one through the given side, or -1 if there is none
+  abstract int neighbor(int col, int row, int port);
+
+  // the side of a neighbor that faces back through the given side
+  int oppositePort(int port) {
+    return (port + this.portCount / 2) % this.portCount;
+  }
+
+  // EFFECT: fills in the adjacency arrays, counting the slots first so nothing is resized
+  void build() {
+    int cellCount = this.cellCount();
+    this.offsets = new int[cellCount + 1];
+    for (int i = 0; i < cellCount; i++) {
+      int degree = 0;
+      for (int p = 0; p < this.portCount; p++) {
+        if (this.neighbor(this.colOf(i), this.rowOf(i), p) >= 0) {
+          degree++;
+        }
+      }
+      this.offsets[i + 1] = this.offsets[i] + degree;
+    }
+    this.targets = new int[this.offsets[cellCount]];
+    this.ports = new byte[this.offsets[cellCount]];
+    this.backPorts = new byte[this.offsets[cellCount]];
+    int slot = 0;
+    for (int i = 0; i < cellCount; i++) {
+      for (int p = 0; p < this.portCount; p++) {
+        int target = this.neighbor(this.colOf(i), this.rowOf(i), p);
+        if (target >= 0) {
+          this.targets[slot] = target;
+          this.ports[slot] = (byte) p;
+          this.backPorts[slot] = (byte) this.oppositePort(p);
+          slot++;
+        }
+      }
+    }
+  }
+
+  // the number of cells on this board
+  int cellCount() {
+    return this.width * this.height;
+  }
+
+  // the index of the cell at the given column and row
+  int index(int col, int row) {
+    return col * this.height + row;
+  }
+
+  // the column of the given cell index
+  int colOf(int index) {
+    return index / this.height;
+  }
+
+  // the row of the given cell index
+  int rowOf(int index) {
+    return index % this.height;
+  }
+
+  // the adjacency slot leaving the given cell through the given side, or -1 if there is none
+  int slotOf(int cell, int port) {
+    for (int s = this.offsets[cell]; s < this.offsets[cell + 1]; s++) {
+      if (this.ports[s] == port) {
+        return s;
+      }
+    }
+    return -1;
+  }
+
+  // rotates a connection mask by one side, clockwise if dir > 0 and counter clockwise if dir < 0
+  int rotate(int mask, int dir) {
+    int full = (1 << this.portCount) - 1;
+    if (dir > 0) {
+      return ((mask << 1) | (mask >>> (this.portCount - 1))) & full;
+    }
+    else if (dir < 0) {
+      return ((mask >>> 1) | (mask << (this.portCount - 1))) & full;
+    }
+    else {
+      return mask;
+    }
+  }
+}
+
+// a rectangular board, sides are numbered clockwise from the top
+class SquareTopology extends BoardTopology {
+  // the names GamePiece uses for each side
+  static String[] SIDES = new String[] { "top", "right", "bottom", "left" };
+  static int[] COL_STEPS = new int[] { 0, 1, 0, -1 };
+  static int[] ROW_STEPS = new int[] { -1, 0, 1, 0 };
+
+  SquareTopology(int width, int height) {
+    super(width, height, 4);
+  }
+
+  // the cell next to the given one through the given side, or -1 past the edge of the board
+  int neighbor(int col, int row, int port) {
+    int c = col + COL_STEPS[port];
+    int r = row + ROW_STEPS[port];
+    if (c < 0 || c >= this.width || r < 0 || r >= this.height) {
+      return -1;
+    }
+    return this.index(c, r);
+  }
+}
+
+// a rectangular board whose edges wrap around to the opposite side
+class TorusTopology extends BoardTopology {
+
+  TorusTopology(int width, int height) {
+    super(width, height, 4);
+  }
+
+  // the cell next to the given one through the given side, wrapping past the edges
+  int neighbor(int col, int row, int port) {
+    int c = Math.floorMod(col + SquareTopology.COL_STEPS[port], this.width);
+    int r = Math.floorMod(row + SquareTopology.ROW_STEPS[port], this.height);
+    return this.index(c, r);
+  }
+}
+
+// a board of pointy topped hexagons where every odd row is shifted half a cell right,
+// sides are numbered clockwise from the top right
+class HexTopology extends BoardTopology {
+  static int[] EVEN_COL_STEPS = new int[] { 0, 1, 0, -1, -1, -1 };
+  static int[] ODD_COL_STEPS = new int[] { 1, 1, 1, 0, -1, 0 };
+  static int[] ROW_STEPS = new int[] { -1, 0, 1, 1, 0, -1 };
+
+  HexTopology(int width, int height) {
+    super(width, height, 6);
+  }
+
+  // the cell next to the given one through the given side, or -1 past the edge of the board
+  int neighbor(int col, int row, int port) {
+    int c;
+    if (row % 2 == 0) {
+      c = col + EVEN_COL_STEPS[port];
+    }
+    else {
+      c = col + ODD_COL_STEPS[port];
+    }
+    int r = row + ROW_STEPS[port];
+    if (c < 0 || c >= this.width || r < 0 || r >= this.height) {
+      return -1;
+    }
+    return this.index(c, r);
+  }
+}
@@ -1,7 +1,6 @@
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Random;
 
 import javalib.impworld.WorldScene;
@@ -66,21 +65,6 @@ class ExamplesLightEmAll {
   ArrayList<GamePiece> grid3Nodes;
   LightEmAll game3;
 
-  HashMap<String, GamePiece> gamePiece1Neighbors;
-  HashMap<String, GamePiece> gamePiece2Neighbors;
-  HashMap<String, GamePiece> gamePiece3Neighbors;
-  HashMap<String, GamePiece> gamePiece4Neighbors;
-  HashMap<String, GamePiece> gamePiece5Neighbors;
-  HashMap<String, GamePiece> gamePiece6Neighbors;
-  HashMap<String, GamePiece> gamePiece7Neighbors;
-  HashMap<String, GamePiece> gamePiece8Neighbors;
-  HashMap<String, GamePiece> gamePiece9Neighbors;
-
-  HashMap<String, GamePiece> twoGamePiece1Neighbors;
-  HashMap<String, GamePiece> twoGamePiece2Neighbors;
-  HashMap<String, GamePiece> twoGamePiece3Neighbors;
-  HashMap<String, GamePiece> twoGamePiece4Neighbors;
-
   LightEmAll twoByTwoBlank;
   LightEmAll twoByTwo;
   LightEmAll threeByThreeU;
@@ -92,79 +76,20 @@ class ExamplesLightEmAll {
   public void initData() {
     this.mt = new ArrayList<GamePiece>();
 
-    this.gamePiece1Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece2Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece3Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece4Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece5Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece6Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece7Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece8Neighbors = new HashMap<String, GamePiece>();
-    this.gamePiece9Neighbors = new HashMap<String, GamePiece>();
-
-    this.twoGamePiece1Neighbors = new HashMap<String, GamePiece>();
-    this.twoGamePiece2Neighbors = new HashMap<String, GamePiece>();
-    this.twoGamePiece3Neighbors = new HashMap<String, GamePiece>();
-    this.twoGamePiece4Neighbors = new HashMap<String, GamePiece>();
-
-    this.twoGamePiece1 = new GamePiece(0, 0, this.twoGamePiece1Neighbors, false, false, false, true,
-        true, 3);
-    this.twoGamePiece2 = new GamePiece(1, 0, this.twoGamePiece2Neighbors, false, true, true, false,
-        false, 2);
-    this.twoGamePiece3 = new GamePiece(1, 1, this.twoGamePiece3Neighbors, true, false, true, false,
-        false, 1);
-    this.twoGamePiece4 = new GamePiece(0, 1, this.twoGamePiece4Neighbors, false, false, false, true,
-        false, 0);
-
-    this.twoGamePiece1Neighbors.put("bottom", this.twoGamePiece2);
-    this.twoGamePiece1Neighbors.put("right", this.twoGamePiece4);
-    this.twoGamePiece2Neighbors.put("top", this.twoGamePiece1);
-    this.twoGamePiece2Neighbors.put("right", this.twoGamePiece3);
-    this.twoGamePiece3Neighbors.put("left", this.twoGamePiece2);
-    this.twoGamePiece3Neighbors.put("top", this.twoGamePiece4);
-    this.twoGamePiece4Neighbors.put("bottom", this.twoGamePiece3);
-    this.twoGamePiece4Neighbors.put("left", this.twoGamePiece1);
-
-    this.gamePiece1 = new GamePiece(0, 0, this.gamePiece1Neighbors, false, false, false, true, true,
-        0);
-    this.gamePiece2 = new GamePiece(1, 0, this.gamePiece2Neighbors, false, false, false, true,
-        false, 0);
-    this.gamePiece3 = new GamePiece(2, 0, this.gamePiece3Neighbors, false, false, false, true,
-        false, 0);
-    this.gamePiece4 = new GamePiece(0, 1, this.gamePiece4Neighbors, false, true, true, true, false,
-        0);
-    this.gamePiece5 = new GamePiece(1, 1, this.gamePiece5Neighbors, true, true, true, true, false,
-        0);
-    this.gamePiece6 = new GamePiece(2, 1, this.gamePiece6Neighbors, true, false, true, true, false,
-        0);
-    this.gamePiece7 = new GamePiece(0, 2, this.gamePiece7Neighbors, false, false, false, true,
-        false, 0);
-    this.gamePiece8 = new GamePiece(1, 2, this.gamePiece8Neighbors, false, false, true, false,
-        false, 0);
-    this.gamePiece9 = new GamePiece(2, 2, this.gamePiece9Neighbors, false, false, false, true,
-        false, 0);
-
-    this.gamePiece1Neighbors.put("right", gamePiece2);
-    this.gamePiece1Neighbors.put("bottom", gamePiece4);
-    this.gamePiece2Neighbors.put("left", gamePiece1);
-    this.gamePiece2Neighbors.put("right", gamePiece3);
-    this.gamePiece2Neighbors.put("bottom", gamePiece5);
-    this.gamePiece3Neighbors.put("bottom", gamePiece6);
-    this.gamePiece3Neighbors.put("left", gamePiece2);
-    this.gamePiece4Neighbors.put("top", gamePiece1);
-    this.gamePiece4Neighbors.put("bottom", gamePiece7);
-    this.gamePiece4Neighbors.put("right", gamePiece5);
-    this.gamePiece5Neighbors.put("left", gamePiece4);
-    this.gamePiece5Neighbors.put("top", gamePiece2);
-    this.gamePiece5Neighbors.put("right", gamePiece6);
-    this.gamePiece5Neighbors.put("bottom", gamePiece8);
-    this.gamePiece6Neighbors.put("top", gamePiece3);
-    this.gamePiece6Neighbors.put("left", gamePiece5);
-    this.gamePiece6Neighbors.put("bottom", gamePiece9);
-    this.gamePiece7Neighbors.put("top", gamePiece4);
-    this.gamePiece7Neighbors.put("right", gamePiece8);
-    this.gamePiece8Neighbors.put("top", gamePiece5);
-    this.gamePiece9Neighbors.put("top", gamePiece6);
+    this.twoGamePiece1 = new GamePiece(0, 0, false, false, false, true, true, 3);
+    this.twoGamePiece2 = new GamePiece(1, 0, false, true, true, false, false, 2);
+    this.twoGamePiece3 = new GamePiece(1, 1, true, false, true, false, false, 1);
+    this.twoGamePiece4 = new GamePiece(0, 1, false, false, false, true, false, 0);
+
+    this.gamePiece1 = new GamePiece(0, 0, false, false, false, true, true, 0);
+    this.gamePiece2 = new GamePiece(1, 0, false, false, false, true, false, 0);
+    this.gamePiece3 = new GamePiece(2, 0, false, false, false, true, false, 0);
+    this.gamePiece4 = new GamePiece(0, 1, false, true, true, true, false, 0);
+    this.gamePiece5 = new GamePiece(1, 1, true, true, true, true, false, 0);
+    this.gamePiece6 = new GamePiece(2, 1, true, false, true, true, false, 0);
+    this.gamePiece7 = new GamePiece(0, 2, false, false, false, true, false, 0);
+    this.gamePiece8 = new GamePiece(1, 2, false, false, true, false, false, 0);
+    this.gamePiece9 = new GamePiece(2, 2, false, false, false, true, false, 0);
 
     this.row1 = new ArrayList<GamePiece>();
     this.row1.add(gamePiece1);
@@ -265,9 +190,9 @@ class ExamplesLightEmAll {
     WorldImage base = new RectangleImage(LightEmAll.CELL_SIZE, LightEmAll.CELL_SIZE,
         OutlineMode.SOLID, Color.darkGray);
     initData();
-    t.checkExpect(this.game1.board.get(0).get(0).drawPiece(this.game1.radius), new RotateImage(
+    t.checkExpect(this.game1.pieceAt(1).drawPiece(this.game1.palette), new RotateImage(
         new RotateImage(new RotateImage(new RotateImage(base, 90.0), 90.0), 90.0), 90.0));
-    t.checkExpect(this.threeByThreeU.board.get(2).get(0).drawPiece(this.game1.radius),
+    t.checkExpect(this.threeByThreeU.pieceAt(6).drawPiece(this.game1.palette),
         new RotateImage(
             new RotateImage(
                 new OverlayImage(
@@ -276,74 +201,53 @@ class ExamplesLightEmAll {
                     new RotateImage(new RotateImage(base, 90.0), 90.0)),
                 90.0),
             90.0));
-    t.checkExpect(this.threeByThreeU.board.get(0).get(0).drawPiece(this.threeByThreeU.radius),
+    t.checkExpect(this.threeByThreeU.pieceAt(0).drawPiece(this.threeByThreeU.palette),
         new OverlayImage(
             new StarImage((LightEmAll.CELL_SIZE / 2.5), 8, 2, OutlineMode.SOLID, Color.ORANGE),
             new RotateImage(new RotateImage(
                 new OverlayImage(
-                    new RectangleImage(5, 20, OutlineMode.SOLID, new Color(255, 255, 0, 252))
+                    new RectangleImage(5, 20, OutlineMode.SOLID, new Color(255, 255, 0, 255))
                         .movePinhole(0, 10),
                     new RotateImage(new RotateImage(base, 90.0), 90.0)),
                 90.0), 90.0)));
+    t.checkExpect(this.threeByThreeU.drawCell(0),
+        this.threeByThreeU.pieceAt(0).drawPiece(this.threeByThreeU.palette));
+    t.checkExpect(this.twoByTwo.drawCell(3),
+        GamePiece.draw(this.twoByTwo.engine.masks[3], this.twoByTwo.engine.power[3], false,
+            this.twoByTwo.palette));
   }
 
   // tests for calcColor
   void testCalcColor(Tester t) {
     initData();
-    t.checkExpect(this.game1.board.get(0).get(0).calcColor(this.game1.width), Color.gray);
-    t.checkExpect(this.game3.board.get(0).get(0).calcColor(this.game3.width), Color.YELLOW);
-    t.checkExpect(this.game3.board.get(2).get(0).calcColor(this.game3.width), Color.gray);
-    t.checkExpect(this.twoByTwo.board.get(0).get(0).calcColor(3), Color.YELLOW);
-    t.checkExpect(this.twoByTwo.board.get(1).get(0).calcColor(3), Color.gray);
-
-  }
+    t.checkExpect(this.game1.pieceAt(1).calcColor(new PowerPalette(this.game1.width)), Color.gray);
+    PowerPalette five = new PowerPalette(this.game3.width);
+    t.checkExpect(this.game3.pieceAt(0).calcColor(five), Color.YELLOW);
+    t.checkExpect(this.game3.pieceAt(6).calcColor(five), Color.gray);
+    t.checkExpect(this.twoByTwo.pieceAt(0).calcColor(this.twoByTwo.palette), Color.YELLOW);
+    t.checkExpect(this.twoByTwo.pieceAt(2).calcColor(this.twoByTwo.palette), Color.gray);
 
-  // tests for updateNeighbor
-  void testUpdateNeighbor(Tester t) {
-    initData();
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("right"), null);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("top"), null);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("bottom"), null);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("left"), null);
-    this.game1.nodes.get(0).updateNeighbor("right", this.gamePiece01);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("right"), this.gamePiece01);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("top"), null);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("bottom"), null);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("left"), null);
-    this.game1.nodes.get(0).updateNeighbor("bottom", this.gamePiece02);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("right"), this.gamePiece01);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("top"), null);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("bottom"), this.gamePiece02);
-    t.checkExpect(this.game1.nodes.get(0).neighbors.get("left"), null);
   }
 
-  // tests for samePiece
-  void testSamePiece(Tester t) {
+  // tests for PowerPalette
+  void testPowerPalette(Tester t) {
     initData();
-    t.checkExpect(this.gamePiece01.samePiece(this.gamePiece01), true);
-    t.checkExpect(this.gamePiece01.samePiece(this.gamePiece02), false);
-    t.checkExpect(this.gamePiece9.samePiece(this.gamePiece9), true);
-    t.checkExpect(this.gamePiece9.samePiece(this.gamePiece10), false);
-    t.checkExpect(this.gamePiece04.samePiece(this.gamePiece04), true);
-  }
-
-  // tests for isConnectedTo
-  void testIsConnecteTo(Tester t) {
-    initData();
-    t.checkExpect(this.gamePiece1.isConnectedTo("top"), false);
-    t.checkExpect(this.gamePiece1.isConnectedTo("bottom"), true);
-    t.checkExpect(this.gamePiece1.isConnectedTo("left"), false);
-    t.checkExpect(this.gamePiece1.isConnectedTo("right"), false);
-
-    t.checkExpect(this.gamePiece3.isConnectedTo("top"), false);
-    t.checkExpect(this.gamePiece3.isConnectedTo("bottom"), true);
-    t.checkExpect(this.gamePiece3.isConnectedTo("left"), false);
-    t.checkExpect(this.gamePiece3.isConnectedTo("right"), false);
-
-    t.checkExpect(this.gamePiece5.isConnectedTo("top"), true);
-    t.checkExpect(this.gamePiece5.isConnectedTo("bottom"), true);
-    t.checkExpect(this.gamePiece5.isConnectedTo("left"), true);
-    t.checkExpect(this.gamePiece5.isConnectedTo("right"), true);
+    t.checkExpect(PowerPalette.build(4).length, 5);
+    t.checkExpect(PowerPalette.build(4)[0], Color.GRAY);
+    t.checkExpect(PowerPalette.build(4)[3], new Color(255, 255, 0, 191));
+    t.checkExpect(PowerPalette.build(300)[1], new Color(255, 255, 0, 1));
+    t.checkExpect(PowerPalette.build(300)[150], new Color(255, 255, 0, 128));
+    t.checkExpect(PowerPalette.build(300)[299].getAlpha() < 255, true);
+    PowerPalette seven = new PowerPalette(7);
+    PowerPalette three = new PowerPalette(3);
+    t.checkExpect(seven.colors.length, 8);
+    t.checkExpect(seven.colorFor(7), Color.YELLOW);
+    t.checkExpect(three.colorFor(9), Color.YELLOW);
+    t.checkExpect(three.colorFor(-1), Color.GRAY);
+    t.checkExpect(three.colorFor(2) == three.colorFor(2), true);
+    t.checkExpect(this.twoByTwo.palette.radius, this.twoByTwo.engine.radius);
+    this.twoByTwo.onKeyEvent(" ");
+    t.checkExpect(this.twoByTwo.palette.radius, this.twoByTwo.engine.radius);
   }
 
   // tests for rotatePiece
@@ -385,12 +289,12 @@ class ExamplesLightEmAll {
     t.checkExpect(this.gamePiece3.bottom, false);
   }
 
-  // tests for powerNeighbors
-  void testPowerNeighbors(Tester t) {
+  // tests for the power levels the engine spreads from the station
+  void testPowerLevels(Tester t) {
     initData();
-    t.checkExpect(this.twoByTwo.board.get(0).get(0).powerLevel, 3);
-    t.checkExpect(this.twoByTwo.board.get(1).get(0).powerLevel, 0);
-    t.checkExpect(this.twoByTwo.board.get(0).get(1).powerLevel, 2);
+    t.checkExpect(this.twoByTwo.pieceAt(0).powerLevel, 3);
+    t.checkExpect(this.twoByTwo.pieceAt(2).powerLevel, 0);
+    t.checkExpect(this.twoByTwo.pieceAt(1).powerLevel, 2);
 
   }
 
@@ -406,427 +310,379 @@ class ExamplesLightEmAll {
   // tests for grabAllNodes
   public void testGrabAllNodes(Tester t) {
     initData();
-    t.checkExpect(this.game1.grabAllNodes().size(), 9);
-    t.checkExpect(this.game1.nodes.size(), 9);
-    t.checkExpect(this.game1.grabAllNodes().get(0), this.game1.board.get(0).get(0));
-    t.checkExpect(this.game1.grabAllNodes().get(2), this.game1.board.get(0).get(2));
-    t.checkExpect(this.game1.grabAllNodes().get(8), this.game1.board.get(2).get(2));
-    t.checkExpect(this.game2.nodes.size(), 100);
+    ArrayList<ArrayList<GamePiece>> board = this.game1.generateBoard();
+    t.checkExpect(this.game1.grabAllNodes(board).size(), 9);
+    t.checkExpect(this.game1.grabAllNodes(board).get(0), board.get(0).get(0));
+    t.checkExpect(this.game1.grabAllNodes(board).get(2), board.get(0).get(2));
+    t.checkExpect(this.game1.grabAllNodes(board).get(8), board.get(2).get(2));
+    t.checkExpect(this.game2.grabAllNodes(this.game2.generateBoard()).size(), 100);
   }
 
   // tests for manualConnections
   public void testManualConnections(Tester t) {
     initData();
-    t.checkExpect(this.game1.board.get(0).get(0).right, false);
-    t.checkExpect(this.game1.board.get(1).get(1).right, false);
-    t.checkExpect(this.game1.board.get(2).get(0).right, false);
-
-    this.game1.generateManualConnections();
-    t.checkExpect(this.game1.board.get(0).get(0).right, true);
-    t.checkExpect(this.game1.board.get(0).get(0).right, true);
-    t.checkExpect(this.game1.board.get(1).get(1).right, true);
-    t.checkExpect(this.game1.board.get(1).get(1).bottom, true);
-    t.checkExpect(this.game1.board.get(1).get(1).top, true);
-    t.checkExpect(this.game1.board.get(2).get(0).right, false);
-    t.checkExpect(this.game1.board.get(2).get(0).left, true);
+    ArrayList<ArrayList<GamePiece>> board = this.game1.generateBoard();
+    t.checkExpect(board.get(0).get(0).right, false);
+    t.checkExpect(board.get(1).get(1).right, false);
+    t.checkExpect(board.get(2).get(0).right, false);
+
+    this.game1.generateManualConnections(board);
+    t.checkExpect(board.get(0).get(0).right, true);
+    t.checkExpect(board.get(0).get(0).right, true);
+    t.checkExpect(board.get(1).get(1).right, true);
+    t.checkExpect(board.get(1).get(1).bottom, true);
+    t.checkExpect(board.get(1).get(1).top, true);
+    t.checkExpect(board.get(2).get(0).right, false);
+    t.checkExpect(board.get(2).get(0).left, true);
 
   }
 
   // tests for generateFractalConnections
   void testGenerateFractalConnections(Tester t) {
     initData();
-    t.checkExpect(this.game1.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.game1.board.get(0).get(1).bottom, false);
-    t.checkExpect(this.game1.board.get(0).get(1).top, false);
-    t.checkExpect(this.game1.board.get(0).get(2).right, false);
-    t.checkExpect(this.game1.board.get(0).get(2).top, false);
-    this.game1.generateFractalConnections(new Posn(0, 0), this.game1.board);
-    t.checkExpect(this.game1.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game1.board.get(0).get(1).bottom, true);
-    t.checkExpect(this.game1.board.get(0).get(1).top, true);
-    t.checkExpect(this.game1.board.get(0).get(2).right, true);
-    t.checkExpect(this.game1.board.get(0).get(2).top, true);
-
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.game2.board.get(0).get(1).bottom, false);
-    t.checkExpect(this.game2.board.get(0).get(1).top, false);
-    t.checkExpect(this.game2.board.get(0).get(2).right, false);
-    t.checkExpect(this.game2.board.get(0).get(2).top, false);
-    t.checkExpect(this.game2.board.get(0).get(2).right, false);
-    t.checkExpect(this.game2.board.get(0).get(3).top, false);
-    t.checkExpect(this.game2.board.get(0).get(3).bottom, false);
-    t.checkExpect(this.game2.board.get(1).get(2).right, false);
-    t.checkExpect(this.game2.board.get(1).get(2).left, false);
-    t.checkExpect(this.game2.board.get(1).get(2).top, false);
-    t.checkExpect(this.game2.board.get(3).get(2).right, false);
-    t.checkExpect(this.game2.board.get(3).get(2).top, false);
-    t.checkExpect(this.game2.board.get(4).get(9).top, false);
-    t.checkExpect(this.game2.board.get(4).get(9).right, false);
-    t.checkExpect(this.game2.board.get(4).get(9).left, false);
-    t.checkExpect(this.game2.board.get(4).get(7).top, false);
-    t.checkExpect(this.game2.board.get(4).get(7).left, false);
-    t.checkExpect(this.game2.board.get(4).get(7).bottom, false);
-
-    this.game2.generateFractalConnections(new Posn(0, 0), this.game2.board);
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game2.board.get(0).get(1).bottom, true);
-    t.checkExpect(this.game2.board.get(0).get(1).top, true);
-    t.checkExpect(this.game2.board.get(0).get(2).right, true);
-    t.checkExpect(this.game2.board.get(0).get(2).top, true);
-    t.checkExpect(this.game2.board.get(0).get(2).right, true);
-    t.checkExpect(this.game2.board.get(0).get(3).top, true);
-    t.checkExpect(this.game2.board.get(0).get(3).bottom, true);
-    t.checkExpect(this.game2.board.get(1).get(2).right, true);
-    t.checkExpect(this.game2.board.get(1).get(2).left, true);
-    t.checkExpect(this.game2.board.get(1).get(2).top, true);
-    t.checkExpect(this.game2.board.get(3).get(2).right, true);
-    t.checkExpect(this.game2.board.get(3).get(2).top, true);
-    t.checkExpect(this.game2.board.get(4).get(9).top, true);
-    t.checkExpect(this.game2.board.get(4).get(9).right, true);
-    t.checkExpect(this.game2.board.get(4).get(9).left, true);
-    t.checkExpect(this.game2.board.get(4).get(7).top, true);
-    t.checkExpect(this.game2.board.get(4).get(7).left, true);
-    t.checkExpect(this.game2.board.get(4).get(7).bottom, true);
+    ArrayList<ArrayList<GamePiece>> board = this.game1.generateBoard();
+    ArrayList<ArrayList<GamePiece>> bigBoard = this.game2.generateBoard();
+    t.checkExpect(board.get(0).get(0).bottom, false);
+    t.checkExpect(board.get(0).get(1).bottom, false);
+    t.checkExpect(board.get(0).get(1).top, false);
+    t.checkExpect(board.get(0).get(2).right, false);
+    t.checkExpect(board.get(0).get(2).top, false);
+    this.game1.generateFractalConnections(new Posn(0, 0), board);
+    t.checkExpect(board.get(0).get(0).bottom, true);
+    t.checkExpect(board.get(0).get(1).bottom, true);
+    t.checkExpect(board.get(0).get(1).top, true);
+    t.checkExpect(board.get(0).get(2).right, true);
+    t.checkExpect(board.get(0).get(2).top, true);
+
+    t.checkExpect(bigBoard.get(0).get(0).bottom, false);
+    t.checkExpect(bigBoard.get(0).get(1).bottom, false);
+    t.checkExpect(bigBoard.get(0).get(1).top, false);
+    t.checkExpect(bigBoard.get(0).get(2).right, false);
+    t.checkExpect(bigBoard.get(0).get(2).top, false);
+    t.checkExpect(bigBoard.get(0).get(2).right, false);
+    t.checkExpect(bigBoard.get(0).get(3).top, false);
+    t.checkExpect(bigBoard.get(0).get(3).bottom, false);
+    t.checkExpect(bigBoard.get(1).get(2).right, false);
+    t.checkExpect(bigBoard.get(1).get(2).left, false);
+    t.checkExpect(bigBoard.get(1).get(2).top, false);
+    t.checkExpect(bigBoard.get(3).get(2).right, false);
+    t.checkExpect(bigBoard.get(3).get(2).top, false);
+    t.checkExpect(bigBoard.get(4).get(9).top, false);
+    t.checkExpect(bigBoard.get(4).get(9).right, false);
+    t.checkExpect(bigBoard.get(4).get(9).left, false);
+    t.checkExpect(bigBoard.get(4).get(7).top, false);
+    t.checkExpect(bigBoard.get(4).get(7).left, false);
+    t.checkExpect(bigBoard.get(4).get(7).bottom, false);
+
+    this.game2.generateFractalConnections(new Posn(0, 0), bigBoard);
+    t.checkExpect(bigBoard.get(0).get(0).bottom, true);
+    t.checkExpect(bigBoard.get(0).get(1).bottom, true);
+    t.checkExpect(bigBoard.get(0).get(1).top, true);
+    t.checkExpect(bigBoard.get(0).get(2).right, true);
+    t.checkExpect(bigBoard.get(0).get(2).top, true);
+    t.checkExpect(bigBoard.get(0).get(2).right, true);
+    t.checkExpect(bigBoard.get(0).get(3).top, true);
+    t.checkExpect(bigBoard.get(0).get(3).bottom, true);
+    t.checkExpect(bigBoard.get(1).get(2).right, true);
+    t.checkExpect(bigBoard.get(1).get(2).left, true);
+    t.checkExpect(bigBoard.get(1).get(2).top, true);
+    t.checkExpect(bigBoard.get(3).get(2).right, true);
+    t.checkExpect(bigBoard.get(3).get(2).top, true);
+    t.checkExpect(bigBoard.get(4).get(9).top, true);
+    t.checkExpect(bigBoard.get(4).get(9).right, true);
+    t.checkExpect(bigBoard.get(4).get(9).left, true);
+    t.checkExpect(bigBoard.get(4).get(7).top, true);
+    t.checkExpect(bigBoard.get(4).get(7).left, true);
+    t.checkExpect(bigBoard.get(4).get(7).bottom, true);
 
   }
 
   // tests for splitBoard
   void testSplitBoard(Tester t) {
     initData();
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(4, 4, 2).board).size(), 4);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(4, 4, 2).board).get(0).size(), 2);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(4, 4, 2).board).get(0).get(0).size(), 2);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(4, 4, 2).board).get(1).get(0).size(), 2);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(4, 4, 2).board).get(2).get(0).size(), 2);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(4, 4, 2).board).get(3).get(0).size(), 2);
-    t.checkExpect(this.game2.splitBoard(2, new LightEmAll(2, 4, 2).board).size(), 2);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).size(), 4);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(0).size(), 4);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(1).size(), 3);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(2).size(), 4);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(3).size(), 3);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(0).get(0).size(), 4);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(1).get(0).size(), 4);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(2).get(0).size(), 3);
-    t.checkExpect(this.game2.splitBoard(1, new LightEmAll(7, 7, 2).board).get(3).get(0).size(), 3);
+    ArrayList<ArrayList<GamePiece>> fourByFour = new LightEmAll(4, 4, 2).generateBoard();
+    ArrayList<ArrayList<GamePiece>> twoByFour = new LightEmAll(2, 4, 2).generateBoard();
+    ArrayList<ArrayList<GamePiece>> sevenBySeven = new LightEmAll(7, 7, 2).generateBoard();
+    t.checkExpect(this.game2.splitBoard(1, fourByFour).size(), 4);
+    t.checkExpect(this.game2.splitBoard(1, fourByFour).get(0).size(), 2);
+    t.checkExpect(this.game2.splitBoard(1, fourByFour).get(0).get(0).size(), 2);
+    t.checkExpect(this.game2.splitBoard(1, fourByFour).get(1).get(0).size(), 2);
+    t.checkExpect(this.game2.splitBoard(1, fourByFour).get(2).get(0).size(), 2);
+    t.checkExpect(this.game2.splitBoard(1, fourByFour).get(3).get(0).size(), 2);
+    t.checkExpect(this.game2.splitBoard(2, twoByFour).size(), 2);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).size(), 4);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(0).size(), 4);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(1).size(), 3);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(2).size(), 4);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(3).size(), 3);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(0).get(0).size(), 4);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(1).get(0).size(), 4);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(2).get(0).size(), 3);
+    t.checkExpect(this.game2.splitBoard(1, sevenBySeven).get(3).get(0).size(), 3);
 
   }
 
   // tests for determineSplitType
   void testDetermineSplitType(Tester t) {
     initData();
-    t.checkExpect(this.game2.determineSplitType(game2.board), 1);
-    t.checkExpect(this.game2.determineSplitType(new LightEmAll(4, 4, 1).board), 1);
-    t.checkExpect(this.game2.determineSplitType(new LightEmAll(3, 4, 1).board), 2);
-    t.checkExpect(this.game2.determineSplitType(new LightEmAll(10, 2, 1).board), 3);
-    t.checkExpect(this.game2.determineSplitType(new LightEmAll(2, 10, 1).board), 2);
-    t.checkExpect(this.game2.determineSplitType(new LightEmAll(7, 7, 1).board), 1);
+    t.checkExpect(this.game2.determineSplitType(this.game2.generateBoard()), 1);
+    t.checkExpect(this.game2.determineSplitType(new LightEmAll(4, 4, 1).generateBoard()), 1);
+    t.checkExpect(this.game2.determineSplitType(new LightEmAll(3, 4, 1).generateBoard()), 2);
+    t.checkExpect(this.game2.determineSplitType(new LightEmAll(10, 2, 1).generateBoard()), 3);
+    t.checkExpect(this.game2.determineSplitType(new LightEmAll(2, 10, 1).generateBoard()), 2);
+    t.checkExpect(this.game2.determineSplitType(new LightEmAll(7, 7, 1).generateBoard()), 1);
   }
 
   // tests for buildU
   void testBuildU(Tester t) {
     initData();
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.game2.board.get(9).get(0).bottom, false);
-    t.checkExpect(this.game2.board.get(0).get(9).top, false);
-    t.checkExpect(this.game2.board.get(9).get(9).top, false);
-    t.checkExpect(this.game2.board.get(0).get(4).top, false);
-    t.checkExpect(this.game2.board.get(9).get(4).top, false);
-    t.checkExpect(this.game2.board.get(0).get(4).top, false);
-    t.checkExpect(this.game2.board.get(9).get(4).top, false);
-    this.game2.buildU(this.game2.board);
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game2.board.get(9).get(0).bottom, true);
-    t.checkExpect(this.game2.board.get(0).get(9).top, true);
-    t.checkExpect(this.game2.board.get(9).get(9).top, true);
-    t.checkExpect(this.game2.board.get(0).get(4).top, true);
-    t.checkExpect(this.game2.board.get(9).get(4).top, true);
-    t.checkExpect(this.game2.board.get(0).get(4).top, true);
-    t.checkExpect(this.game2.board.get(9).get(4).top, true);
-    initData();
-    t.checkExpect(this.twoByTwoBlank.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.twoByTwoBlank.board.get(1).get(0).bottom, false);
-    t.checkExpect(this.twoByTwoBlank.board.get(0).get(1).top, false);
-    t.checkExpect(this.twoByTwoBlank.board.get(1).get(1).top, false);
-    this.twoByTwoBlank.buildU(twoByTwoBlank.board);
-    t.checkExpect(this.twoByTwoBlank.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.twoByTwoBlank.board.get(1).get(0).bottom, true);
-    t.checkExpect(this.twoByTwoBlank.board.get(0).get(1).top, true);
-    t.checkExpect(this.twoByTwoBlank.board.get(1).get(1).top, true);
+    ArrayList<ArrayList<GamePiece>> board = this.game2.generateBoard();
+    t.checkExpect(board.get(0).get(0).bottom, false);
+    t.checkExpect(board.get(9).get(0).bottom, false);
+    t.checkExpect(board.get(0).get(9).top, false);
+    t.checkExpect(board.get(9).get(9).top, false);
+    t.checkExpect(board.get(0).get(4).top, false);
+    t.checkExpect(board.get(9).get(4).top, false);
+    t.checkExpect(board.get(0).get(4).top, false);
+    t.checkExpect(board.get(9).get(4).top, false);
+    this.game2.buildU(board);
+    t.checkExpect(board.get(0).get(0).bottom, true);
+    t.checkExpect(board.get(9).get(0).bottom, true);
+    t.checkExpect(board.get(0).get(9).top, true);
+    t.checkExpect(board.get(9).get(9).top, true);
+    t.checkExpect(board.get(0).get(4).top, true);
+    t.checkExpect(board.get(9).get(4).top, true);
+    t.checkExpect(board.get(0).get(4).top, true);
+    t.checkExpect(board.get(9).get(4).top, true);
+    initData();
+    ArrayList<ArrayList<GamePiece>> smallBoard = this.twoByTwoBlank.generateBoard();
+    t.checkExpect(smallBoard.get(0).get(0).bottom, false);
+    t.checkExpect(smallBoard.get(1).get(0).bottom, false);
+    t.checkExpect(smallBoard.get(0).get(1).top, false);
+    t.checkExpect(smallBoard.get(1).get(1).top, false);
+    this.twoByTwoBlank.buildU(smallBoard);
+    t.checkExpect(smallBoard.get(0).get(0).bottom, true);
+    t.checkExpect(smallBoard.get(1).get(0).bottom, true);
+    t.checkExpect(smallBoard.get(0).get(1).top, true);
+    t.checkExpect(smallBoard.get(1).get(1).top, true);
   }
 
   // tests for onMouseClicked
   void testOnMouseClicked(Tester t) {
     initData();
-    t.checkExpect(this.game3.board.get(0).get(0).top, false);
-    t.checkExpect(this.game3.board.get(0).get(0).right, false);
-    t.checkExpect(this.game3.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game3.board.get(0).get(0).left, false);
-    t.checkExpect(this.game3.score, 0);
+    t.checkExpect(this.game3.engine.masks[0], 4);
+    t.checkExpect(this.game3.engine.score, 0);
 
     this.game3.onMouseClicked(new Posn(0, 0), "LeftButton");
-    t.checkExpect(this.game3.board.get(0).get(0).top, false);
-    t.checkExpect(this.game3.board.get(0).get(0).right, false);
-    t.checkExpect(this.game3.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.game3.board.get(0).get(0).left, true);
-    t.checkExpect(this.game3.score, 1);
+    t.checkExpect(this.game3.engine.masks[0], 8);
+    t.checkExpect(this.game3.engine.score, 1);
 
     this.game3.onMouseClicked(new Posn(0, 0), "RightButton");
-    t.checkExpect(this.game3.board.get(0).get(0).top, false);
-    t.checkExpect(this.game3.board.get(0).get(0).right, false);
-    t.checkExpect(this.game3.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game3.board.get(0).get(0).left, false);
-    t.checkExpect(this.game3.score, 2);
+    t.checkExpect(this.game3.engine.masks[0], 4);
+    t.checkExpect(this.game3.engine.score, 2);
 
     this.game3.onMouseClicked(new Posn(0, 0), "RightButton");
-    t.checkExpect(this.game3.board.get(0).get(0).top, false);
-    t.checkExpect(this.game3.board.get(0).get(0).right, true);
-    t.checkExpect(this.game3.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.game3.board.get(0).get(0).left, false);
-    t.checkExpect(this.game3.score, 3);
-
-  }
-
-  // tests for updateAllNeighbors
-  public void testUpdateAllNeighbors(Tester t) {
-    initData();
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("top"), null);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("bottom"), null);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("left"), null);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("right"), null);
-
-    initData();
-    this.game1.updateAllNeighbors();
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("top"), null);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("left"), null);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("right"),
-        this.game1.board.get(1).get(0));
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get("bottom"),
-        this.game1.board.get(0).get(1));
-
-  }
-
-  // tests for locatePiece
-  void testLocatePiece(Tester t) {
-    initData();
-    t.checkExpect(this.game1.locatePiece(new Posn(0, 0)),
-        new GamePiece(0, 0, false, false, false, false));
-    t.checkExpect(this.game2.locatePiece(new Posn(0, 0)),
-        new GamePiece(0, 0, false, false, false, false));
-    t.checkExpect(this.game1.locatePiece(new Posn(1, 1)),
-        new GamePiece(0, 0, false, false, false, false));
-    t.checkExpect(this.game1.locatePiece(new Posn(0, 2)),
-        new GamePiece(0, 0, false, false, false, false));
-    t.checkExpect(this.game1.locatePiece(new Posn(1, 1)),
-        new GamePiece(0, 0, false, false, false, false));
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(0, 0)), this.twoGamePiece1);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(0, 1)), this.twoGamePiece1);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(1, 0)), this.twoGamePiece1);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(1, 1)), this.twoGamePiece1);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(2, 2)), this.twoGamePiece1);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(1, 41)), this.twoGamePiece2);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(41, 41)), this.twoGamePiece3);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(41, 1)), this.twoGamePiece4);
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(0, 0)), this.twoByTwo.board.get(0).get(0));
-    t.checkExpect(this.twoByTwo.locatePiece(new Posn(1, 1)), this.twoByTwo.board.get(0).get(0));
+    t.checkExpect(this.game3.engine.masks[0], 2);
+    t.checkExpect(this.game3.engine.score, 3);
+
+  }
+
+  // tests for locateCell
+  void testLocateCell(Tester t) {
+    initData();
+    t.checkExpect(this.game1.locateCell(new Posn(0, 0)), 0);
+    t.checkExpect(this.game2.locateCell(new Posn(0, 0)), 0);
+    t.checkExpect(this.game1.locateCell(new Posn(1, 1)), 0);
+    t.checkExpect(this.game1.locateCell(new Posn(0, 2)), 0);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(2, 2)), 0);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(1, 41)), 1);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(41, 41)), 3);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(41, 1)), 2);
+    t.checkExpect(this.game3.locateCell(new Posn(81, 41)), 7);
+    // the scoreboard rows and anything left of or above the board are off it
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(41, 81)), -1);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(79, 119)), -1);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(80, 10)), -1);
+    t.checkExpect(this.twoByTwo.locateCell(new Posn(-1, 10)), -1);
+    this.twoByTwo.onMouseClicked(new Posn(79, 100), "LeftButton");
+    t.checkExpect(this.twoByTwo.engine.score, 0);
   }
 
   // tests for restartGame
   void testRestartGame(Tester t) {
     initData();
     this.game1.onMouseClicked(new Posn(1, 1), "LeftButton");
-    t.checkExpect(this.game1.score, 1);
-    t.checkExpect(this.game1.time, 0);
+    t.checkExpect(this.game1.engine.score, 1);
+    t.checkExpect(this.game1.engine.time, 0);
     this.game1.onTick();
     this.game1.onTick();
     this.game1.onTick();
     this.game1.onTick();
-    t.checkExpect(this.game1.time, 4);
+    t.checkExpect(this.game1.engine.time, 4);
     this.game1.restartGame();
-    t.checkExpect(this.game1.score, 0);
-    t.checkExpect(this.game1.time, 0);
+    t.checkExpect(this.game1.engine.score, 0);
+    t.checkExpect(this.game1.engine.time, 0);
 
     this.game2.onMouseClicked(new Posn(1, 1), "RightButton");
-    t.checkExpect(this.game2.score, 1);
-    t.checkExpect(this.game2.time, 0);
+    t.checkExpect(this.game2.engine.score, 1);
+    t.checkExpect(this.game2.engine.time, 0);
     this.game2.onTick();
-    t.checkExpect(this.game2.time, 1);
+    t.checkExpect(this.game2.engine.time, 1);
     this.game2.restartGame();
-    t.checkExpect(this.game2.score, 0);
-    t.checkExpect(this.game2.time, 0);
+    t.checkExpect(this.game2.engine.score, 0);
+    t.checkExpect(this.game2.engine.time, 0);
   }
 
-  // tests for updatePower
-  void testUpdatePower(Tester t) {
+  // tests for pieceAt
+  void testPieceAt(Tester t) {
     initData();
-    t.checkExpect(this.twoByTwo.board.get(1).get(0).powerStation, false);
-    this.twoByTwo.updatePower(this.twoByTwo.board);
-    t.checkExpect(this.twoByTwo.board.get(0).get(0).powerStation, true);
-
+    t.checkExpect(this.twoByTwo.pieceAt(0),
+        new GamePiece(0, 0, false, false, false, true, true, 3));
+    t.checkExpect(this.twoByTwo.pieceAt(2).powerStation, false);
+    t.checkExpect(this.twoByTwo.pieceAt(2).col, 1);
+    this.twoByTwo.onKeyEvent("down");
+    t.checkExpect(this.twoByTwo.pieceAt(0).powerStation, false);
+    t.checkExpect(this.twoByTwo.pieceAt(1).powerStation, true);
   }
 
   // tests for generateRandomGrid
   void testGenerateRandomGrid(Tester t) {
     initData();
-    this.game1.generateFractalConnections(new Posn(0, 0), this.game1.board);
-    t.checkExpect(this.game1.nodes.get(0).left, false);
-    t.checkExpect(this.game1.nodes.get(0).top, false);
-    t.checkExpect(this.game1.nodes.get(0).right, false);
-    t.checkExpect(this.game1.nodes.get(0).bottom, true);
-    t.checkExpect(this.game1.nodes.get(4).left, false);
-    t.checkExpect(this.game1.nodes.get(4).top, true);
-    t.checkExpect(this.game1.nodes.get(4).right, false);
-    t.checkExpect(this.game1.nodes.get(4).bottom, true);
-    t.checkExpect(this.game1.nodes.get(8).left, true);
-    t.checkExpect(this.game1.nodes.get(8).top, true);
-    t.checkExpect(this.game1.nodes.get(8).right, false);
-    t.checkExpect(this.game1.nodes.get(8).bottom, false);
-    t.checkExpect(this.game1.nodes.get(2).left, false);
-    t.checkExpect(this.game1.nodes.get(2).top, true);
-    t.checkExpect(this.game1.nodes.get(2).right, true);
-    t.checkExpect(this.game1.nodes.get(2).bottom, false);
-    t.checkExpect(this.game1.nodes.get(6).left, false);
-    t.checkExpect(this.game1.nodes.get(6).top, false);
-    t.checkExpect(this.game1.nodes.get(6).right, false);
-    t.checkExpect(this.game1.nodes.get(6).bottom, true);
-    this.game1.randomizeGrid(this.game1.nodes);
-
-    t.checkExpect(this.game1.nodes.get(0).left, false);
-    t.checkExpect(this.game1.nodes.get(0).top, false);
-    t.checkExpect(this.game1.nodes.get(0).right, true);
-    t.checkExpect(this.game1.nodes.get(0).bottom, false);
-    t.checkExpect(this.game1.nodes.get(4).left, true);
-    t.checkExpect(this.game1.nodes.get(4).top, false);
-    t.checkExpect(this.game1.nodes.get(4).right, true);
-    t.checkExpect(this.game1.nodes.get(4).bottom, false);
-    t.checkExpect(this.game1.nodes.get(8).left, true);
-    t.checkExpect(this.game1.nodes.get(8).top, true);
-    t.checkExpect(this.game1.nodes.get(8).right, false);
-    t.checkExpect(this.game1.nodes.get(8).bottom, false);
-    t.checkExpect(this.game1.nodes.get(2).left, false);
-    t.checkExpect(this.game1.nodes.get(2).top, true);
-    t.checkExpect(this.game1.nodes.get(2).right, true);
-    t.checkExpect(this.game1.nodes.get(2).bottom, false);
-    t.checkExpect(this.game1.nodes.get(6).left, false);
-    t.checkExpect(this.game1.nodes.get(6).top, false);
-    t.checkExpect(this.game1.nodes.get(6).right, true);
-    t.checkExpect(this.game1.nodes.get(6).bottom, false);
+    ArrayList<ArrayList<GamePiece>> board = this.game1.generateBoard();
+    ArrayList<GamePiece> nodes = this.game1.grabAllNodes(board);
+    this.game1.generateFractalConnections(new Posn(0, 0), board);
+    t.checkExpect(nodes.get(0).left, false);
+    t.checkExpect(nodes.get(0).top, false);
+    t.checkExpect(nodes.get(0).right, false);
+    t.checkExpect(nodes.get(0).bottom, true);
+    t.checkExpect(nodes.get(4).left, false);
+    t.checkExpect(nodes.get(4).top, true);
+    t.checkExpect(nodes.get(4).right, false);
+    t.checkExpect(nodes.get(4).bottom, true);
+    t.checkExpect(nodes.get(8).left, true);
+    t.checkExpect(nodes.get(8).top, true);
+    t.checkExpect(nodes.get(8).right, false);
+    t.checkExpect(nodes.get(8).bottom, false);
+    t.checkExpect(nodes.get(2).left, false);
+    t.checkExpect(nodes.get(2).top, true);
+    t.checkExpect(nodes.get(2).right, true);
+    t.checkExpect(nodes.get(2).bottom, false);
+    t.checkExpect(nodes.get(6).left, false);
+    t.checkExpect(nodes.get(6).top, false);
+    t.checkExpect(nodes.get(6).right, false);
+    t.checkExpect(nodes.get(6).bottom, true);
+    this.game1.randomizeGrid(nodes);
+
+    t.checkExpect(nodes.get(0).left, false);
+    t.checkExpect(nodes.get(0).top, false);
+    t.checkExpect(nodes.get(0).right, true);
+    t.checkExpect(nodes.get(0).bottom, false);
+    t.checkExpect(nodes.get(4).left, true);
+    t.checkExpect(nodes.get(4).top, false);
+    t.checkExpect(nodes.get(4).right, true);
+    t.checkExpect(nodes.get(4).bottom, false);
+    t.checkExpect(nodes.get(8).left, true);
+    t.checkExpect(nodes.get(8).top, true);
+    t.checkExpect(nodes.get(8).right, false);
+    t.checkExpect(nodes.get(8).bottom, false);
+    t.checkExpect(nodes.get(2).left, false);
+    t.checkExpect(nodes.get(2).top, true);
+    t.checkExpect(nodes.get(2).right, true);
+    t.checkExpect(nodes.get(2).bottom, false);
+    t.checkExpect(nodes.get(6).left, false);
+    t.checkExpect(nodes.get(6).top, false);
+    t.checkExpect(nodes.get(6).right, true);
+    t.checkExpect(nodes.get(6).bottom, false);
 
   }
 
   // tests for onKeyEvent
   void testOnKeyEvent(Tester t) {
     initData();
-    t.checkExpect(this.twoByTwo.powerRow, 0);
+    t.checkExpect(this.twoByTwo.engine.powerCell, 0);
+    this.twoByTwo.onKeyEvent("right");
+    t.checkExpect(this.twoByTwo.engine.powerCell, 0);
     this.twoByTwo.onKeyEvent("down");
-    t.checkExpect(this.twoByTwo.powerRow, 1);
+    t.checkExpect(this.twoByTwo.engine.powerCell, 1);
     this.twoByTwo.onKeyEvent("right");
-    t.checkExpect(this.twoByTwo.powerCol, 1);
+    t.checkExpect(this.twoByTwo.engine.powerCell, 3);
 
-    t.checkExpect(this.game3.powerRow, 0);
+    t.checkExpect(this.game3.engine.powerCell, 0);
     this.game3.onKeyEvent("down");
-    t.checkExpect(this.game3.powerRow, 1);
+    t.checkExpect(this.game3.engine.powerCell, 1);
     this.game3.onKeyEvent("down");
-    t.checkExpect(this.game3.powerRow, 2);
+    t.checkExpect(this.game3.engine.powerCell, 2);
     this.game3.onKeyEvent("right");
-    t.checkExpect(this.game3.powerCol, 1);
+    t.checkExpect(this.game3.engine.powerCell, 5);
   }
 
   // tests for checkGameEnd
   void testCheckGameEnd(Tester t) {
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.time);
-    t.checkExpect(this.game2.gameEnd, 0);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, 0);
 
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.time = this.game2.maxTime - 1;
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.time);
-    t.checkExpect(this.game2.gameEnd, 0);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.time = this.game2.engine.maxTime - 1;
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, 0);
 
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.time = this.game2.maxTime;
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.time);
-    t.checkExpect(this.game2.gameEnd, -1);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.time = this.game2.engine.maxTime;
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, -1);
 
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.time = this.game2.maxTime + 1;
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.time);
-    t.checkExpect(this.game2.gameEnd, -1);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.time = this.game2.engine.maxTime + 1;
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, -1);
 
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.score = this.game2.maxScore - 1;
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.score);
-    t.checkExpect(this.game2.gameEnd, 0);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.score = this.game2.engine.maxScore - 1;
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, 0);
 
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.score = this.game2.maxScore;
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.score);
-    t.checkExpect(this.game2.gameEnd, -1);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.score = this.game2.engine.maxScore;
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, -1);
 
     initData();
-    t.checkExpect(this.game2.gameEnd, 0);
-    this.game2.score = this.game2.maxScore + 1;
-    this.game2.checkGameEnd(this.game2.nodes, this.game2.score, this.game2.score);
-    t.checkExpect(this.game2.gameEnd, -1);
+    t.checkExpect(this.game2.engine.gameEnd, 0);
+    this.game2.engine.score = this.game2.engine.maxScore + 1;
+    this.game2.engine.checkGameEnd();
+    t.checkExpect(this.game2.engine.gameEnd, -1);
 
   }
 
   // tests for onTick
   void testOnTick(Tester t) {
     initData();
-    t.checkExpect(this.game1.time, 0);
+    t.checkExpect(this.game1.engine.time, 0);
     this.game1.onTick();
-    t.checkExpect(this.game1.time, 1);
+    t.checkExpect(this.game1.engine.time, 1);
     this.game1.onTick();
-    t.checkExpect(this.game1.time, 2);
+    t.checkExpect(this.game1.engine.time, 2);
     initData();
-    t.checkExpect(this.game1.gameEnd, 0);
-    this.game1.time = 99999998;
+    t.checkExpect(this.game1.engine.gameEnd, 0);
+    this.game1.engine.time = 99999998;
     this.game1.onTick();
-    t.checkExpect(this.game1.time, 99999999);
-    t.checkExpect(this.game1.gameEnd, -1);
+    t.checkExpect(this.game1.engine.time, 99999999);
+    t.checkExpect(this.game1.engine.gameEnd, -1);
   }
 
-  // tests for getFarthestNode
-  void testGetFarthestNode(Tester t) {
+  // tests for the radius a LightEmAll game is started with
+  void testRadius(Tester t) {
     initData();
-    t.checkExpect(this.threeByThreeU.getFarthestNode(this.threeByThreeU.nodes.get(0)),
-        this.threeByThreeU.board.get(2).get(0));
-    t.checkExpect(this.fourByFour.getFarthestNode(this.fourByFour.board.get(0).get(0)),
-        this.fourByFour.board.get(0).get(3));
-    t.checkExpect(this.fourByFour.getFarthestNode(this.fourByFour.board.get(1).get(0)),
-        this.fourByFour.board.get(0).get(3));
-  }
-
-  // tests for calcDiameter
-  void testCalcDiameter(Tester t) {
-    initData();
-    t.checkExpect(this.threeByThreeU.calcDiameter(), 7);
-    t.checkExpect(this.fourByFour.calcDiameter(), 8);
-    t.checkExpect(this.tenByTen.calcDiameter(), 20);
-  }
-
-  // tests for generateDistanceMap
-  void testGenerateDistanceMap(Tester t) {
-    initData();
-    t.checkExpect(this.threeByThreeU.generateDistanceMap(this.threeByThreeU.nodes.get(0))
-        .get(this.threeByThreeU.nodes.get(0)), 0);
-    t.checkExpect(this.tenByTen.generateDistanceMap(this.tenByTen.nodes.get(0))
-        .get(this.tenByTen.board.get(0).get(2)), 12);
-    t.checkExpect(this.tenByTen.generateDistanceMap(this.tenByTen.nodes.get(0))
-        .get(this.tenByTen.board.get(9).get(0)), 9);
-    t.checkExpect(this.threeByThreeU.generateDistanceMap(this.threeByThreeU.nodes.get(0))
-        .get(this.threeByThreeU.board.get(0).get(0)), 0);
-    t.checkExpect(this.threeByThreeU.generateDistanceMap(this.threeByThreeU.nodes.get(0))
-        .get(this.threeByThreeU.board.get(0).get(2)), 2);
-    t.checkExpect(this.threeByThreeU.generateDistanceMap(this.threeByThreeU.nodes.get(0))
-        .get(this.threeByThreeU.board.get(2).get(0)), 6);
+    t.checkExpect(this.threeByThreeU.engine.radius, 4);
+    t.checkExpect(this.fourByFour.engine.radius, 5);
+    t.checkExpect(this.tenByTen.engine.radius, 11);
   }
 
   // tests for worldEnds
@@ -841,25 +697,25 @@ class ExamplesLightEmAll {
     loseScene.placeImageXY(new TextImage("You Lose!", LightEmAll.CELL_SIZE, Color.GREEN), middleX,
         middleY);
     t.checkExpect(this.game1.worldEnds(), new WorldEnd(false, this.game1.makeScene()));
-    this.game1.gameEnd = 1;
+    this.game1.engine.gameEnd = 1;
     t.checkExpect(this.game1.worldEnds(), new WorldEnd(true, winScene));
     initData();
     t.checkExpect(this.game1.worldEnds(), new WorldEnd(false, this.game1.makeScene()));
-    this.game1.gameEnd = -1;
+    this.game1.engine.gameEnd = -1;
     t.checkExpect(this.game1.worldEnds(), new WorldEnd(true, loseScene));
   }
 
   // tests for generateAllPossibleEdges
   void testGenerateAllPossibleEdges(Tester t) {
     initData();
-    t.checkExpect(this.game1.generateAllPossibleEdges(this.game1.board).size(), 12);
-    t.checkExpect(this.twoByTwo.generateAllPossibleEdges(this.twoByTwo.board).size(), 4);
+    t.checkExpect(this.game1.generateAllPossibleEdges(this.game1.generateBoard()).size(), 12);
+    t.checkExpect(this.twoByTwo.generateAllPossibleEdges(this.twoByTwo.generateBoard()).size(), 4);
   }
 
   // tests for generateAllPossibleEdges
   void testEdgeS(Tester t) {
     initData();
-    this.emptyEdges = this.game1.generateAllPossibleEdges(this.game1.board);
+    this.emptyEdges = this.game1.generateAllPossibleEdges(this.game1.generateBoard());
     t.checkExpect(emptyEdges.get(0).weight, 77);
     t.checkExpect(emptyEdges.get(2).weight, 181);
     t.checkExpect(emptyEdges.get(4).weight, 176);
@@ -871,30 +727,432 @@ class ExamplesLightEmAll {
     t.checkExpect(emptyEdges.get(4).weight, 92);
   }
 
-  // tests for initRepresentative
-  void testInitRepresentative(Tester t) {
-    initData();
-    t.checkExpect(this.game1.initRepresentative(this.game1.nodes).get(this.game1.nodes.get(0)),
-        this.game1.nodes.get(0));
-    t.checkExpect(this.game1.initRepresentative(this.game1.nodes).get(this.game1.nodes.get(2)),
-        this.game1.nodes.get(2));
-    t.checkExpect(this.game1.initRepresentative(this.game1.nodes).get(this.game1.nodes.get(8)),
-        this.game1.nodes.get(8));
-    t.checkExpect(this.game1.initRepresentative(this.game1.nodes).get(this.game1.nodes.get(1)),
-        this.game1.nodes.get(1));
-    
-  }
-
   // tests for generateEdgeConnections
   void testGenerateEdgeConnections(Tester t) {
     initData();
-    t.checkExpect(this.game1.board.get(0).get(0).right, false);
-    t.checkExpect(this.game1.board.get(0).get(1).left, false);
-    t.checkExpect(this.game1.board.get(0).get(0).bottom, false);
+    ArrayList<ArrayList<GamePiece>> board = this.game1.generateBoard();
+    this.game1.mst = this.game1.generateMST(this.game1.generateAllPossibleEdges(board));
+    t.checkExpect(board.get(0).get(0).right, false);
+    t.checkExpect(board.get(0).get(1).left, false);
+    t.checkExpect(board.get(0).get(0).bottom, false);
     this.game1.generateEdgeConnections();
-    t.checkExpect(this.game1.board.get(0).get(0).right, true);
-    t.checkExpect(this.game1.board.get(0).get(1).left, false);
-    t.checkExpect(this.game1.board.get(0).get(0).bottom, true);
+    t.checkExpect(board.get(0).get(0).right, true);
+    t.checkExpect(board.get(0).get(1).left, false);
+    t.checkExpect(board.get(0).get(0).bottom, true);
+  }
+
+  // tests for connectionMask
+  void testConnectionMask(Tester t) {
+    initData();
+    t.checkExpect(new GamePiece(0, 0, false, false, false, false).connectionMask(), 0);
+    t.checkExpect(new GamePiece(0, 0, false, false, true, false).connectionMask(), 1);
+    t.checkExpect(new GamePiece(0, 0, true, true, false, false).connectionMask(), 10);
+    t.checkExpect(new GamePiece(0, 0, true, true, true, true).connectionMask(), 15);
+    t.checkExpect(this.twoByTwo.engine.masks[0], 4);
+    t.checkExpect(this.twoByTwo.engine.masks[1], 3);
+    t.checkExpect(this.game1.connectionMasks(this.grid1)[1], 4);
+  }
+
+  // tests for SquareTopology
+  void testSquareTopology(Tester t) {
+    SquareTopology square = new SquareTopology(3, 2);
+    t.checkExpect(square.cellCount(), 6);
+    t.checkExpect(square.index(1, 1), 3);
+    t.checkExpect(square.colOf(3), 1);
+    t.checkExpect(square.rowOf(3), 1);
+    t.checkExpect(square.offsets[1] - square.offsets[0], 2);
+    t.checkExpect(square.offsets[3] - square.offsets[2], 3);
+    t.checkExpect(square.offsets[6], 14);
+    t.checkExpect(square.targets[square.slotOf(0, 1)], 2);
+    t.checkExpect(square.targets[square.slotOf(0, 2)], 1);
+    t.checkExpect(square.backPorts[square.slotOf(0, 2)], (byte) 0);
+    t.checkExpect(square.slotOf(0, 0), -1);
+    t.checkExpect(square.neighbor(0, 0, 3), -1);
+    t.checkExpect(square.neighbor(2, 1, 0), 4);
+  }
+
+  // tests for TorusTopology
+  void testTorusTopology(Tester t) {
+    TorusTopology torus = new TorusTopology(3, 3);
+    t.checkExpect(torus.offsets[9], 36);
+    t.checkExpect(torus.neighbor(0, 0, 0), 2);
+    t.checkExpect(torus.neighbor(0, 0, 3), 6);
+    t.checkExpect(torus.neighbor(2, 2, 1), 2);
+    t.checkExpect(torus.neighbor(2, 2, 2), 6);
+    t.checkExpect(torus.oppositePort(3), 1);
+  }
+
+  // tests for HexTopology
+  void testHexTopology(Tester t) {
+    HexTopology hex = new HexTopology(3, 3);
+    t.checkExpect(hex.offsets[1] - hex.offsets[0], 2);
+    t.checkExpect(hex.offsets[5] - hex.offsets[4], 6);
+    t.checkExpect(hex.neighbor(0, 0, 1), 3);
+    t.checkExpect(hex.neighbor(0, 0, 2), 1);
+    t.checkExpect(hex.neighbor(0, 0, 3), -1);
+    t.checkExpect(hex.neighbor(1, 1, 0), 6);
+    t.checkExpect(hex.neighbor(1, 1, 3), 5);
+    t.checkExpect(hex.neighbor(1, 1, 5), 3);
+    t.checkExpect(hex.oppositePort(0), 3);
+    t.checkExpect(hex.oppositePort(4), 1);
+  }
+
+  // tests for rotate
+  void testRotateMask(Tester t) {
+    SquareTopology square = new SquareTopology(2, 2);
+    HexTopology hex = new HexTopology(2, 2);
+    t.checkExpect(square.rotate(1, 1), 2);
+    t.checkExpect(square.rotate(8, 1), 1);
+    t.checkExpect(square.rotate(1, -1), 8);
+    t.checkExpect(square.rotate(5, 0), 5);
+    t.checkExpect(hex.rotate(32, 1), 1);
+    t.checkExpect(hex.rotate(1, -1), 32);
+    t.checkExpect(hex.rotate(9, 1), 18);
+  }
+
+  // tests for linked and distances
+  void testDistances(Tester t) {
+    initData();
+    BoardAlgorithms algorithms = new BoardAlgorithms();
+    int[] masks = this.twoByTwo.engine.masks;
+    int[] dist = new int[4];
+    t.checkExpect(algorithms.linked(this.twoByTwo.topology, masks, 0,
+        this.twoByTwo.topology.slotOf(0, 2)), true);
+    t.checkExpect(algorithms.linked(this.twoByTwo.topology, masks, 0,
+        this.twoByTwo.topology.slotOf(0, 1)), false);
+    t.checkExpect(algorithms.distances(this.twoByTwo.topology, masks, 0, dist), 2);
+    t.checkExpect(dist[0], 0);
+    t.checkExpect(dist[1], 1);
+    t.checkExpect(dist[3], 2);
+    t.checkExpect(dist[2], 3);
+    t.checkExpect(algorithms.distances(this.twoByTwo.topology, new int[4], 1, dist), 1);
+    t.checkExpect(dist[0], -1);
+  }
+
+  // tests for diameter and spreadPower
+  void testDiameterAndPower(Tester t) {
+    initData();
+    BoardAlgorithms algorithms = new BoardAlgorithms();
+    int[] masks = this.threeByThreeU.engine.masks;
+    int[] power = new int[9];
+    t.checkExpect(algorithms.diameter(this.threeByThreeU.topology, masks, 0), 6);
+    t.checkExpect(algorithms.diameter(this.threeByThreeU.topology, new int[9], 0), 0);
+    algorithms.spreadPower(this.threeByThreeU.topology, masks, 0, 3, power);
+    t.checkExpect(power[0], 3);
+    t.checkExpect(power[1], 2);
+    t.checkExpect(power[2], 1);
+    t.checkExpect(power[5], 0);
+    t.checkExpect(power[8], 0);
+  }
+
+  // checks that the wiring is a spanning tree: one link fewer than cells, and all connected
+  boolean isSpanningTree(BoardTopology topo, int[] masks) {
+    int ends = 0;
+    for (int mask : masks) {
+      ends += Integer.bitCount(mask);
+    }
+    int[] dist = new int[topo.cellCount()];
+    new BoardAlgorithms().distances(topo, masks, 0, dist);
+    for (int d : dist) {
+      if (d < 0) {
+        return false;
+      }
+    }
+    return ends == 2 * (topo.cellCount() - 1);
+  }
+
+  // tests for spanningTree
+  void testSpanningTree(Tester t) {
+    BoardAlgorithms algorithms = new BoardAlgorithms();
+    SquareTopology square = new SquareTopology(5, 4);
+    TorusTopology torus = new TorusTopology(5, 4);
+    HexTopology hex = new HexTopology(5, 4);
+    t.checkExpect(this.isSpanningTree(square, algorithms.spanningTree(square, new Random(5))),
+        true);
+    t.checkExpect(this.isSpanningTree(torus, algorithms.spanningTree(torus, new Random(5))), true);
+    t.checkExpect(this.isSpanningTree(hex, algorithms.spanningTree(hex, new Random(5))), true);
+    t.checkExpect(this.isSpanningTree(square, new int[20]), false);
+  }
+
+  // tests for find and union
+  void testFindUnion(Tester t) {
+    BoardAlgorithms algorithms = new BoardAlgorithms();
+    int[] parent = algorithms.initParents(4);
+    t.checkExpect(algorithms.find(parent, 2), 2);
+    t.checkExpect(algorithms.union(parent, 0, 1), true);
+    t.checkExpect(algorithms.union(parent, 1, 2), true);
+    t.checkExpect(algorithms.union(parent, 0, 2), false);
+    t.checkExpect(algorithms.find(parent, 0), algorithms.find(parent, 2));
+    t.checkExpect(algorithms.find(parent, 3), 3);
+  }
+
+  // tests for the engine a LightEmAll game is played on
+  void testEngineOfGame(Tester t) {
+    initData();
+    LightEmAllEngine engine = this.twoByTwo.engine;
+    t.checkExpect(engine.masks, engine.solution);
+    t.checkExpect(engine.masks == engine.solution, false);
+    t.checkExpect(engine.powerCell, 0);
+    t.checkExpect(engine.radius, 3);
+    t.checkExpect(engine.power, new int[] { 3, 2, 0, 1 });
+    t.checkExpect(engine.poweredCount, 3);
+    t.checkExpect(engine.isWon(), false);
+    t.checkExpect(engine.gameEnd, 0);
+    t.checkExpect(this.game1.engine.solution[0], 0);
+    t.checkExpect(this.game1.engine.masks[0], 0);
+    t.checkExpect(this.game1.engine.radius, 1);
+  }
+
+  // tests for rotate on the engine, it should match LightEmAll's own clicks
+  void testEngineRotate(Tester t) {
+    initData();
+    LightEmAll clicked = new LightEmAll(5, 3, 2);
+    LightEmAllEngine engine = this.game3.engine;
+    engine.rotate(0, 1);
+    clicked.onMouseClicked(new Posn(0, 0), "LeftButton");
+    t.checkExpect(engine.masks, clicked.engine.masks);
+    t.checkExpect(engine.power, clicked.engine.power);
+    t.checkExpect(engine.score, 1);
+    engine.rotate(0, -1);
+    t.checkExpect(engine.masks[0], 4);
+    t.checkExpect(engine.power[1], engine.radius - 1);
+    t.checkExpect(engine.score, 2);
+  }
+
+  // tests for generate on the engine
+  void testEngineGenerate(Tester t) {
+    LightEmAllEngine square = new LightEmAllEngine(new SquareTopology(4, 4), new Random(2));
+    LightEmAllEngine hex = new LightEmAllEngine(new HexTopology(4, 4), new Random(2));
+    t.checkExpect(this.isSpanningTree(square.topology, square.solution), true);
+    t.checkExpect(this.isSpanningTree(hex.topology, hex.solution), true);
+    t.checkExpect(Integer.bitCount(square.masks[5]), Integer.bitCount(square.solution[5]));
+    t.checkExpect(Integer.bitCount(hex.masks[5]), Integer.bitCount(hex.solution[5]));
+    t.checkExpect(square.score, 0);
+    t.checkExpect(square.powerCell, 0);
+    t.checkExpect(square.power[0], square.radius);
+    t.checkExpect(square.radius > 1, true);
+  }
+
+  // tests for movePower on the engine
+  void testEngineMovePower(Tester t) {
+    initData();
+    LightEmAllEngine engine = this.twoByTwo.engine;
+    t.checkExpect(engine.movePower(1), false);
+    t.checkExpect(engine.movePower(2), true);
+    t.checkExpect(engine.powerCell, 1);
+    t.checkExpect(engine.movePower(1), true);
+    t.checkExpect(engine.powerCell, 3);
+    t.checkExpect(engine.movePower(0), true);
+    t.checkExpect(engine.powerCell, 2);
+    t.checkExpect(engine.power, new int[] { 0, 1, 3, 2 });
+    t.checkExpect(engine.movePower(3), false);
+    t.checkExpect(engine.score, 0);
+  }
+
+  // tests for tick, isWon and checkGameEnd on the engine
+  void testEngineGameEnd(Tester t) {
+    LightEmAllEngine engine = new LightEmAllEngine(new SquareTopology(3, 3), new Random(4));
+    engine.masks = engine.solution.clone();
+    // a corner station only reaches every cell when the radius covers the whole tree
+    engine.radius = 9;
+    engine.updatePower();
+    t.checkExpect(engine.isWon(), true);
+    engine.tick();
+    t.checkExpect(engine.time, 1);
+    t.checkExpect(engine.gameEnd, 1);
+    engine.masks[0] = engine.topology.rotate(engine.masks[0], 2);
+    engine.updatePower();
+    engine.checkGameEnd();
+    t.checkExpect(engine.gameEnd, 0);
+    engine.score = engine.maxScore;
+    engine.checkGameEnd();
+    t.checkExpect(engine.gameEnd, -1);
+  }
+
+  // tests for handle on LightEmAllServer, without a socket
+  void testServerHandle(Tester t) {
+    LightEmAllServer server = new LightEmAllServer(60000);
+    t.checkExpect(server.handle("NEW 3 3 square 7"), "SESSION 1");
+    t.checkExpect(server.handle("NEW 3 2 hex"), "SESSION 2");
+    t.checkExpect(server.handle("NEW 3 3 triangle"), "ERR unknown shape triangle");
+    t.checkExpect(server.handle("NEW 0 3"), "ERR board must be at least 1x1");
+    t.checkExpect(server.handle("NEW 1001 1000"), "ERR board too large");
+    t.checkExpect(server.handle("NEW 2000000000 2000000000"), "ERR board too large");
+    t.checkExpect(server.handle("ROTATE 1 0"), "ERR bad argument");
+    t.checkExpect(server.handle("NEW x 3"), "ERR bad argument");
+    t.checkExpect(server.handle("NEW 3"), "ERR bad argument");
+    t.checkExpect(server.handle("NEW 3 3 square x"), "ERR bad argument");
+    t.checkExpect(server.handle("NEW 3 3 square 7 8"), "ERR bad argument");
+    t.checkExpect(server.handle("ROTATE x y z"), "ERR bad argument");
+    t.checkExpect(server.handle("ROTATE 1 0 1 1"), "ERR bad argument");
+    t.checkExpect(server.handle("ROTATE 1 0 2"), "ERR bad argument");
+    t.checkExpect(server.handle("ROTATE 1 0 0"), "ERR bad argument");
+    t.checkExpect(server.handle("MOVE 1"), "ERR bad argument");
+    t.checkExpect(server.handle("STATE one"), "ERR bad argument");
+    t.checkExpect(server.handle("CLOSE"), "ERR bad argument");
+    t.checkExpect(server.handle("ROTATE 1 99999999999 1"), "ERR no cell 99999999999");
+    t.checkExpect(server.handle("JUMP 1"), "ERR unknown command JUMP");
+    t.checkExpect(server.handle("ROTATE 1 0 1").startsWith("OK 1 "), true);
+    t.checkExpect(server.handle("ROTATE 1 9 1"), "ERR no cell 9");
+    t.checkExpect(server.handle("ROTATE 9 0 1"), "ERR no session");
+    t.checkExpect(server.handle("MOVE 1 7"), "NO");
+    t.checkExpect(server.handle("STATE 2").startsWith("STATE 2 3 2 6 0 0 0 "), true);
+    t.checkExpect(server.handle("STATE 1").split(" ")[10].split(",").length, 9);
+    t.checkExpect(server.handle("CLOSE 2"), "OK");
+    t.checkExpect(server.handle("CLOSE 2"), "ERR no session");
+    server.sessions.get(1L).engine.gameEnd = -1;
+    t.checkExpect(server.handle("ROTATE 1 0 1"), "ERR game over");
+    server.sessions.get(1L).engine = null;
+    t.checkExpect(server.handle("ROTATE 1 0 1"), "ERR internal");
+    t.checkExpect(server.handle("NEW 2 2").startsWith("SESSION "), true);
+    server.maxSessions = 2;
+    t.checkExpect(server.handle("NEW 2 2"), "ERR too many sessions");
+    t.checkExpect(server.handle("CLOSE 1"), "OK");
+    t.checkExpect(server.handle("NEW 2 2").startsWith("SESSION "), true);
+  }
+
+  // tests for evictIdle on LightEmAllServer
+  void testServerEvictIdle(Tester t) {
+    LightEmAllServer server = new LightEmAllServer(1000);
+    server.handle("NEW 2 2");
+    server.handle("NEW 2 2");
+    long now = System.nanoTime();
+    server.sessions.get(1L).lastUsed = now - 2000000000L;
+    t.checkExpect(server.evictIdle(now), 1);
+    t.checkExpect(server.sessions.containsKey(1L), false);
+    t.checkExpect(server.sessions.containsKey(2L), true);
+    t.checkExpect(server.evictIdle(now), 0);
+  }
+
+  // tests for percentile and report on LightEmAllLoadTest
+  void testLoadTestReport(Tester t) {
+    LightEmAllLoadTest test = new LightEmAllLoadTest(2, 2, 3);
+    test.latencies = new long[] { 4000, 1000, 3000, 2000 };
+    long[] sorted = new long[] { 1000, 2000, 3000, 4000 };
+    t.checkExpect(test.percentile(sorted, 0.5), 2.0);
+    t.checkExpect(test.percentile(sorted, 0.99), 4.0);
+    t.checkExpect(test.report(1000000000L), "2 clients x 2 moves on 3x3 boards: p50 2.0 us, "
+        + "p99 4.0 us, max 4.0 us, 4 moves/s, 0 failed moves, 0 errors");
+    test.latencies = new long[] { -1, 1000, -1, 2000 };
+    test.errors.set(1);
+    t.checkExpect(test.report(1000000000L), "2 clients x 2 moves on 3x3 boards: p50 1.0 us, "
+        + "p99 2.0 us, max 2.0 us, 2 moves/s, 2 failed moves, 1 errors");
+    t.checkExpect(test.percentile(new long[0], 0.5), 0.0);
+  }
+
+  // tests for update and nextCell on HintEngine
+  void testHintEngineUpdate(Tester t) {
+    // a straight line of three pieces, solved as right, left and right, left
+    SquareTopology line = new SquareTopology(3, 1);
+    HintEngine hints = new HintEngine(line, new int[] { 2, 10, 8 }, new int[3], 0);
+    t.checkExpect(hints.size, 3);
+    t.checkExpect(hints.nextCell(), 0);
+    hints.update(0, 2);
+    t.checkExpect(hints.nextCell(), 1);
+    hints.update(2, 8);
+    t.checkExpect(hints.nextCell(), 1);
+    hints.update(0, 4);
+    t.checkExpect(hints.nextCell(), 0);
+    hints.update(0, 2);
+    hints.update(1, 10);
+    t.checkExpect(hints.nextCell(), -1);
+    t.checkExpect(hints.size, 0);
+    hints.reset(new int[] { 2, 10, 1 }, 2);
+    t.checkExpect(hints.nextCell(), 2);
+    t.checkExpect(hints.position[2], 0);
+    t.checkExpect(hints.position[0], -1);
+  }
+
+  // tests for the heap ordering of HintEngine
+  void testHintEngineOrder(Tester t) {
+    SquareTopology line = new SquareTopology(5, 1);
+    HintEngine hints = new HintEngine(line, new int[] { 2, 10, 10, 10, 8 }, new int[5], 2);
+    t.checkExpect(hints.dist, new int[] { 2, 1, 0, 1, 2 });
+    t.checkExpect(hints.nextCell(), 2);
+    hints.update(2, 10);
+    t.checkExpect(hints.nextCell(), 1);
+    hints.update(1, 10);
+    t.checkExpect(hints.nextCell(), 3);
+    hints.update(3, 10);
+    t.checkExpect(hints.nextCell(), 0);
+    hints.update(0, 2);
+    t.checkExpect(hints.nextCell(), 4);
+    // cells the solution can't reach from the station go last
+    HintEngine broken = new HintEngine(line, new int[] { 2, 8, 2, 10, 8 }, new int[5], 4);
+    t.checkExpect(broken.nextCell(), 4);
+    broken.update(4, 8);
+    broken.update(3, 10);
+    broken.update(2, 2);
+    t.checkExpect(broken.nextCell(), 0);
+  }
+
+  // tests for direction on HintEngine
+  void testHintEngineDirection(Tester t) {
+    HintEngine square = new HintEngine(new SquareTopology(2, 1), new int[] { 2, 8 }, new int[2],
+        0);
+    HintEngine hex = new HintEngine(new HexTopology(2, 1), new int[] { 2, 16 }, new int[2], 0);
+    t.checkExpect(square.direction(0, 2), 0);
+    t.checkExpect(square.direction(0, 1), 1);
+    t.checkExpect(square.direction(0, 4), -1);
+    t.checkExpect(square.direction(0, 8), 1);
+    t.checkExpect(square.direction(0, 3), 1);
+    t.checkExpect(hex.direction(0, 1), 1);
+    t.checkExpect(hex.direction(0, 32), 1);
+    t.checkExpect(hex.direction(0, 8), -1);
+    t.checkExpect(hex.direction(1, 16), 0);
+  }
+
+  // tests for the hints of a LightEmAll game
+  void testLightEmAllHints(Tester t) {
+    LightEmAll game = new LightEmAll(4, 4, 3, new Random(6));
+    t.checkExpect(game.hints.solution, game.engine.solution);
+    t.checkExpect(this.isSpanningTree(game.topology, game.engine.solution), true);
+    int mismatched = 0;
+    for (int i = 0; i < game.engine.masks.length; i++) {
+      if (game.engine.masks[i] != game.engine.solution[i]) {
+        mismatched++;
+      }
+    }
+    t.checkExpect(game.hints.size, mismatched);
+    t.checkExpect(game.hintCell, -1);
+    game.onKeyEvent("h");
+    int hint = game.hintCell;
+    t.checkExpect(hint, game.hints.nextCell());
+    String button = game.hints.direction(hint, game.engine.masks[hint]) > 0 ? "LeftButton"
+        : "RightButton";
+    while (game.engine.masks[hint] != game.engine.solution[hint]) {
+      game.onMouseClicked(new Posn(game.topology.colOf(hint) * LightEmAll.CELL_SIZE,
+          game.topology.rowOf(hint) * LightEmAll.CELL_SIZE), button);
+    }
+    t.checkExpect(game.hintCell, -1);
+    t.checkExpect(game.hints.size, mismatched - 1);
+    t.checkExpect(game.hints.position[hint], -1);
+  }
+
+  // tests for the hints of manual and fractal boards, which start out solved
+  void testLightEmAllHintsUnscrambled(Tester t) {
+    initData();
+    t.checkExpect(this.tenByTen.hints.solution, this.tenByTen.engine.masks);
+    t.checkExpect(this.tenByTen.hints.nextCell(), -1);
+    t.checkExpect(this.game3.hints.solution, this.game3.engine.masks);
+    t.checkExpect(this.game3.hints.nextCell(), -1);
+    this.game3.onMouseClicked(new Posn(0, 0), "LeftButton");
+    t.checkExpect(this.game3.hints.nextCell(), 0);
+    t.checkExpect(this.game3.hints.direction(0, this.game3.engine.masks[0]), -1);
+    this.game3.onKeyEvent("h");
+    t.checkExpect(this.game3.hintCell, 0);
+    WorldImage outline = new RectangleImage(LightEmAll.CELL_SIZE, LightEmAll.CELL_SIZE,
+        OutlineMode.OUTLINE, Color.RED);
+    t.checkExpect(this.game3.drawHint(),
+        new OverlayImage(new TextImage("\u21ba", LightEmAll.CELL_SIZE / 2, Color.RED), outline));
+    this.game3.onMouseClicked(new Posn(0, 0), "LeftButton");
+    this.game3.onMouseClicked(new Posn(0, 0), "LeftButton");
+    this.game3.hintCell = 0;
+    t.checkExpect(this.game3.drawHint(),
+        new OverlayImage(new TextImage("\u21bb", LightEmAll.CELL_SIZE / 2, Color.RED), outline));
+    this.game3.onMouseClicked(new Posn(0, 0), "LeftButton");
+    this.game3.hintCell = 0;
+    t.checkExpect(this.game3.drawHint(), outline);
   }
 
   // tests for bigBang, will render the game
@@ -1,7 +1,4 @@
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 
 import javalib.worldimages.OutlineMode;
 import javalib.worldimages.OverlayImage;
@@ -25,10 +22,9 @@ class GamePiece {
   // whether the power station is on this piece
   boolean powerStation;
   int powerLevel;
-  HashMap<String, GamePiece> neighbors;
 
-  GamePiece(int row, int col, HashMap<String, GamePiece> neighbors, boolean left, boolean right,
-      boolean top, boolean bottom, boolean powerStation, int powerLevel) {
+  GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
+      boolean powerStation, int powerLevel) {
     this.row = row;
     this.col = col;
     this.left = left;
@@ -37,17 +33,11 @@ class GamePiece {
     this.bottom = bottom;
     this.powerStation = powerStation;
     this.powerLevel = powerLevel;
-    this.neighbors = neighbors;
-    this.neighbors.put("left", null);
-    this.neighbors.put("right", null);
-    this.neighbors.put("top", null);
-    this.neighbors.put("bottom", null);
-
   }
 
   GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
       boolean powerStation) {
-    this(row, col, new HashMap<String, GamePiece>(), left, right, top, bottom, powerStation, 0);
+    this(row, col, left, right, top, bottom, powerStation, 0);
 
   }
 
@@ -66,43 +56,44 @@ class GamePiece {
   }
 
   // draws the GamePiece
-  public WorldImage drawPiece(int radius) {
+  public WorldImage drawPiece(PowerPalette palette) {
+    return GamePiece.draw(this.connectionMask(), this.powerLevel, this.powerStation, palette);
+  }
+
+  // draws a piece with the given connection mask (top 1, right 2, bottom 4, left 8),
+  // so the board can be drawn straight from the engine's arrays
+  static WorldImage draw(int mask, int powerLevel, boolean powerStation, PowerPalette palette) {
     WorldImage base = new RectangleImage(LightEmAll.CELL_SIZE, LightEmAll.CELL_SIZE,
         OutlineMode.SOLID, Color.darkGray);
     WorldImage connection = new RectangleImage((int) LightEmAll.CELL_SIZE / 8,
-        (int) LightEmAll.CELL_SIZE / 2, OutlineMode.SOLID, calcColor(radius)).movePinhole(0,
-            (int) LightEmAll.CELL_SIZE / 4);
-    if (this.top) {
+        (int) LightEmAll.CELL_SIZE / 2, OutlineMode.SOLID, palette.colorFor(powerLevel))
+            .movePinhole(0, (int) LightEmAll.CELL_SIZE / 4);
+    if ((mask & 1) != 0) {
       base = new OverlayImage(connection, base);
     }
     base = new RotateImage(base, 90.0);
-    if (this.left) {
+    if ((mask & 8) != 0) {
       base = new OverlayImage(connection, base);
     }
     base = new RotateImage(base, 90.0);
-    if (this.bottom) {
+    if ((mask & 4) != 0) {
       base = new OverlayImage(connection, base);
     }
     base = new RotateImage(base, 90.0);
-    if (this.right) {
+    if ((mask & 2) != 0) {
       base = new OverlayImage(connection, base);
     }
     base = new RotateImage(base, 90.0);
-    if (this.powerStation) {
+    if (powerStation) {
       base = new OverlayImage(
           new StarImage((LightEmAll.CELL_SIZE / 2.5), 8, 2, OutlineMode.SOLID, Color.ORANGE), base);
     }
     return base;
   }
 
-  // gradient color functionality
-  public Color calcColor(int radius) {
-    if (powerLevel > 0) {
-      return new Color(255, 255, 0, (255 / radius * this.powerLevel));
-    }
-    else {
-      return Color.GRAY;
-    }
+  // gradient color functionality, looked up from the palette of the board's radius
+  public Color calcColor(PowerPalette palette) {
+    return palette.colorFor(this.powerLevel);
   }
 
   // rotates the GamePiece
@@ -125,51 +116,22 @@ class GamePiece {
     }
   }
 
-  // adds this gamePiece to the neighbors
-  void updateNeighbor(String location, GamePiece neighbor) {
-    this.neighbors.replace(location, neighbor);
-  }
-
-  // tests if the passed in piece is the same, mainly used for testing
-  public Object samePiece(GamePiece that) {
-    return this.row == that.row && this.col == that.col && this.left == that.left
-        && this.right == that.right && this.top == that.top && this.bottom == that.bottom
-        && this.powerStation == that.powerStation && this.powerLevel == that.powerLevel;
-  }
-
-  // checks if this GamePiece is connected to the piece in the given direction
-  public boolean isConnectedTo(String direction) {
-    if (this.neighbors.get(direction) != null) {
-      if (direction.equals("top")) {
-        return this.neighbors.get(direction).bottom && this.top;
-      }
-      if (direction.equals("bottom")) {
-        return this.neighbors.get(direction).top && this.bottom;
-      }
-      if (direction.equals("left")) {
-        return this.neighbors.get(direction).right && this.left;
-      }
-      if (direction.equals("right")) {
-        return this.neighbors.get(direction).left && this.right;
-      }
+  // the sides this piece connects through, as SquareTopology port bits
+  public int connectionMask() {
+    int mask = 0;
+    if (this.top) {
+      mask |= 1;
     }
-    return false;
-  }
-
-  // sends power thru the neighbors if possible
-  public void powerNeighbors(ArrayList<GamePiece> seen) {
-    seen.add(this);
-    ArrayList<String> directions = new ArrayList<String>(
-        Arrays.asList("left", "right", "top", "bottom"));
-    if (this.powerLevel > 0) {
-      int neighborPowerLevel = this.powerLevel - 1;
-      for (String dir : directions) { // for each direction that a GamePiece has
-        // if it has a connection in that direction and has not been seen
-        if (this.isConnectedTo(dir) && !seen.contains(this.neighbors.get(dir))) {
-          this.neighbors.get(dir).powerLevel = neighborPowerLevel;
-          this.neighbors.get(dir).powerNeighbors(seen);
-        }
-      }
+    if (this.right) {
+      mask |= 2;
     }
+    if (this.bottom) {
+      mask |= 4;
+    }
+    if (this.left) {
+      mask |= 8;
+    }
+    return mask;
   }
-}
\ No newline at end of file
+
+}
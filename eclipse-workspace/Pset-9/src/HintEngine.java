@@ -0,0 +1,141 @@
+// keeps every cell whose wiring disagrees with the solution in a min-heap ordered by how far
+// the cell is from the power station along the solution, so the next hint is always the
+// mismatched cell closest to where power stops
+class HintEngine {
+  BoardTopology topology;
+  BoardAlgorithms algorithms;
+  // the solved wiring of every cell
+  int[] solution;
+  // distance from the power station to every cell along the solution's wires
+  int[] dist;
+  // the mismatched cells, heap ordered by dist and then by index
+  int[] heap;
+  int size;
+  // where each cell sits in the heap, -1 if it is not mismatched
+  int[] position;
+
+  HintEngine(BoardTopology topology, int[] solution, int[] masks, int station) {
+    this.topology = topology;
+    this.algorithms = new BoardAlgorithms();
+    this.solution = solution;
+    this.dist = new int[solution.length];
+    this.heap = new int[solution.length];
+    this.position = new int[solution.length];
+    this.reset(masks, station);
+  }
+
+  // EFFECT: rebuilds the heap from scratch, needed when the power station moves
+  void reset(int[] masks, int station) {
+    this.algorithms.distances(this.topology, this.solution, station, this.dist);
+    this.size = 0;
+    for (int cell = 0; cell < masks.length; cell++) {
+      if (masks[cell] != this.solution[cell]) {
+        this.position[cell] = this.size;
+        this.heap[this.size++] = cell;
+      }
+      else {
+        this.position[cell] = -1;
+      }
+    }
+    for (int i = this.size / 2 - 1; i >= 0; i--) {
+      this.siftDown(i);
+    }
+  }
+
+  // EFFECT: records the new wiring of a cell that was just rotated
+  void update(int cell, int mask) {
+    boolean mismatched = mask != this.solution[cell];
+    if (mismatched && this.position[cell] < 0) {
+      this.position[cell] = this.size;
+      this.heap[this.size++] = cell;
+      this.siftUp(this.size - 1);
+    }
+    else if (!mismatched && this.position[cell] >= 0) {
+      int slot = this.position[cell];
+      this.size--;
+      this.position[cell] = -1;
+      if (slot < this.size) {
+        this.heap[slot] = this.heap[this.size];
+        this.position[this.heap[slot]] = slot;
+        this.siftDown(slot);
+        this.siftUp(slot);
+      }
+    }
+  }
+
+  // the mismatched cell closest to the power station, or -1 if the board is solved
+  int nextCell() {
+    if (this.size == 0) {
+      return -1;
+    }
+    return this.heap[0];
+  }
+
+  // which way to turn the given cell to reach the solution in the fewest rotations,
+  // 1 for clockwise, -1 for counter clockwise and 0 if it already matches
+  int direction(int cell, int mask) {
+    int clockwise = mask;
+    for (int turns = 0; turns < this.topology.portCount; turns++) {
+      if (clockwise == this.solution[cell]) {
+        if (turns == 0) {
+          return 0;
+        }
+        else if (turns <= this.topology.portCount / 2) {
+          return 1;
+        }
+        else {
+          return -1;
+        }
+      }
+      clockwise = this.topology.rotate(clockwise, 1);
+    }
+    return 1; // the solution can't be reached by turning, any turn is as good as another
+  }
+
+  // should the cell in heap slot a come out before the cell in heap slot b
+  boolean before(int a, int b) {
+    int cellA = this.heap[a];
+    int cellB = this.heap[b];
+    // unreachable cells have a distance of -1, they go last
+    long keyA = ((long) (this.dist[cellA] & Integer.MAX_VALUE) << 32) | cellA;
+    long keyB = ((long) (this.dist[cellB] & Integer.MAX_VALUE) << 32) | cellB;
+    return keyA < keyB;
+  }
+
+  // EFFECT: moves the cell in the given slot up until its parent comes before it
+  void siftUp(int slot) {
+    while (slot > 0 && this.before(slot, (slot - 1) / 2)) {
+      this.swap(slot, (slot - 1) / 2);
+      slot = (slot - 1) / 2;
+    }
+  }
+
+  // EFFECT: moves the cell in the given slot down until it comes before both children
+  void siftDown(int slot) {
+    while (true) {
+      int first = slot;
+      int left = 2 * slot + 1;
+      int right = left + 1;
+      if (left < this.size && this.before(left, first)) {
+        first = left;
+      }
+      if (right < this.size && this.before(right, first)) {
+        first = right;
+      }
+      if (first == slot) {
+        return;
+      }
+      this.swap(slot, first);
+      slot = first;
+    }
+  }
+
+  // EFFECT: swaps two heap slots and keeps the positions in step
+  void swap(int a, int b) {
+    int cell = this.heap[a];
+    this.heap[a] = this.heap[b];
+    this.heap[b] = cell;
+    this.position[this.heap[a]] = a;
+    this.position[this.heap[b]] = b;
+  }
+}
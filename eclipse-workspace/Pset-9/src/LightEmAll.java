@@ -1,11 +1,7 @@
 import java.awt.Color;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import javalib.impworld.World;
@@ -18,32 +14,26 @@ import javalib.worldimages.TextImage;
 import javalib.worldimages.WorldEnd;
 import javalib.worldimages.WorldImage;
 
-// game state and main game class
+// the playable game, builds a board and draws it, every rule is left to a LightEmAllEngine
 class LightEmAll extends World {
 
-  // a list of columns of GamePieces,
-  // i.e., represents the board in column-major order
-  ArrayList<ArrayList<GamePiece>> board;
-  // a list of all nodes
-  ArrayList<GamePiece> nodes;
   // a list of edges of the minimum spanning tree
   ArrayList<Edge> mst;
+  // the adjacency arrays of the board's shape, used by every traversal
+  BoardTopology topology;
   // the width and height of the board
   int width; // column count
   int height; // row count
-  // the current location of the power station,
-  // as well as its effective radius
-  int powerRow; // row to place the powerStation
-  int powerCol; // column to place the powerStation
-  int radius; // radius of the game's graph, also how far power will reach outward
   Random rand; // random for all random game elements
-  int score; // number of rotations the player does
-  int gameEnd; // 0 is ongoing, -1 is a loss, 1 is a win
-  int time; // counts time every tick, tickrate of 1 will advance the clock every second
+  // the wiring, power, station, score, clock and win/loss of the game being played
+  LightEmAllEngine engine;
+  PowerPalette palette; // the wire colors for the engine's radius
   public static int CELL_SIZE = 40; // size of each cell
+  // the key that moves the power station through each side, in SquareTopology order
+  String[] moveKeys = new String[] { "up", "right", "down", "left" };
 
-  int maxScore = 20; // max number of rotations before you lose
-  int maxTime = 240; // max number of ticks before you lose (divide by 1/tickrate for second value)
+  HintEngine hints; // finds the next piece to turn
+  int hintCell = -1; // index of the piece the last hint pointed at, -1 if none is shown
 
   // the default gameplay constructor
   LightEmAll(int width, int height) {
@@ -55,117 +45,75 @@ class LightEmAll extends World {
     this(width, height, genType, new Random());
   }
 
-  // constructor for generating different types of boards but you pass in a random
+  // constructor for generating different types of boards but you pass in a random,
+  // -1 (or any other type) is a blank board with no connections
   LightEmAll(int width, int height, int genType, Random rand) {
-    if (genType == -1) { // this will just make a blank board, no connections or neighbors
-      this.rand = rand;
-      this.width = width;
-      this.height = height;
-      this.powerRow = 0;
-      this.powerCol = 0;
-      this.board = this.generateBoard();
-      this.nodes = this.grabAllNodes();
-      this.mst = generateMST(generateAllPossibleEdges(this.board));
-      this.score = 0;
-      this.radius = (this.calcDiameter() / 2) + 1;
-      this.gameEnd = 0;
-      this.time = 0;
-    }
-    else if (genType == 1) { // manual board generation
-      this.rand = rand;
-      this.width = width;
-      this.height = height;
-      this.powerRow = 0;
-      this.powerCol = 0;
-      this.board = this.generateBoard();
-      this.nodes = this.grabAllNodes();
-      this.mst = generateMST(generateAllPossibleEdges(this.board));
-      this.score = 0;
-      generateManualConnections();
-      updateAllNeighbors();
-      this.radius = (this.calcDiameter() / 2) + 1;
-      updatePower(this.board);
-      this.gameEnd = 0;
-      this.time = 0;
+    this.topology = new SquareTopology(width, height);
+    this.rand = rand;
+    this.width = width;
+    this.height = height;
+    ArrayList<ArrayList<GamePiece>> board = this.generateBoard();
+    this.mst = generateMST(generateAllPossibleEdges(board));
+    if (genType == 1) { // manual board generation
+      generateManualConnections(board);
     }
     else if (genType == 2) { // fractal board generation
-      this.rand = rand;
-      this.width = width;
-      this.height = height;
-      this.powerRow = 0;
-      this.powerCol = 0;
-      this.board = this.generateBoard();
-      this.nodes = this.grabAllNodes();
-      this.mst = generateMST(generateAllPossibleEdges(this.board));
-      this.score = 0;
-      generateFractalConnections(new Posn(0, 0), this.board);
-      updateAllNeighbors();
-      this.radius = (this.calcDiameter() / 2) + 1;
-      updatePower(this.board);
-      this.gameEnd = 0;
-      this.time = 0;
+      generateFractalConnections(new Posn(0, 0), board);
     }
-
     else if (genType == 3) { // random board generation
-      this.rand = rand;
-      this.width = width;
-      this.height = height;
-      this.powerRow = 0;
-      this.powerCol = 0;
-      this.board = this.generateBoard();
-      this.nodes = this.grabAllNodes();
-      this.mst = generateMST(generateAllPossibleEdges(this.board));
-      this.score = 0;
-      this.radius = (this.calcDiameter() / 2) + 1;
       generateEdgeConnections();
-      updateAllNeighbors();
-      this.radius = (this.calcDiameter() / 2) + 1;
-      randomizeGrid(this.nodes);
-      updatePower(this.board);
-      this.gameEnd = 0;
-      this.time = 0;
     }
+    // the wiring as generated is the solution, whichever way it was made
+    int[] solved = this.connectionMasks(board);
+    if (genType == 3) {
+      randomizeGrid(this.grabAllNodes(board));
+    }
+    this.engine = new LightEmAllEngine(this.topology, solved, this.connectionMasks(board),
+        this.rand);
+    this.palette = new PowerPalette(this.engine.radius);
+    this.hints = new HintEngine(this.topology, solved, this.engine.masks,
+        this.engine.powerCell);
   }
 
   // will grab all the boards cells, left to right, then top to bottom
-  public ArrayList<GamePiece> grabAllNodes() {
+  public ArrayList<GamePiece> grabAllNodes(ArrayList<ArrayList<GamePiece>> board) {
     ArrayList<GamePiece> allNodes = new ArrayList<GamePiece>();
     for (int c = 0; c < this.width; c++) {
       for (int r = 0; r < this.height; r++) {
-        allNodes.add(this.board.get(c).get(r));
+        allNodes.add(board.get(c).get(r));
       }
     }
     return allNodes;
   }
 
-  // creates manual connections
-  public void generateManualConnections() {
+  // creates manual connections on the given board
+  public void generateManualConnections(ArrayList<ArrayList<GamePiece>> board) {
     int middleColIndex = (int) Math.floor(this.width / 2);
     for (int c = 0; c < this.width; c++) {
       for (int r = 0; r < this.height; r++) {
         if (c == 0) { // left column
-          this.board.get(c).get(r).left = false;
-          this.board.get(c).get(r).right = true;
-          this.board.get(c).get(r).top = false;
-          this.board.get(c).get(r).bottom = false;
+          board.get(c).get(r).left = false;
+          board.get(c).get(r).right = true;
+          board.get(c).get(r).top = false;
+          board.get(c).get(r).bottom = false;
         }
         else if (c == middleColIndex) { // middle column
-          this.board.get(c).get(r).left = true;
-          this.board.get(c).get(r).right = true;
-          this.board.get(c).get(r).top = true;
-          this.board.get(c).get(r).bottom = true;
+          board.get(c).get(r).left = true;
+          board.get(c).get(r).right = true;
+          board.get(c).get(r).top = true;
+          board.get(c).get(r).bottom = true;
         }
         else if ((c + 1) == this.width) { // right column
-          this.board.get(c).get(r).left = true;
-          this.board.get(c).get(r).right = false;
-          this.board.get(c).get(r).top = false;
-          this.board.get(c).get(r).bottom = false;
+          board.get(c).get(r).left = true;
+          board.get(c).get(r).right = false;
+          board.get(c).get(r).top = false;
+          board.get(c).get(r).bottom = false;
         }
         else { // all other columns
-          this.board.get(c).get(r).left = true;
-          this.board.get(c).get(r).right = true;
-          this.board.get(c).get(r).top = false;
-          this.board.get(c).get(r).bottom = false;
+          board.get(c).get(r).left = true;
+          board.get(c).get(r).right = true;
+          board.get(c).get(r).top = false;
+          board.get(c).get(r).bottom = false;
         }
       }
     }
@@ -354,58 +302,45 @@ class LightEmAll extends World {
 
   // handles clicks
   public void onMouseClicked(Posn mouse, String button) {
-    GamePiece clicked = locatePiece(mouse);
+    int clicked = this.locateCell(mouse);
+    if (clicked < 0) { // the scoreboard, or outside the window
+      return;
+    }
     if (button.equals("LeftButton")) { // rotate it clockwise
-      clicked.rotatePiece(1);
-      this.score++; // updates the score when a valid move is executed
+      this.engine.rotate(clicked, 1);
     }
     else if (button.equals("RightButton")) { // rotate it counter clockwise
-      clicked.rotatePiece(-1);
-      this.score++; // updates the score when a valid move is executed
+      this.engine.rotate(clicked, -1);
     }
-    updateAllNeighbors();
-    updatePower(this.board);
-    checkGameEnd(this.nodes, this.score, this.time);
+    this.hints.update(clicked, this.engine.masks[clicked]);
+    this.hintCell = -1;
   }
 
-  // adds all the neighbors to each cell of the game board
-  public void updateAllNeighbors() {
-    // resets all connections
-    for (GamePiece g : nodes) {
-      g.updateNeighbor("top", null);
-      g.updateNeighbor("right", null);
-      g.updateNeighbor("bottom", null);
-      g.updateNeighbor("left", null);
+  // finds the index of the cell at the given posn, -1 if the posn is off the board
+  public int locateCell(Posn mouse) {
+    if (mouse.x < 0 || mouse.y < 0) {
+      return -1;
     }
-    for (int c = 0; c < this.width; c++) {
-      // column value
-      int left = c - 1;
-      int right = c + 1;
-      for (int r = 0; r < this.height; r++) {
-        // row value
-        int top = r - 1;
-        int bottom = r + 1;
-        if (top >= 0) {
-          this.board.get(c).get(r).updateNeighbor("top", this.board.get(c).get(top));
-        }
-        if (bottom < this.height) {
-          this.board.get(c).get(r).updateNeighbor("bottom", this.board.get(c).get(bottom));
-        }
-        if (left >= 0) {
-          this.board.get(c).get(r).updateNeighbor("left", this.board.get(left).get(r));
-        }
-        if (right < this.width) {
-          this.board.get(c).get(r).updateNeighbor("right", this.board.get(right).get(r));
-        }
-      }
+    int row = mouse.y / LightEmAll.CELL_SIZE;
+    int col = mouse.x / LightEmAll.CELL_SIZE;
+    if (row >= this.height || col >= this.width) {
+      return -1;
     }
+    return this.topology.index(col, row);
+  }
+
+  // draws the given cell straight from the engine's masks and power levels
+  public WorldImage drawCell(int cell) {
+    return GamePiece.draw(this.engine.masks[cell], this.engine.power[cell],
+        cell == this.engine.powerCell, this.palette);
   }
 
-  // finds the cell at the given posn
-  public GamePiece locatePiece(Posn mouse) {
-    int row = (int) Math.floor(mouse.y / LightEmAll.CELL_SIZE);
-    int col = (int) Math.floor(mouse.x / LightEmAll.CELL_SIZE);
-    return this.board.get(col).get(row);
+  // the piece in the given cell as the engine has it, for inspecting a single cell
+  public GamePiece pieceAt(int cell) {
+    int mask = this.engine.masks[cell];
+    return new GamePiece(this.topology.rowOf(cell), this.topology.colOf(cell), (mask & 8) != 0,
+        (mask & 2) != 0, (mask & 1) != 0, (mask & 4) != 0, cell == this.engine.powerCell,
+        this.engine.power[cell]);
   }
 
   // draws the scene
@@ -415,7 +350,7 @@ class LightEmAll extends World {
     WorldScene gameScene = new WorldScene(0, 0);
     // a scoreboard to be displayed at the bottom
     WorldImage scoreBoard = new OverlayImage(
-        new TextImage(Integer.toString(this.score), LightEmAll.CELL_SIZE, Color.GREEN),
+        new TextImage(Integer.toString(this.engine.score), LightEmAll.CELL_SIZE, Color.GREEN),
         new OverlayImage(
             new RectangleImage(3 * CELL_SIZE, (int) 1.2 * CELL_SIZE, OutlineMode.SOLID,
                 Color.black),
@@ -424,136 +359,91 @@ class LightEmAll extends World {
     for (int c = 0; c < this.width; c++) {
       for (int r = 0; r < this.height; r++) {
         gameScene.placeImageXY(
-            this.board.get(c).get(r).drawPiece(this.radius)
+            this.drawCell(this.topology.index(c, r))
                 .movePinhole((-.5 * LightEmAll.CELL_SIZE), (-.5 * LightEmAll.CELL_SIZE)),
             (c * LightEmAll.CELL_SIZE), (r * LightEmAll.CELL_SIZE));
       }
     }
+    // outlines the hinted piece
+    if (this.hintCell >= 0) {
+      gameScene.placeImageXY(
+          this.drawHint().movePinhole((-.5 * LightEmAll.CELL_SIZE), (-.5 * LightEmAll.CELL_SIZE)),
+          this.topology.colOf(this.hintCell) * LightEmAll.CELL_SIZE,
+          this.topology.rowOf(this.hintCell) * LightEmAll.CELL_SIZE);
+    }
     // combines the boards
     gameScene.placeImageXY(scoreBoard, boardWidth / 2, boardHeight + CELL_SIZE);
     // displays restart instructions
     gameScene.placeImageXY(new TextImage("Press space to restart.", 10, Color.BLACK),
         boardWidth / 2, boardHeight + (CELL_SIZE / 4));
     gameScene.placeImageXY(
-        new TextImage("Time: " + Integer.toString((int) (this.time / 4)), 10, Color.BLACK),
+        new TextImage("Time: " + Integer.toString((int) (this.engine.time / 4)), 10,
+            Color.BLACK),
         boardWidth / 2, boardHeight + CELL_SIZE + (3 * (CELL_SIZE / 4)));
     return gameScene;
   }
 
+  // a red outline for the hinted piece, with an arrow showing which way to turn it
+  public WorldImage drawHint() {
+    WorldImage outline = new RectangleImage(LightEmAll.CELL_SIZE, LightEmAll.CELL_SIZE,
+        OutlineMode.OUTLINE, Color.RED);
+    int dir = this.hints.direction(this.hintCell, this.engine.masks[this.hintCell]);
+    if (dir == 0) {
+      return outline;
+    }
+    // clockwise is a left click, counter clockwise a right click
+    String arrow = dir > 0 ? "\u21bb" : "\u21ba";
+    return new OverlayImage(new TextImage(arrow, LightEmAll.CELL_SIZE / 2, Color.RED), outline);
+  }
+
   // restarts the game
   public void restartGame() {
     LightEmAll newGame = new LightEmAll(this.width, this.height);
-    this.board = newGame.board;
-    this.nodes = newGame.nodes;
     this.mst = newGame.mst;
+    this.topology = newGame.topology;
+    this.engine = newGame.engine;
+    this.palette = newGame.palette;
+    this.hints = newGame.hints;
+    this.hintCell = newGame.hintCell;
     this.width = newGame.width;
     this.height = newGame.height;
-    this.powerRow = newGame.powerRow;
-    this.powerCol = newGame.powerCol;
-    this.radius = newGame.radius;
     this.rand = newGame.rand;
-    this.score = newGame.score;
-    this.gameEnd = newGame.gameEnd;
-    this.time = newGame.time;
   }
 
-  // powers the board
-  public void updatePower(ArrayList<ArrayList<GamePiece>> targetBoard) {
-    // resets the power levels
-    for (GamePiece g : this.nodes) {
-      g.powerLevel = 0;
+  // the connection mask of every piece of the given board, by topology index
+  public int[] connectionMasks(ArrayList<ArrayList<GamePiece>> targetBoard) {
+    int[] masks = new int[this.topology.cellCount()];
+    for (int i = 0; i < masks.length; i++) {
+      masks[i] = targetBoard.get(this.topology.colOf(i)).get(this.topology.rowOf(i))
+          .connectionMask();
     }
-    targetBoard.get(powerCol).get(powerRow).powerStation = true; // sets the station
-    targetBoard.get(powerCol).get(powerRow).powerLevel = this.radius; // sets power level
-    // passes power to all neighbors
-    targetBoard.get(powerCol).get(powerRow).powerNeighbors(new ArrayList<GamePiece>());
-  }
-
-  // grabs the farthest reachable node from the given node
-  public GamePiece getFarthestNode(GamePiece startNode) {
-    HashMap<GamePiece, Integer> distMap = generateDistanceMap(startNode);
-    GamePiece farthestNode = startNode;
-    int max = 0;
-    // iterates over every entry in the distance map
-    for (Map.Entry<GamePiece, Integer> entry : distMap.entrySet()) {
-      GamePiece key = entry.getKey();
-      Integer value = entry.getValue();
-      // if the distance is larger, it will make that the farthest node and update the max
-      if (value > max) {
-        max = value;
-        farthestNode = key;
-      }
-    }
-    return farthestNode;
-  }
-
-  // calculates the diameter of this game
-  public int calcDiameter() {
-    // grabs the farthest node from the powerStation
-    GamePiece farthestFromPower = this.getFarthestNode(this.board.get(powerCol).get(powerRow));
-    // grabs the farthest node from whatever node that returns ^
-    GamePiece farthestSecond = this.getFarthestNode(farthestFromPower);
-    // add 1 to count the start node
-    return generateDistanceMap(farthestFromPower).get(farthestSecond) + 1;
-  }
-
-  // creates a distance map of all the GamePieces reachable from the passed in GamePiece
-  public HashMap<GamePiece, Integer> generateDistanceMap(GamePiece startNode) {
-    ArrayList<String> directions = new ArrayList<String>(
-        Arrays.asList("left", "right", "top", "bottom"));
-    ArrayDeque<GamePiece> queue = new ArrayDeque<GamePiece>();
-    ArrayList<GamePiece> seen = new ArrayList<GamePiece>();
-    HashMap<GamePiece, Integer> distMap = new HashMap<GamePiece, Integer>();
-    queue.addFirst(startNode);
-    distMap.put(startNode, 0);
-    while (!queue.isEmpty()) {
-      GamePiece next = queue.removeFirst();
-      if (!seen.contains(next)) {
-        seen.add(next);
-        for (String dir : directions) { // for each direction that a GamePiece has
-          // if it has a connection in that direction and the connection isnt already seen
-          if (next.isConnectedTo(dir) && !seen.contains(next.neighbors.get(dir))) {
-            queue.addFirst(next.neighbors.get(dir));
-            distMap.put(next.neighbors.get(dir), distMap.get(next) + 1);
-          }
-        }
-      }
-    }
-    return distMap;
+    return masks;
   }
 
   // handles key events
   public void onKeyEvent(String pressedKey) {
-    GamePiece powerStationPiece = this.board.get(powerCol).get(powerRow);
+    int powerStationIndex = this.engine.powerCell;
     // moves the powerStation
-    if (pressedKey.equals("up") && this.powerRow > 0 && powerStationPiece.isConnectedTo("top")) {
-      this.board.get(powerCol).get(powerRow).powerStation = false;
-      this.powerRow -= 1;
-    }
-    if (pressedKey.equals("down") && this.powerRow < this.height - 1
-        && powerStationPiece.isConnectedTo("bottom")) {
-      this.board.get(powerCol).get(powerRow).powerStation = false;
-      this.powerRow += 1;
+    for (int p = 0; p < this.moveKeys.length; p++) {
+      if (pressedKey.equals(this.moveKeys[p])) {
+        this.engine.movePower(p);
+      }
     }
-    if (pressedKey.equals("left") && this.powerCol > 0 && powerStationPiece.isConnectedTo("left")) {
-      this.board.get(powerCol).get(powerRow).powerStation = false;
-      this.powerCol -= 1;
+    if (pressedKey.equals(" ")) { // restarts the game
+      restartGame();
     }
-    if (pressedKey.equals("right") && this.powerCol < this.width - 1
-        && powerStationPiece.isConnectedTo("right")) {
-      this.board.get(powerCol).get(powerRow).powerStation = false;
-      this.powerCol += 1;
+    if (pressedKey.equals("h")) { // shows which piece to turn next
+      this.hintCell = this.hints.nextCell();
     }
-    if (pressedKey.equals(" ") && this.powerCol < this.width) { // restarts the game
-      restartGame();
+    // the station may have moved, so distances along the solution change
+    if (this.engine.powerCell != powerStationIndex) {
+      this.hints.reset(this.engine.masks, this.engine.powerCell);
     }
-    updatePower(this.board);
   }
 
   // will run onTick functions
   public void onTick() {
-    this.time++;
-    checkGameEnd(this.nodes, this.score, this.time);
+    this.engine.tick();
   }
 
   // ends the world and checks win/loss
@@ -561,11 +451,11 @@ class LightEmAll extends World {
     int middleX = (int) (this.width * CELL_SIZE) / 2;
     int middleY = (int) (this.height * CELL_SIZE) / 2;
     WorldScene end = this.getEmptyScene();
-    if (this.gameEnd == 1) {
+    if (this.engine.gameEnd == 1) {
       end.placeImageXY(new TextImage("You Win!", CELL_SIZE, Color.GREEN), middleX, middleY);
       return new WorldEnd(true, end);
     }
-    else if (this.gameEnd == -1) {
+    else if (this.engine.gameEnd == -1) {
       end.placeImageXY(new TextImage("You Lose!", CELL_SIZE, Color.RED), middleX, middleY);
       return new WorldEnd(true, end);
     }
@@ -574,42 +464,17 @@ class LightEmAll extends World {
     }
   }
 
-  // will check game end state
-  public void checkGameEnd(ArrayList<GamePiece> nodes, int currScore, int currTime) {
-    boolean win = true;
-    boolean loss = true;
-    for (GamePiece node : nodes) {
-      if (node.powerLevel < 1) {
-        win = false;
-      }
-    }
-    // checks if the score and time is less than the defined maxes
-    if (this.score < maxScore && this.time < maxTime) {
-      loss = false;
-    }
-
-    if (win) {
-      this.gameEnd = 1; // returns 1 if game is won
-    }
-    else if (loss) {
-      this.gameEnd = -1; // returns -1 if game is lost
-    }
-    else {
-      this.gameEnd = 0; // returns 0 if the game is ongoing
-    }
-  }
-
   // creates a list of all the possible edges
   public ArrayList<Edge> generateAllPossibleEdges(ArrayList<ArrayList<GamePiece>> board) {
     ArrayList<Edge> ret = new ArrayList<Edge>();
-    for (int c = 0; c < this.width; c++) {
-      for (int r = 0; r < this.height; r++) {
-        if (c < this.width - 1) {
-          ret.add(new Edge(board.get(c).get(r), board.get(c + 1).get(r), this.rand.nextInt(200)));
-        }
-
-        if (r < this.height - 1) {
-          ret.add(new Edge(board.get(c).get(r), board.get(c).get(r + 1), this.rand.nextInt(200)));
+    for (int i = 0; i < this.topology.cellCount(); i++) {
+      for (int s = this.topology.offsets[i]; s < this.topology.offsets[i + 1]; s++) {
+        int target = this.topology.targets[s];
+        // each link is only added once, from its lower index
+        if (i < target) {
+          ret.add(new Edge(board.get(this.topology.colOf(i)).get(this.topology.rowOf(i)),
+              board.get(this.topology.colOf(target)).get(this.topology.rowOf(target)),
+              this.rand.nextInt(200)));
         }
       }
     }
@@ -618,63 +483,23 @@ class LightEmAll extends World {
 
   // calculates the MST given the edges
   public ArrayList<Edge> generateMST(ArrayList<Edge> edges) {
-    HashMap<GamePiece, GamePiece> representatives = new HashMap<GamePiece, GamePiece>();
+    BoardAlgorithms algorithms = new BoardAlgorithms();
+    int[] representatives = algorithms.initParents(this.topology.cellCount());
     ArrayList<Edge> ret = new ArrayList<Edge>();
-    ArrayDeque<Edge> queue = new ArrayDeque<Edge>();
     ArrayList<Edge> sortedEdges = edges;
     // sort the edges by ascending weight
     Collections.sort(sortedEdges, new SortByWeight());
-    // adds the edges to the queue
-    for (Edge e : sortedEdges) {
-      queue.addLast(e);
-    }
-
-    // setting every GamePiece to have itself as a representative
-    for (GamePiece p : this.nodes) {
-      representatives.put(p, p);
-    }
-    // while the work list isn't empty
-    while (!queue.isEmpty()) {
-      // remove first item of work list
-      Edge next = queue.removeFirst();
-      if (find(representatives, next.fromNode) == find(representatives, next.toNode)) {
-        // would adding this edge cause a cycle?
-        // then do nothing
-      }
-      // else add it to the mst, and update the representatives
-      else {
+    for (Edge next : sortedEdges) {
+      // adds the edge unless it would cause a cycle, updating the representatives
+      if (algorithms.union(representatives,
+          this.topology.index(next.fromNode.col, next.fromNode.row),
+          this.topology.index(next.toNode.col, next.toNode.row))) {
         ret.add(next);
-        union(representatives, find(representatives, next.fromNode),
-            find(representatives, next.toNode));
       }
     }
     return ret;
   }
 
-  // finds the representative of the given GamePiece
-  GamePiece find(HashMap<GamePiece, GamePiece> reps, GamePiece key) {
-    if (reps.get(key).equals(key)) {
-      return key;
-    }
-    else {
-      return find(reps, reps.get(key));
-    }
-  }
-
-  // EFFECT: updates the representatives of the hashmap with the given pieces 
-  public void union(HashMap<GamePiece, GamePiece> reps, GamePiece from, GamePiece to) {
-    reps.put(from, to);
-  }
-
-  // makes the initial representatives hashmap for Kruskals
-  public HashMap<GamePiece, GamePiece> initRepresentative(ArrayList<GamePiece> nodes) {
-    HashMap<GamePiece, GamePiece> ret = new HashMap<GamePiece, GamePiece>();
-    for (GamePiece node : nodes) {
-      ret.put(node, node);
-    }
-    return ret;
-  }
-
   // creates all the board connections where the edges are
   public void generateEdgeConnections() {
     for (Edge e : this.mst) {
@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// the rules of LightEmAll on any BoardTopology, with no drawing or javalib,
+// so bots, solvers and servers can play without a World
+class LightEmAllEngine {
+  BoardTopology topology;
+  BoardAlgorithms algorithms;
+  // the current wiring of every cell, as topology port bits
+  int[] masks;
+  // the wiring of the spanning tree the board was generated from
+  int[] solution;
+  // the power level of every cell
+  int[] power;
+  // scratch space for the flood fill, kept so moves don't allocate
+  int[] queue;
+  int poweredCount; // number of cells with power above 0
+  int powerCell; // index of the cell holding the power station
+  int radius; // how far power will reach outward
+  Random rand; // random for all random game elements
+  int score; // number of rotations the player does
+  int gameEnd; // 0 is ongoing, -1 is a loss, 1 is a win
+  int time; // counts time every tick
+
+  int maxScore = 20; // max number of rotations before you lose
+  int maxTime = 240; // max number of ticks before you lose
+
+  // makes a new random board on the given topology
+  LightEmAllEngine(BoardTopology topology, Random rand) {
+    this.topology = topology;
+    this.algorithms = new BoardAlgorithms();
+    this.rand = rand;
+    this.generate();
+  }
+
+  // starts a game on the given wiring with the power station in the first cell,
+  // reaching as far as the solved wiring needs
+  LightEmAllEngine(BoardTopology topology, int[] solution, int[] masks, Random rand) {
+    this.topology = topology;
+    this.algorithms = new BoardAlgorithms();
+    this.rand = rand;
+    this.start(solution, masks);
+  }
+
+  // EFFECT: builds a fresh scrambled board from a random spanning tree
+  void generate() {
+    int[] solution = this.algorithms.spanningTree(this.topology, this.rand);
+    int[] masks = Arrays.copyOf(solution, solution.length);
+    for (int i = 0; i < masks.length; i++) {
+      int numRotations = this.rand.nextInt(this.topology.portCount);
+      for (int r = 0; r < numRotations; r++) {
+        masks[i] = this.topology.rotate(masks[i], 1);
+      }
+    }
+    this.start(solution, masks);
+  }
+
+  // EFFECT: starts a new game on the given wiring, with the station in the first cell
+  void start(int[] solution, int[] masks) {
+    this.solution = solution;
+    this.masks = masks;
+    this.power = new int[masks.length];
+    this.queue = new int[masks.length];
+    this.powerCell = 0;
+    this.radius = (this.algorithms.diameter(this.topology, solution, 0) + 1) / 2 + 1;
+    this.score = 0;
+    this.time = 0;
+    this.updatePower();
+    this.checkGameEnd();
+  }
+
+  // EFFECT: rotates the given cell, clockwise if dir > 0 and counter clockwise if dir < 0
+  void rotate(int cell, int dir) {
+    this.masks[cell] = this.topology.rotate(this.masks[cell], dir);
+    this.score++;
+    this.updatePower();
+    this.checkGameEnd();
+  }
+
+  // EFFECT: moves the power station out through the given side if it is wired that way
+  // returns whether the station moved
+  boolean movePower(int port) {
+    int slot = this.topology.slotOf(this.powerCell, port);
+    if (slot >= 0 && this.algorithms.linked(this.topology, this.masks, this.powerCell, slot)) {
+      this.powerCell = this.topology.targets[slot];
+      this.updatePower();
+      this.checkGameEnd();
+      return true;
+    }
+    return false;
+  }
+
+  // EFFECT: advances the clock by one tick
+  void tick() {
+    this.time++;
+    this.checkGameEnd();
+  }
+
+  // EFFECT: recomputes the power level of every cell from the station
+  void updatePower() {
+    this.poweredCount = this.algorithms.spreadPower(this.topology, this.masks, this.powerCell,
+        this.radius, this.power, this.queue);
+  }
+
+  // is every cell powered
+  boolean isWon() {
+    return this.poweredCount == this.masks.length;
+  }
+
+  // EFFECT: updates gameEnd, winning takes priority over running out of moves or time
+  void checkGameEnd() {
+    if (this.isWon()) {
+      this.gameEnd = 1;
+    }
+    else if (this.score >= this.maxScore || this.time >= this.maxTime) {
+      this.gameEnd = -1;
+    }
+    else {
+      this.gameEnd = 0;
+    }
+  }
+}
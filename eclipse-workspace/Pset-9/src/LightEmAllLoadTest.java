@@ -0,0 +1,147 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// drives many simulated clients against a LightEmAllServer on localhost
+// and reports the latency of their moves
+// arguments: [clients] [moves per client] [board size] [port, 0 starts a server in process]
+class LightEmAllLoadTest {
+  int clients;
+  int moves;
+  int size;
+  // the round trip time of every move, clients * moves long, in nanoseconds,
+  // -1 for a move that got no answer or an ERR
+  long[] latencies;
+  AtomicInteger errors;
+
+  LightEmAllLoadTest(int clients, int moves, int size) {
+    this.clients = clients;
+    this.moves = moves;
+    this.size = size;
+    this.latencies = new long[clients * moves];
+    Arrays.fill(this.latencies, -1);
+    this.errors = new AtomicInteger();
+  }
+
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+    int moves = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+    int size = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+    int port = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+    LightEmAllServer server = null;
+    if (port == 0) {
+      server = new LightEmAllServer(60000);
+      port = server.start(0);
+    }
+    LightEmAllLoadTest test = new LightEmAllLoadTest(clients, moves, size);
+    long elapsed = test.run(port);
+    System.out.println(test.report(elapsed));
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  // EFFECT: runs every client at once and fills in the latencies
+  // returns the wall clock time of the whole run in nanoseconds
+  long run(int port) throws InterruptedException {
+    ThreadFactory threads = LightEmAllServer.connectionThreads();
+    CountDownLatch ready = new CountDownLatch(this.clients);
+    CountDownLatch go = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(this.clients);
+    for (int c = 0; c < this.clients; c++) {
+      int client = c;
+      threads.newThread(() -> {
+        try {
+          this.runClient(client, port, ready, go);
+        }
+        catch (IOException | InterruptedException e) {
+          this.errors.incrementAndGet();
+        }
+        finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    ready.await();
+    long start = System.nanoTime();
+    go.countDown();
+    done.await();
+    return System.nanoTime() - start;
+  }
+
+  // EFFECT: connects, opens a board, waits for the start signal, then times every rotation
+  void runClient(int client, int port, CountDownLatch ready, CountDownLatch go)
+      throws IOException, InterruptedException {
+    Random rand = new Random(client);
+    boolean connected = false;
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+      socket.setTcpNoDelay(true);
+      out.println("NEW " + this.size + " " + this.size + " square " + client);
+      String opened = in.readLine();
+      if (opened == null || !opened.startsWith("SESSION ")) {
+        throw new IOException("no board: " + opened);
+      }
+      String session = opened.split(" ")[1];
+      connected = true;
+      ready.countDown();
+      go.await();
+      for (int m = 0; m < this.moves; m++) {
+        long start = System.nanoTime();
+        out.println("ROTATE " + session + " " + rand.nextInt(this.size * this.size) + " 1");
+        String reply = in.readLine();
+        if (reply == null) {
+          // the server hung up, the moves left are failed too
+          this.errors.incrementAndGet();
+          return;
+        }
+        else if (reply.startsWith("ERR")) {
+          this.errors.incrementAndGet();
+        }
+        else {
+          this.latencies[client * this.moves + m] = System.nanoTime() - start;
+        }
+      }
+      out.println("CLOSE " + session);
+      in.readLine();
+      out.println("QUIT");
+    }
+    finally {
+      // a client that never got a board still has to release the start line
+      if (!connected) {
+        ready.countDown();
+      }
+    }
+  }
+
+  // the latency at the given fraction of the sorted latencies, in microseconds, 0 if none
+  double percentile(long[] sorted, double fraction) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+    return sorted[Math.max(index, 0)] / 1000.0;
+  }
+
+  // a summary of the run, failed moves are counted but left out of the latencies
+  String report(long elapsedNanos) {
+    long[] sorted = Arrays.stream(this.latencies).filter(latency -> latency >= 0).toArray();
+    Arrays.sort(sorted);
+    return String.format(
+        "%d clients x %d moves on %dx%d boards: p50 %.1f us, p99 %.1f us, max %.1f us, "
+            + "%.0f moves/s, %d failed moves, %d errors",
+        this.clients, this.moves, this.size, this.size, this.percentile(sorted, 0.50),
+        this.percentile(sorted, 0.99), this.percentile(sorted, 1.0),
+        sorted.length / (elapsedNanos / 1e9), this.latencies.length - sorted.length,
+        this.errors.get());
+  }
+}
@@ -0,0 +1,324 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// one game hosted by the server, every command on it holds its lock
+class GameSession {
+  long id;
+  LightEmAllEngine engine;
+  volatile long lastUsed; // System.nanoTime() of the last command
+
+  GameSession(long id, LightEmAllEngine engine, long now) {
+    this.id = id;
+    this.engine = engine;
+    this.lastUsed = now;
+  }
+}
+
+// hosts many LightEmAll games behind one localhost socket, one command per line:
+// NEW width height [square|torus|hex] [seed] -> SESSION id
+// ROTATE id cell dir                         -> OK score gameEnd
+// MOVE id port                               -> OK powerCell gameEnd, or NO if not wired that way
+// STATE id                                   -> STATE id width height ports powerCell score time
+//                                               gameEnd powered mask,mask,...
+// CLOSE id                                   -> OK
+// QUIT                                       -> closes the connection
+// anything that fails answers ERR and a reason, ERR bad argument for a malformed line
+class LightEmAllServer {
+  // the most cells a board can have, so one NEW can't use up the heap
+  static long MAX_CELLS = 1000000;
+  // the most sessions open at once by default, so clients that never CLOSE can't either
+  static int MAX_SESSIONS = 100000;
+  int maxSessions; // NEW is refused while this many sessions are open
+  ConcurrentHashMap<Long, GameSession> sessions;
+  AtomicLong nextId;
+  long idleNanos; // sessions unused for longer than this are evicted
+  ThreadFactory threads;
+  ServerSocket serverSocket;
+  ScheduledExecutorService evictor;
+  volatile boolean running;
+
+  LightEmAllServer(long idleMillis) {
+    this.sessions = new ConcurrentHashMap<Long, GameSession>();
+    this.nextId = new AtomicLong(1);
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    this.maxSessions = LightEmAllServer.MAX_SESSIONS;
+    this.threads = LightEmAllServer.connectionThreads();
+  }
+
+  // virtual threads when the JVM has them (Java 21 and up), daemon platform threads otherwise
+  static ThreadFactory connectionThreads() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory")
+          .invoke(builder);
+    }
+    catch (ReflectiveOperationException e) {
+      return runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+  }
+
+  // EFFECT: starts listening on localhost and evicting idle sessions
+  // returns the port actually bound, which is useful when asking for port 0
+  int start(int port) throws IOException {
+    this.serverSocket = new ServerSocket(port, 16384, InetAddress.getLoopbackAddress());
+    this.running = true;
+    this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "session-evictor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(TimeUnit.NANOSECONDS.toMillis(this.idleNanos) / 2, 1);
+    this.evictor.scheduleAtFixedRate(() -> this.evictIdle(System.nanoTime()), period, period,
+        TimeUnit.MILLISECONDS);
+    Thread acceptor = new Thread(this::acceptLoop, "lightemall-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return this.serverSocket.getLocalPort();
+  }
+
+  // EFFECT: hands every new connection its own thread until the server stops
+  void acceptLoop() {
+    while (this.running) {
+      try {
+        Socket socket = this.serverSocket.accept();
+        this.threads.newThread(() -> this.serve(socket)).start();
+      }
+      catch (IOException e) {
+        if (this.running) {
+          // usually out of file handles, give open connections a moment to close
+          System.err.println("accept failed: " + e.getMessage());
+          try {
+            Thread.sleep(50);
+          }
+          catch (InterruptedException interrupted) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  // EFFECT: answers every line the client sends until it quits or disconnects
+  void serve(Socket socket) {
+    try (Socket s = socket;
+        BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream()));
+        PrintWriter out = new PrintWriter(s.getOutputStream(), true)) {
+      s.setTcpNoDelay(true);
+      String line = in.readLine();
+      while (line != null && !line.trim().equals("QUIT")) {
+        out.println(this.handle(line));
+        line = in.readLine();
+      }
+    }
+    catch (IOException e) {
+      // the client went away, its sessions stay until they are evicted
+    }
+  }
+
+  // runs one command line and returns the reply
+  String handle(String line) {
+    String[] words = line.trim().split("\\s+");
+    try {
+      switch (words[0]) {
+        case "NEW":
+          return this.newSession(words);
+        case "ROTATE":
+          return this.rotate(words);
+        case "MOVE":
+          return this.move(words);
+        case "STATE":
+          return this.state(words);
+        case "CLOSE":
+          long[] args = LightEmAllServer.numbers(words, 1);
+          if (args == null) {
+            return "ERR bad argument";
+          }
+          return this.sessions.remove(args[0]) == null ? "ERR no session" : "OK";
+        default:
+          return "ERR unknown command " + words[0];
+      }
+    }
+    catch (RuntimeException e) {
+      // a bug in one command shouldn't drop the connection or the other sessions
+      System.err.println("internal error on \"" + line + "\"");
+      e.printStackTrace();
+      return "ERR internal";
+    }
+  }
+
+  // the words after the command parsed as numbers, or null unless there are exactly count
+  // of them and every one is a number
+  static long[] numbers(String[] words, int count) {
+    if (words.length != count + 1) {
+      return null;
+    }
+    long[] args = new long[count];
+    for (int i = 0; i < count; i++) {
+      try {
+        args[i] = Long.parseLong(words[i + 1]);
+      }
+      catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return args;
+  }
+
+  // NEW width height [square|torus|hex] [seed]
+  String newSession(String[] words) {
+    if (words.length < 3 || words.length > 5) {
+      return "ERR bad argument";
+    }
+    long[] size = LightEmAllServer.numbers(new String[] { "NEW", words[1], words[2] }, 2);
+    long[] seed = words.length > 4 ? LightEmAllServer.numbers(
+        new String[] { "NEW", words[4] }, 1) : new long[0];
+    if (size == null || seed == null) {
+      return "ERR bad argument";
+    }
+    if (size[0] < 1 || size[1] < 1) {
+      return "ERR board must be at least 1x1";
+    }
+    if (size[0] > LightEmAllServer.MAX_CELLS || size[1] > LightEmAllServer.MAX_CELLS
+        || size[0] * size[1] > LightEmAllServer.MAX_CELLS) {
+      return "ERR board too large";
+    }
+    if (this.sessions.size() >= this.maxSessions) {
+      return "ERR too many sessions";
+    }
+    int width = (int) size[0];
+    int height = (int) size[1];
+    String shape = words.length > 3 ? words[3] : "square";
+    Random rand = seed.length > 0 ? new Random(seed[0]) : new Random();
+    BoardTopology topology;
+    if (shape.equals("square")) {
+      topology = new SquareTopology(width, height);
+    }
+    else if (shape.equals("torus")) {
+      topology = new TorusTopology(width, height);
+    }
+    else if (shape.equals("hex")) {
+      topology = new HexTopology(width, height);
+    }
+    else {
+      return "ERR unknown shape " + shape;
+    }
+    long id = this.nextId.getAndIncrement();
+    this.sessions.put(id,
+        new GameSession(id, new LightEmAllEngine(topology, rand), System.nanoTime()));
+    return "SESSION " + id;
+  }
+
+  // ROTATE id cell dir, where dir is 1 for clockwise and -1 for counterclockwise
+  String rotate(String[] words) {
+    long[] args = LightEmAllServer.numbers(words, 3);
+    if (args == null || (args[2] != 1 && args[2] != -1)) {
+      return "ERR bad argument";
+    }
+    GameSession session = this.sessions.get(args[0]);
+    if (session == null) {
+      return "ERR no session";
+    }
+    synchronized (session) {
+      session.lastUsed = System.nanoTime();
+      if (args[1] < 0 || args[1] >= session.engine.masks.length) {
+        return "ERR no cell " + args[1];
+      }
+      if (session.engine.gameEnd != 0) {
+        return "ERR game over";
+      }
+      session.engine.rotate((int) args[1], (int) args[2]);
+      return "OK " + session.engine.score + " " + session.engine.gameEnd;
+    }
+  }
+
+  // MOVE id port
+  String move(String[] words) {
+    long[] args = LightEmAllServer.numbers(words, 2);
+    if (args == null) {
+      return "ERR bad argument";
+    }
+    GameSession session = this.sessions.get(args[0]);
+    if (session == null) {
+      return "ERR no session";
+    }
+    synchronized (session) {
+      session.lastUsed = System.nanoTime();
+      if (session.engine.gameEnd != 0) {
+        return "ERR game over";
+      }
+      if (args[1] < 0 || args[1] >= session.engine.topology.portCount
+          || !session.engine.movePower((int) args[1])) {
+        return "NO";
+      }
+      return "OK " + session.engine.powerCell + " " + session.engine.gameEnd;
+    }
+  }
+
+  // STATE id
+  String state(String[] words) {
+    long[] args = LightEmAllServer.numbers(words, 1);
+    if (args == null) {
+      return "ERR bad argument";
+    }
+    GameSession session = this.sessions.get(args[0]);
+    if (session == null) {
+      return "ERR no session";
+    }
+    synchronized (session) {
+      session.lastUsed = System.nanoTime();
+      LightEmAllEngine engine = session.engine;
+      StringBuilder reply = new StringBuilder("STATE ").append(session.id).append(' ')
+          .append(engine.topology.width).append(' ').append(engine.topology.height).append(' ')
+          .append(engine.topology.portCount).append(' ').append(engine.powerCell).append(' ')
+          .append(engine.score).append(' ').append(engine.time).append(' ')
+          .append(engine.gameEnd).append(' ').append(engine.poweredCount).append(' ');
+      for (int i = 0; i < engine.masks.length; i++) {
+        if (i > 0) {
+          reply.append(',');
+        }
+        reply.append(engine.masks[i]);
+      }
+      return reply.toString();
+    }
+  }
+
+  // EFFECT: drops every session unused since before now minus the idle timeout
+  // returns how many were dropped
+  int evictIdle(long now) {
+    int evicted = 0;
+    for (GameSession session : this.sessions.values()) {
+      if (now - session.lastUsed > this.idleNanos
+          && this.sessions.remove(session.id, session)) {
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  // EFFECT: stops accepting clients and evicting sessions
+  void stop() throws IOException {
+    this.running = false;
+    if (this.evictor != null) {
+      this.evictor.shutdownNow();
+    }
+    if (this.serverSocket != null) {
+      this.serverSocket.close();
+    }
+  }
+}
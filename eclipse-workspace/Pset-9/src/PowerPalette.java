@@ -0,0 +1,30 @@
+import java.awt.Color;
+
+// the wire colors for every power level of one radius, built once when a board's radius is
+// known so drawing a piece never allocates a Color, and never changed after that
+class PowerPalette {
+  final int radius;
+  // index i is the color of power level i
+  final Color[] colors;
+
+  PowerPalette(int radius) {
+    this.radius = radius;
+    this.colors = PowerPalette.build(radius);
+  }
+
+  // makes the palette for the given radius, fading from gray through to full yellow
+  static Color[] build(int radius) {
+    Color[] palette = new Color[Math.max(radius, 0) + 1];
+    palette[0] = Color.GRAY;
+    for (int level = 1; level < palette.length; level++) {
+      // multiplies before dividing so large radii still get a smooth gradient
+      palette[level] = new Color(255, 255, 0, (int) Math.round(255.0 * level / radius));
+    }
+    return palette;
+  }
+
+  // the color of the given power level, levels above the radius get full color
+  Color colorFor(int powerLevel) {
+    return this.colors[Math.max(Math.min(powerLevel, this.colors.length - 1), 0)];
+  }
+}